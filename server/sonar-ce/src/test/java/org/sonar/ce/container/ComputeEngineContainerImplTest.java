@@ -91,7 +91,7 @@ public class ComputeEngineContainerImplTest {
           + 78 // level 4
           + 4 // content of CeConfigurationModule
           + 3 // content of CeHttpModule
-          + 5 // content of CeQueueModule
+          + 6 // content of CeQueueModule
           + 4 // content of ProjectAnalysisTaskModule
           + 4 // content of CeTaskProcessorModule
     );
@@ -21,11 +21,15 @@ package org.sonar.process.monitor;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.process.ProcessId;
@@ -51,6 +55,10 @@ public class JavaCommand {
 
   private final Map<String, String> envVariables = new HashMap<>(System.getenv());
 
+  // processes which must be up before launching this one. Null means all the processes launched before this one.
+  @CheckForNull
+  private Set<ProcessId> dependencies;
+
   public JavaCommand(ProcessId id) {
     this.id = id;
   }
@@ -137,6 +145,24 @@ public class JavaCommand {
     return this;
   }
 
+  /**
+   * Processes which must be up before launching this one. {@code null} if the process depends
+   * on all the processes launched before it.
+   */
+  @CheckForNull
+  public Set<ProcessId> getDependencies() {
+    return dependencies;
+  }
+
+  /**
+   * Declares the processes which must be up before launching this one. By default, a process is launched
+   * only when all the processes launched before it are up.
+   */
+  public JavaCommand setDependencies(ProcessId... processIds) {
+    this.dependencies = processIds.length == 0 ? EnumSet.noneOf(ProcessId.class) : EnumSet.copyOf(Arrays.asList(processIds));
+    return this;
+  }
+
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder("JavaCommand{");
@@ -146,6 +172,7 @@ public class JavaCommand {
     sb.append(", classpath=").append(classpath);
     sb.append(", arguments=").append(arguments);
     sb.append(", envVariables=").append(envVariables);
+    sb.append(", dependencies=").append(dependencies);
     sb.append('}');
     return sb.toString();
   }
@@ -23,8 +23,12 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import javax.annotation.CheckForNull;
 import org.slf4j.Logger;
@@ -33,6 +37,7 @@ import org.sonar.process.DefaultProcessCommands;
 import org.sonar.process.Lifecycle;
 import org.sonar.process.Lifecycle.State;
 import org.sonar.process.ProcessId;
+import org.sonar.process.ProcessMetric;
 import org.sonar.process.ProcessUtils;
 import org.sonar.process.SystemExit;
 
@@ -143,14 +148,19 @@ public class Monitor {
     }
   }
 
-  private void startAndMonitorProcesses() throws InterruptedException{
+  private void startAndMonitorProcesses() throws InterruptedException {
     File tempDir = fileSystem.getTempDir();
     this.launcher = new JavaProcessLauncher(TIMEOUTS, tempDir);
+    long startedAt = System.currentTimeMillis();
+    // processes launched but not known as being up yet, in order of launch
+    Map<ProcessId, ProcessRef> starting = new LinkedHashMap<>();
     for (JavaCommand command : javaCommands) {
       ProcessRef processRef = null;
       try {
+        waitForDependencies(command, starting, startedAt);
         processRef = launcher.launch(command);
         monitor(processRef);
+        starting.put(command.getProcessId(), processRef);
       } catch (InterruptedException | RuntimeException e) {
         if (processRef != null) {
           LOG.error("{} failed to start", processRef);
@@ -160,18 +170,49 @@ public class Monitor {
         throw e;
       }
     }
+    try {
+      for (ProcessRef processRef : new ArrayList<>(starting.values())) {
+        waitForUp(processRef, startedAt);
+      }
+    } catch (InterruptedException | RuntimeException e) {
+      stop();
+      throw e;
+    }
   }
 
-  private void monitor(ProcessRef processRef) throws InterruptedException {
+  /**
+   * Blocks until the processes the command depends on are up. Processes which are launched but do not
+   * need to be up for the command stay in {@code starting}.
+   */
+  private static void waitForDependencies(JavaCommand command, Map<ProcessId, ProcessRef> starting, long startedAt) throws InterruptedException {
+    Set<ProcessId> dependencies = command.getDependencies();
+    Iterator<Map.Entry<ProcessId, ProcessRef>> it = starting.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<ProcessId, ProcessRef> entry = it.next();
+      if (dependencies == null || dependencies.contains(entry.getKey())) {
+        waitForUp(entry.getValue(), startedAt);
+        it.remove();
+      }
+    }
+  }
+
+  private void monitor(ProcessRef processRef) {
     // physically watch if process is alive
     WatcherThread watcherThread = new WatcherThread(processRef, this);
     watcherThread.start();
     watcherThreads.add(watcherThread);
+  }
 
+  private static void waitForUp(ProcessRef processRef, long startedAt) throws InterruptedException {
     // wait for process to be ready (accept requests or so on)
-    processRef.waitForUp();
+    try {
+      processRef.waitForUp();
+    } catch (RuntimeException e) {
+      LOG.error("{} failed to start", processRef);
+      throw e;
+    }
 
-    LOG.info("{} is up", processRef);
+    LOG.info("{} is up ({} ms after startup of processes)", processRef, System.currentTimeMillis() - startedAt);
   }
 
   private void stopIfAnyProcessDidNotStart() {
@@ -431,6 +472,24 @@ public class Monitor {
     return lifecycle.getState();
   }
 
+  /**
+   * Metrics of the monitored processes which are not stopped, by process key. Processes which
+   * did not publish their metrics yet are excluded.
+   */
+  public Map<String, Map<ProcessMetric, Long>> getProcessMetrics() {
+    Map<String, Map<ProcessMetric, Long>> metricsByProcess = new LinkedHashMap<>();
+    for (WatcherThread watcherThread : watcherThreads) {
+      ProcessRef processRef = watcherThread.getProcessRef();
+      if (!processRef.isStopped()) {
+        Map<ProcessMetric, Long> metrics = processRef.getMetrics();
+        if (!metrics.isEmpty()) {
+          metricsByProcess.put(processRef.getKey(), metrics);
+        }
+      }
+    }
+    return metricsByProcess;
+  }
+
   Thread getShutdownHook() {
     return shutdownHook;
   }
@@ -19,9 +19,11 @@
  */
 package org.sonar.process.monitor;
 
+import java.util.Map;
 import org.slf4j.LoggerFactory;
 import org.sonar.process.MessageException;
 import org.sonar.process.ProcessCommands;
+import org.sonar.process.ProcessMetric;
 import org.sonar.process.ProcessUtils;
 
 class ProcessRef {
@@ -58,6 +60,13 @@ class ProcessRef {
     return commands;
   }
 
+  /**
+   * Metrics published by the process into the shared memory. Empty if the process did not publish them yet.
+   */
+  Map<ProcessMetric, Long> getMetrics() {
+    return ProcessMetric.readAll(commands);
+  }
+
   void waitForUp() throws InterruptedException {
     boolean up = false;
     while (!up) {
@@ -99,6 +108,8 @@ class ProcessRef {
     }
     ProcessUtils.closeStreams(process);
     StreamGobbler.waitUntilFinish(gobbler);
+    // the process may have been killed before clearing its metrics
+    commands.clearMetrics();
     stopped = true;
   }
 
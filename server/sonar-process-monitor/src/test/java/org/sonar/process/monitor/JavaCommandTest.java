@@ -73,4 +73,16 @@ public class JavaCommandTest {
     command.addJavaOptions("-Xmx512m -Xms256m -Dfoo");
     assertThat(command.getJavaOptions()).containsOnly("-Xmx512m", "-Xms256m", "-Dfoo");
   }
+
+  @Test
+  public void dependencies_are_all_previous_processes_by_default() {
+    JavaCommand command = new JavaCommand(ProcessId.COMPUTE_ENGINE);
+    assertThat(command.getDependencies()).isNull();
+
+    command.setDependencies(ProcessId.ELASTICSEARCH);
+    assertThat(command.getDependencies()).containsOnly(ProcessId.ELASTICSEARCH);
+
+    command.setDependencies();
+    assertThat(command.getDependencies()).isEmpty();
+  }
 }
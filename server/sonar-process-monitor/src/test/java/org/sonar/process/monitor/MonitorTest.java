@@ -27,6 +27,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.assertj.core.api.AbstractAssert;
@@ -43,6 +44,7 @@ import org.junit.rules.Timeout;
 import org.sonar.process.Lifecycle.State;
 import org.sonar.process.NetworkUtils;
 import org.sonar.process.ProcessId;
+import org.sonar.process.ProcessMetric;
 import org.sonar.process.SystemExit;
 
 import static java.util.Collections.singletonList;
@@ -163,6 +165,30 @@ public class MonitorTest {
     verify(fileSystem).reset();
   }
 
+  @Test
+  public void read_metrics_published_by_started_processes() throws Exception {
+    underTest = newDefaultMonitor(tempDir);
+    HttpProcessClient client = new HttpProcessClient(tempDir, ProcessId.ELASTICSEARCH);
+    underTest.start(singletonList(client.newCommand()));
+
+    // metrics are published by a thread of the process, right after its startup
+    Map<String, Map<ProcessMetric, Long>> metrics = underTest.getProcessMetrics();
+    long timeoutAt = System.currentTimeMillis() + 10_000L;
+    while (metrics.isEmpty() && System.currentTimeMillis() < timeoutAt) {
+      Thread.sleep(100L);
+      metrics = underTest.getProcessMetrics();
+    }
+
+    assertThat(metrics).containsOnlyKeys(ProcessId.ELASTICSEARCH.getKey());
+    Map<ProcessMetric, Long> esMetrics = metrics.get(ProcessId.ELASTICSEARCH.getKey());
+    assertThat(esMetrics.get(ProcessMetric.UPDATED_AT)).isPositive();
+    assertThat(esMetrics.get(ProcessMetric.HEAP_USED_BYTES)).isPositive();
+    assertThat(esMetrics.get(ProcessMetric.THREAD_COUNT)).isPositive();
+
+    underTest.stop();
+    assertThat(underTest.getProcessMetrics()).isEmpty();
+  }
+
   @Test
   public void start_then_stop_sequence_of_commands() throws Exception {
     underTest = newDefaultMonitor(tempDir);
@@ -189,6 +215,34 @@ public class MonitorTest {
     verify(fileSystem).reset();
   }
 
+  @Test
+  public void start_processes_without_waiting_for_processes_they_do_not_depend_on() throws Exception {
+    underTest = newDefaultMonitor(tempDir);
+    HttpProcessClient p1 = new HttpProcessClient(tempDir, ProcessId.ELASTICSEARCH);
+    HttpProcessClient p2 = new HttpProcessClient(tempDir, ProcessId.WEB_SERVER);
+    HttpProcessClient p3 = new HttpProcessClient(tempDir, ProcessId.COMPUTE_ENGINE);
+    underTest.start(Arrays.asList(
+      p1.newCommand(),
+      p2.newCommand().setDependencies(ProcessId.ELASTICSEARCH),
+      p3.newCommand().setDependencies(ProcessId.ELASTICSEARCH)));
+
+    // all processes are up when start() returns
+    assertThat(p1)
+      .isUp()
+      .wasStartedBefore(p2)
+      .wasStartedBefore(p3);
+    // p3 does not depend on p2, so it is launched while p2 is not up yet
+    assertThat(p3).wasStartedBeforeReady(p2);
+    assertThat(p2).isUp();
+    assertThat(p3).isUp();
+
+    underTest.stop();
+
+    assertThat(p1).isNotUp();
+    assertThat(p2).isNotUp();
+    assertThat(p3).isNotUp();
+  }
+
   @Test
   public void stop_all_processes_if_monitor_shutdowns() throws Exception {
     underTest = newDefaultMonitor(tempDir);
@@ -477,6 +531,16 @@ public class MonitorTest {
       return this;
     }
 
+    public HttpProcessClientAssert wasStartedBeforeReady(HttpProcessClient client) {
+      isNotNull();
+
+      List<Long> startingAt = actual.wasStartingAt();
+      longs.assertEqual(info, startingAt.size(), 1);
+      longs.assertLessThan(info, startingAt.iterator().next(), client.wasReadyAt().iterator().next());
+
+      return this;
+    }
+
     public HttpProcessClientAssert wasTerminated(int times) {
       isNotNull();
 
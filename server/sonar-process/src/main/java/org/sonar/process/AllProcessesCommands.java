@@ -60,6 +60,10 @@ import static org.sonar.process.ProcessCommands.MAX_PROCESSES;
  *   <li>Fourth byte will always contain {@link #EMPTY} unless process declares that it is operational by writing {@link #OPERATIONAL}.
  *       This does not imply that is done starting.</li>
  *   <li>The next 8 bytes contains a long (value of {@link System#currentTimeMillis()}) which represents the date of the last ping</li>
+ *   <li>The next 500 bytes contains the URL of the System Info of the process</li>
+ *   <li>The next {@link ProcessMetric#MAX_METRICS} groups of 8 bytes contain the longs of the {@link ProcessMetric}s published by
+ *       the process, in the order of their declaration. They are aligned on 8 bytes so that they can be read by other processes
+ *       without being partially written.</li>
  * </ul>
  * </p>
  */
@@ -72,8 +76,10 @@ public class AllProcessesCommands implements AutoCloseable {
   private static final int SYSTEM_INFO_URL_BYTE_OFFSET = PING_BYTE_OFFSET + 8;
 
   private static final int SYSTEM_INFO_URL_SIZE_IN_BYTES = 500;
+  private static final int METRICS_BYTE_OFFSET = SYSTEM_INFO_URL_BYTE_OFFSET + SYSTEM_INFO_URL_SIZE_IN_BYTES;
+  private static final int METRICS_SIZE_IN_BYTES = 8 * ProcessMetric.MAX_METRICS;
 
-  private static final int BYTE_LENGTH_FOR_ONE_PROCESS = 1 + 1 + 1 + 1 + 8 + SYSTEM_INFO_URL_SIZE_IN_BYTES;
+  private static final int BYTE_LENGTH_FOR_ONE_PROCESS = 1 + 1 + 1 + 1 + 8 + SYSTEM_INFO_URL_SIZE_IN_BYTES + METRICS_SIZE_IN_BYTES;
 
   // With this shared memory we can handle up to MAX_PROCESSES processes
   private static final int MAX_SHARED_MEMORY = BYTE_LENGTH_FOR_ONE_PROCESS * MAX_PROCESSES;
@@ -167,6 +173,28 @@ public class AllProcessesCommands implements AutoCloseable {
     writeBytes(processNumber, SYSTEM_INFO_URL_BYTE_OFFSET, urlBytes);
   }
 
+  /**
+   * To be executed by child process to publish the value of one of its metrics
+   */
+  void setMetric(int processNumber, ProcessMetric metric, long value) {
+    writeLong(processNumber, metricOffset(metric), value);
+  }
+
+  long getMetric(int processNumber, ProcessMetric metric) {
+    return readLong(processNumber, metricOffset(metric));
+  }
+
+  void clearMetrics(int processNumber) {
+    // UPDATED_AT is reset first, so that readers ignore the other values while they are being reset
+    for (int i = 0; i < METRICS_SIZE_IN_BYTES; i++) {
+      writeByte(processNumber, METRICS_BYTE_OFFSET + i, EMPTY);
+    }
+  }
+
+  private static int metricOffset(ProcessMetric metric) {
+    return METRICS_BYTE_OFFSET + 8 * metric.ordinal();
+  }
+
   /**
    * To be executed by monitor process to ask for child process termination
    */
@@ -292,6 +320,21 @@ public class AllProcessesCommands implements AutoCloseable {
       return AllProcessesCommands.this.getSystemInfoUrl(processNumber);
     }
 
+    @Override
+    public void setMetric(ProcessMetric metric, long value) {
+      AllProcessesCommands.this.setMetric(processNumber, metric, value);
+    }
+
+    @Override
+    public long getMetric(ProcessMetric metric) {
+      return AllProcessesCommands.this.getMetric(processNumber, metric);
+    }
+
+    @Override
+    public void clearMetrics() {
+      AllProcessesCommands.this.clearMetrics(processNumber);
+    }
+
     @Override
     public void askForStop() {
       AllProcessesCommands.this.askForStop(processNumber);
@@ -101,6 +101,21 @@ public class DefaultProcessCommands implements ProcessCommands {
     return delegate.getHttpUrl();
   }
 
+  @Override
+  public void setMetric(ProcessMetric metric, long value) {
+    delegate.setMetric(metric, value);
+  }
+
+  @Override
+  public long getMetric(ProcessMetric metric) {
+    return delegate.getMetric(metric);
+  }
+
+  @Override
+  public void clearMetrics() {
+    delegate.clearMetrics();
+  }
+
   @Override
   public void askForStop() {
     delegate.askForStop();
@@ -0,0 +1,122 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.process;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically publishes the {@link ProcessMetric}s of the current JVM, and those provided by the process
+ * through {@link #addSource(ProcessMetric, LongSupplier)}, into the shared memory, so that they can be read
+ * at no cost by the other processes. Metrics are cleared when publication stops.
+ */
+public class MetricsPublisher extends Thread {
+
+  private final ProcessCommands commands;
+  private final long delayMs;
+  private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+  private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+  private final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+  private final Map<ProcessMetric, LongSupplier> sources = new EnumMap<>(ProcessMetric.class);
+  private volatile boolean publishing = true;
+
+  public MetricsPublisher(ProcessCommands commands) {
+    this(commands, 5_000L);
+  }
+
+  MetricsPublisher(ProcessCommands commands, long delayMs) {
+    super("Metrics Publisher");
+    this.commands = commands;
+    this.delayMs = delayMs;
+    setDaemon(true);
+  }
+
+  @Override
+  public void run() {
+    while (publishing) {
+      publish();
+      try {
+        Thread.sleep(delayMs);
+      } catch (InterruptedException ignored) {
+        publishing = false;
+        // restore interrupted flag
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Publishes the value returned by {@code source} as {@code metric}, along with the JVM metrics
+   */
+  public synchronized void addSource(ProcessMetric metric, LongSupplier source) {
+    sources.put(metric, source);
+  }
+
+  synchronized void publish() {
+    if (!publishing) {
+      return;
+    }
+    MemoryUsage heap = memoryBean.getHeapMemoryUsage();
+    commands.setMetric(ProcessMetric.HEAP_USED_BYTES, heap.getUsed());
+    commands.setMetric(ProcessMetric.HEAP_MAX_BYTES, heap.getMax());
+    commands.setMetric(ProcessMetric.NON_HEAP_USED_BYTES, memoryBean.getNonHeapMemoryUsage().getUsed());
+    commands.setMetric(ProcessMetric.THREAD_COUNT, threadBean.getThreadCount());
+    long gcCount = 0L;
+    long gcTime = 0L;
+    for (GarbageCollectorMXBean gcBean : gcBeans) {
+      // -1 if undefined for this collector
+      gcCount += Math.max(0L, gcBean.getCollectionCount());
+      gcTime += Math.max(0L, gcBean.getCollectionTime());
+    }
+    commands.setMetric(ProcessMetric.GC_COUNT, gcCount);
+    commands.setMetric(ProcessMetric.GC_TIME_MS, gcTime);
+    for (Map.Entry<ProcessMetric, LongSupplier> source : sources.entrySet()) {
+      publishSource(source.getKey(), source.getValue());
+    }
+    // written last, so that readers know when all the other values have been updated
+    commands.setMetric(ProcessMetric.UPDATED_AT, System.currentTimeMillis());
+  }
+
+  private void publishSource(ProcessMetric metric, LongSupplier source) {
+    try {
+      commands.setMetric(metric, source.getAsLong());
+    } catch (RuntimeException e) {
+      // the source may not be available yet, for example while the process is starting
+      LoggerFactory.getLogger(getClass()).debug("Fail to publish metric {}", metric, e);
+    }
+  }
+
+  /**
+   * Stops publication and clears the metrics, so that they are not read as current values once
+   * the process is down
+   */
+  public synchronized void stopPublishing() {
+    publishing = false;
+    commands.clearMetrics();
+  }
+}
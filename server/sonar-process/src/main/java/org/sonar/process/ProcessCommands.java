@@ -59,6 +59,22 @@ public interface ProcessCommands extends AutoCloseable {
 
   String getHttpUrl();
 
+  /**
+   * To be executed by child process to publish the current value of one of its metrics
+   */
+  void setMetric(ProcessMetric metric, long value);
+
+  /**
+   * Last value published by the process for the given metric, {@code 0} if never published
+   */
+  long getMetric(ProcessMetric metric);
+
+  /**
+   * Resets all the metrics of the process to {@code 0}, so that the metrics of a stopped process are not
+   * mistaken for current values
+   */
+  void clearMetrics();
+
   /**
    * To be executed by monitor process to ask for child process termination
    */
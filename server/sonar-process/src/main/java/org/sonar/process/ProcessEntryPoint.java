@@ -20,6 +20,7 @@
 package org.sonar.process;
 
 import java.io.File;
+import java.util.function.LongSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +41,7 @@ public class ProcessEntryPoint implements Stoppable {
   private volatile Monitored monitored;
   private volatile StopperThread stopperThread;
   private final StopWatcher stopWatcher;
+  private final MetricsPublisher metricsPublisher;
 
   // new Runnable() is important to avoid conflict of call to ProcessEntryPoint#stop() with Thread#stop()
   private Thread shutdownHook = new Thread(new Runnable() {
@@ -62,6 +64,7 @@ public class ProcessEntryPoint implements Stoppable {
     this.exit = exit;
     this.commands = commands;
     this.stopWatcher = new StopWatcher(commands, this);
+    this.metricsPublisher = new MetricsPublisher(commands);
   }
 
   public ProcessCommands getCommands() {
@@ -84,6 +87,14 @@ public class ProcessEntryPoint implements Stoppable {
     return sharedDir;
   }
 
+  /**
+   * Publishes in the shared memory the value of an application-level metric of the process, along with
+   * its JVM metrics. Must be called before {@link #launch(Monitored)}.
+   */
+  public void publishMetric(ProcessMetric metric, LongSupplier source) {
+    metricsPublisher.addSource(metric, source);
+  }
+
   /**
    * Launch process and waits until it's down
    */
@@ -98,6 +109,7 @@ public class ProcessEntryPoint implements Stoppable {
       logger.info("Starting " + getKey());
       Runtime.getRuntime().addShutdownHook(shutdownHook);
       stopWatcher.start();
+      metricsPublisher.start();
 
       monitored.start();
       boolean up = false;
@@ -146,6 +158,7 @@ public class ProcessEntryPoint implements Stoppable {
       stopperThread = new StopperThread(monitored, commands, Long.parseLong(props.nonNullValue(PROPERTY_TERMINATION_TIMEOUT)));
       stopperThread.start();
       stopWatcher.stopWatching();
+      metricsPublisher.stopPublishing();
     }
   }
 
@@ -0,0 +1,82 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.process;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Operational metrics that a process publishes into its slot of the shared memory (see {@link AllProcessesCommands}).
+ * Each metric is stored as a long at a fixed position, so that any other process can read it without lock
+ * nor remote call.
+ */
+public enum ProcessMetric {
+
+  /**
+   * Date of the last publication of the metrics, in milliseconds since epoch
+   */
+  UPDATED_AT,
+  HEAP_USED_BYTES,
+  HEAP_MAX_BYTES,
+  NON_HEAP_USED_BYTES,
+  THREAD_COUNT,
+  /**
+   * Cumulated number of garbage collections since the start of the process
+   */
+  GC_COUNT,
+  /**
+   * Cumulated time spent in garbage collections since the start of the process, in milliseconds
+   */
+  GC_TIME_MS,
+  /**
+   * Number of Compute Engine tasks waiting in the queue. Published by the Compute Engine only.
+   */
+  CE_PENDING_TASKS,
+  /**
+   * Number of Compute Engine tasks being processed by the workers. Published by the Compute Engine only.
+   */
+  CE_IN_PROGRESS_TASKS,
+  /**
+   * Number of bulk requests waiting in the queue of the Elasticsearch bulk thread pool. Published by Elasticsearch only.
+   */
+  ES_BULK_QUEUE_SIZE;
+
+  /**
+   * Number of slots reserved for metrics in the shared memory of each process. Metrics can be added
+   * as long as this limit is not reached, without changing the layout of the shared memory. New metrics
+   * must be appended, as the position of a metric is its ordinal.
+   */
+  public static final int MAX_METRICS = 16;
+
+  /**
+   * Reads all the metrics published by a process.
+   * @return the values by metric, or an empty map if the process did not publish its metrics yet
+   */
+  public static Map<ProcessMetric, Long> readAll(ProcessCommands commands) {
+    Map<ProcessMetric, Long> metrics = new EnumMap<>(ProcessMetric.class);
+    if (commands.getMetric(UPDATED_AT) > 0L) {
+      for (ProcessMetric metric : values()) {
+        metrics.put(metric, commands.getMetric(metric));
+      }
+    }
+    return metrics;
+  }
+
+}
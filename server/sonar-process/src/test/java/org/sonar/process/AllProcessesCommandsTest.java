@@ -114,6 +114,57 @@ public class AllProcessesCommandsTest {
     }
   }
 
+  @Test
+  public void write_and_read_metrics() throws IOException {
+    try (AllProcessesCommands commands = new AllProcessesCommands(temp.newFolder())) {
+      int offset = 512;
+      for (ProcessMetric metric : ProcessMetric.values()) {
+        assertThat(commands.getMetric(PROCESS_NUMBER, metric)).isEqualTo(0L);
+      }
+
+      commands.setMetric(PROCESS_NUMBER, ProcessMetric.UPDATED_AT, 123L);
+      commands.setMetric(PROCESS_NUMBER, ProcessMetric.HEAP_USED_BYTES, 456L);
+
+      assertThat(commands.getMetric(PROCESS_NUMBER, ProcessMetric.UPDATED_AT)).isEqualTo(123L);
+      assertThat(commands.getMetric(PROCESS_NUMBER, ProcessMetric.HEAP_USED_BYTES)).isEqualTo(456L);
+      assertThat(readLong(commands, offset)).isEqualTo(123L);
+      assertThat(readLong(commands, offset + 8)).isEqualTo(456L);
+      // metrics of other processes are not affected
+      assertThat(commands.getMetric(PROCESS_NUMBER + 1, ProcessMetric.UPDATED_AT)).isEqualTo(0L);
+    }
+  }
+
+  @Test
+  public void clear_metrics() throws IOException {
+    try (AllProcessesCommands commands = new AllProcessesCommands(temp.newFolder())) {
+      ProcessCommands processCommands = commands.create(PROCESS_NUMBER);
+      processCommands.setUp();
+      for (ProcessMetric metric : ProcessMetric.values()) {
+        processCommands.setMetric(metric, 42L);
+      }
+      commands.setMetric(PROCESS_NUMBER + 1, ProcessMetric.UPDATED_AT, 123L);
+
+      processCommands.clearMetrics();
+
+      for (ProcessMetric metric : ProcessMetric.values()) {
+        assertThat(processCommands.getMetric(metric)).isEqualTo(0L);
+      }
+      // other data of the process and metrics of other processes are not affected
+      assertThat(processCommands.isUp()).isTrue();
+      assertThat(commands.getMetric(PROCESS_NUMBER + 1, ProcessMetric.UPDATED_AT)).isEqualTo(123L);
+    }
+  }
+
+  @Test
+  public void metric_slots_are_aligned_on_8_bytes() throws IOException {
+    try (AllProcessesCommands commands = new AllProcessesCommands(temp.newFolder())) {
+      for (int i = 0; i < MAX_PROCESSES; i++) {
+        assertThat((commands.offset(i) + 512) % 8).isEqualTo(0);
+      }
+      assertThat(ProcessMetric.values().length).isLessThanOrEqualTo(ProcessMetric.MAX_METRICS);
+    }
+  }
+
   @Test
   public void ask_for_stop() throws Exception {
     try (AllProcessesCommands commands = new AllProcessesCommands(temp.newFolder())) {
@@ -0,0 +1,85 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.process;
+
+import org.junit.Test;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class MetricsPublisherTest {
+
+  private ProcessCommands commands = mock(ProcessCommands.class);
+
+  @Test
+  public void publish_jvm_metrics() {
+    new MetricsPublisher(commands, 1000L).publish();
+
+    verify(commands).setMetric(eq(ProcessMetric.UPDATED_AT), anyLong());
+    verify(commands).setMetric(eq(ProcessMetric.HEAP_USED_BYTES), anyLong());
+    verify(commands).setMetric(eq(ProcessMetric.HEAP_MAX_BYTES), anyLong());
+    verify(commands).setMetric(eq(ProcessMetric.NON_HEAP_USED_BYTES), anyLong());
+    verify(commands).setMetric(eq(ProcessMetric.THREAD_COUNT), anyLong());
+    verify(commands).setMetric(eq(ProcessMetric.GC_COUNT), anyLong());
+    verify(commands).setMetric(eq(ProcessMetric.GC_TIME_MS), anyLong());
+    verify(commands, never()).setMetric(eq(ProcessMetric.CE_PENDING_TASKS), anyLong());
+  }
+
+  @Test
+  public void publish_metrics_of_sources() {
+    MetricsPublisher publisher = new MetricsPublisher(commands, 1000L);
+    publisher.addSource(ProcessMetric.CE_PENDING_TASKS, () -> 12L);
+    publisher.addSource(ProcessMetric.CE_IN_PROGRESS_TASKS, () -> {
+      throw new IllegalStateException("not started");
+    });
+
+    publisher.publish();
+
+    verify(commands).setMetric(ProcessMetric.CE_PENDING_TASKS, 12L);
+    verify(commands, never()).setMetric(eq(ProcessMetric.CE_IN_PROGRESS_TASKS), anyLong());
+    verify(commands).setMetric(eq(ProcessMetric.UPDATED_AT), anyLong());
+  }
+
+  @Test
+  public void clear_metrics_when_stopped() {
+    MetricsPublisher publisher = new MetricsPublisher(commands, 1000L);
+
+    publisher.stopPublishing();
+    publisher.publish();
+
+    verify(commands).clearMetrics();
+    verify(commands, never()).setMetric(eq(ProcessMetric.UPDATED_AT), anyLong());
+  }
+
+  @Test(timeout = 5000)
+  public void publish_periodically_until_stopped() throws InterruptedException {
+    MetricsPublisher publisher = new MetricsPublisher(commands, 1L);
+    publisher.start();
+
+    verify(commands, timeout(2000).atLeast(2)).setMetric(eq(ProcessMetric.UPDATED_AT), anyLong());
+
+    publisher.stopPublishing();
+    publisher.join();
+  }
+}
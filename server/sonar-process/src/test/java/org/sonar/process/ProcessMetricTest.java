@@ -0,0 +1,62 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.process;
+
+import java.io.File;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class ProcessMetricTest {
+
+  private static final int PROCESS_NUMBER = 2;
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void readAll_returns_empty_map_if_metrics_are_not_published_yet() throws Exception {
+    File dir = temp.newFolder();
+    try (DefaultProcessCommands commands = DefaultProcessCommands.main(dir, PROCESS_NUMBER)) {
+      commands.setMetric(ProcessMetric.HEAP_USED_BYTES, 10L);
+
+      assertThat(ProcessMetric.readAll(commands)).isEmpty();
+    }
+  }
+
+  @Test
+  public void readAll_returns_metrics_published_by_another_process() throws Exception {
+    File dir = temp.newFolder();
+    try (DefaultProcessCommands main = DefaultProcessCommands.main(dir, PROCESS_NUMBER);
+      DefaultProcessCommands secondary = DefaultProcessCommands.secondary(dir, PROCESS_NUMBER)) {
+      main.setMetric(ProcessMetric.HEAP_USED_BYTES, 10L);
+      main.setMetric(ProcessMetric.THREAD_COUNT, 42L);
+      main.setMetric(ProcessMetric.UPDATED_AT, 1_000L);
+
+      assertThat(ProcessMetric.readAll(secondary))
+        .hasSize(ProcessMetric.values().length)
+        .contains(entry(ProcessMetric.UPDATED_AT, 1_000L), entry(ProcessMetric.HEAP_USED_BYTES, 10L), entry(ProcessMetric.THREAD_COUNT, 42L),
+          entry(ProcessMetric.GC_COUNT, 0L));
+    }
+  }
+}
@@ -24,10 +24,13 @@ import org.elasticsearch.cluster.health.ClusterHealthStatus;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.node.Node;
 import org.elasticsearch.node.NodeBuilder;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.threadpool.ThreadPoolStats;
 import org.sonar.process.Jmx;
 import org.sonar.process.MinimumViableSystem;
 import org.sonar.process.Monitored;
 import org.sonar.process.ProcessEntryPoint;
+import org.sonar.process.ProcessMetric;
 import org.sonar.process.Props;
 
 public class SearchServer implements Monitored {
@@ -84,10 +87,28 @@ public class SearchServer implements Monitored {
     Jmx.unregister(EsSettingsMBean.OBJECT_NAME);
   }
 
+  /**
+   * Number of requests waiting in the queue of the bulk thread pool of the local node, {@code 0}
+   * if the node is not started
+   */
+  long getBulkQueueSize() {
+    if (node == null || node.isClosed()) {
+      return 0L;
+    }
+    // read from the local thread pool, without sending a nodes stats request to the cluster
+    for (ThreadPoolStats.Stats stats : node.injector().getInstance(ThreadPool.class).stats()) {
+      if (ThreadPool.Names.BULK.equals(stats.getName())) {
+        return stats.getQueue();
+      }
+    }
+    return 0L;
+  }
+
   public static void main(String... args) {
     ProcessEntryPoint entryPoint = ProcessEntryPoint.createForArguments(args);
     new SearchLogging().configure(entryPoint.getProps());
     SearchServer searchServer = new SearchServer(entryPoint.getProps());
+    entryPoint.publishMetric(ProcessMetric.ES_BULK_QUEUE_SIZE, searchServer::getBulkQueueSize);
     entryPoint.launch(searchServer);
   }
 }
@@ -88,9 +88,11 @@ public class SearchServerTest {
     client = TransportClient.builder().settings(settings).build()
       .addTransportAddress(new InetSocketTransportAddress(host, port));
     assertThat(client.admin().cluster().prepareClusterStats().get().getStatus()).isEqualTo(ClusterHealthStatus.GREEN);
+    assertThat(underTest.getBulkQueueSize()).isEqualTo(0L);
 
     underTest.stop();
     underTest.awaitStop();
+    assertThat(underTest.getBulkQueueSize()).isEqualTo(0L);
     underTest = null;
     try {
       client.admin().cluster().prepareClusterStats().get();
@@ -19,11 +19,15 @@
  */
 package org.sonar.server.batch;
 
+import com.google.common.net.HttpHeaders;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.sonar.api.resources.Scopes;
 import org.sonar.api.server.ws.Request;
 import org.sonar.api.server.ws.Response;
@@ -62,7 +66,9 @@ public class IssuesAction implements BatchWsAction {
   @Override
   public void define(WebService.NewController controller) {
     WebService.NewAction action = controller.createAction("issues")
-      .setDescription("Return open issues")
+      .setDescription("Return open issues.<br/>" +
+        "The response has an ETag header. When the request has a matching If-None-Match header, " +
+        "the issues did not change and the response is empty, with the status 304.")
       .setResponseExample(getClass().getResource("issues-example.proto"))
       .setSince("5.1")
       .setInternal(true)
@@ -80,12 +86,20 @@ public class IssuesAction implements BatchWsAction {
     String componentKey = request.mandatoryParam(PARAM_KEY);
     userSession.checkComponentPermission(USER, componentKey);
 
-    response.stream().setMediaType(MediaTypes.PROTOBUF);
     DbSession session = dbClient.openSession(false);
     try {
       ComponentDto component = componentFinder.getByKey(session, componentKey);
       Map<String, String> keysByUUid = keysByUUid(session, component);
 
+      // module keys are part of the response, but can be updated without touching issues
+      String etag = '"' + DigestUtils.sha1Hex(issueIndex.selectIssuesForBatchVersion(component) + new TreeMap<>(keysByUUid)) + '"';
+      response.setHeader(HttpHeaders.ETAG, etag);
+      if (request.header(HttpHeaders.IF_NONE_MATCH).filter(etag::equals).isPresent()) {
+        response.stream().setStatus(HttpURLConnection.HTTP_NOT_MODIFIED);
+        return;
+      }
+
+      response.stream().setMediaType(MediaTypes.PROTOBUF);
       ScannerInput.ServerIssue.Builder issueBuilder = ScannerInput.ServerIssue.newBuilder();
       for (Iterator<IssueDoc> issueDocIterator = issueIndex.selectIssuesForBatch(component); issueDocIterator.hasNext();) {
         handleIssue(issueDocIterator.next(), issueBuilder, keysByUUid, response.stream().output());
@@ -19,21 +19,28 @@
  */
 package org.sonar.server.batch;
 
+import com.google.common.base.Joiner;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.api.resources.Scopes;
 import org.sonar.api.server.ServerSide;
+import org.sonar.core.util.stream.Collectors;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.MyBatis;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.component.FilePathWithHashDto;
+import org.sonar.db.component.SnapshotDto;
 import org.sonar.db.property.PropertyDto;
 import org.sonar.scanner.protocol.input.FileData;
 import org.sonar.scanner.protocol.input.ProjectRepositories;
@@ -86,8 +93,14 @@ public class ProjectDataLoader {
       TreeModuleSettings treeModuleSettings = new TreeModuleSettings(moduleUuidsByKey, moduleIdsByKey, modulesTree, modulesTreeSettings);
 
       addSettingsToChildrenModules(data, query.getModuleKey(), Maps.<String, String>newHashMap(), treeModuleSettings, hasScanPerm);
-      List<FilePathWithHashDto> files = searchFilesWithHashAndRevision(session, module);
-      addFileData(data, modulesTree, files);
+      String fileDataVersion = fileDataVersion(session, project, modulesTree);
+      data.setFileDataVersion(fileDataVersion);
+      if (fileDataVersion != null && fileDataVersion.equals(query.getKnownFileDataVersion())) {
+        data.setFileDataUnchanged(true);
+      } else {
+        List<FilePathWithHashDto> files = searchFilesWithHashAndRevision(session, module);
+        addFileData(data, modulesTree, files);
+      }
 
       // FIXME need real value but actually only used to know if there is a previous analysis in local issue tracking mode so any value is
       // ok
@@ -99,6 +112,24 @@ public class ProjectDataLoader {
     }
   }
 
+  /**
+   * Files are updated only by analyses of project, but the keys of modules, which are part of file data,
+   * can also be changed by a key update. So the version of file data is the uuid of the last analysis,
+   * followed by a digest of the module keys.
+   */
+  @CheckForNull
+  private String fileDataVersion(DbSession session, ComponentDto project, List<ComponentDto> modulesTree) {
+    Optional<SnapshotDto> lastAnalysis = dbClient.snapshotDao().selectLastAnalysisByRootComponentUuid(session, project.uuid());
+    if (!lastAnalysis.isPresent()) {
+      return null;
+    }
+    String moduleKeys = modulesTree.stream()
+      .map(ComponentDto::getKey)
+      .sorted()
+      .collect(Collectors.join(Joiner.on(',')));
+    return lastAnalysis.get().getUuid() + "-" + DigestUtils.md5Hex(moduleKeys);
+  }
+
   private static boolean isProjectOrModule(ComponentDto module) {
     if (!Scopes.PROJECT.equals(module.scope())) {
       return false;
@@ -119,29 +150,23 @@ public class ProjectDataLoader {
     }
   }
 
+  /**
+   * The parent modules are the ancestors listed in the uuid path of the module, so they are loaded
+   * with their settings in two queries, whatever the depth of the module.
+   */
   private Map<String, String> getSettingsFromParents(ComponentDto module, boolean hasScanPerm, DbSession session) {
-    List<ComponentDto> parents = newArrayList();
-    aggregateParentModules(module, parents, session);
-    Collections.reverse(parents);
+    List<ComponentDto> parents = dbClient.componentDao().selectAncestors(session, module);
+    Set<Long> parentIds = parents.stream().map(ComponentDto::getId).collect(Collectors.toSet());
+    Multimap<Long, PropertyDto> propertiesByParentId = dbClient.propertiesDao().selectPropertiesByComponentIds(session, parentIds).stream()
+      .collect(Collectors.index(PropertyDto::getResourceId));
 
     Map<String, String> parentProperties = newHashMap();
     for (ComponentDto parent : parents) {
-      parentProperties.putAll(getPropertiesMap(dbClient.propertiesDao().selectProjectProperties(session, parent.key()), hasScanPerm));
+      parentProperties.putAll(getPropertiesMap(propertiesByParentId.get(parent.getId()), hasScanPerm));
     }
     return parentProperties;
   }
 
-  private void aggregateParentModules(ComponentDto component, List<ComponentDto> parents, DbSession session) {
-    String moduleUuid = component.moduleUuid();
-    if (moduleUuid != null) {
-      ComponentDto parent = dbClient.componentDao().selectOrFailByUuid(session, moduleUuid);
-      if (parent != null) {
-        parents.add(parent);
-        aggregateParentModules(parent, parents, session);
-      }
-    }
-  }
-
   private static void addSettingsToChildrenModules(ProjectRepositories ref, String moduleKey, Map<String, String> parentProperties, TreeModuleSettings treeModuleSettings,
     boolean hasScanPerm) {
     Map<String, String> currentParentProperties = newHashMap();
@@ -161,7 +186,7 @@ public class ProjectDataLoader {
     }
   }
 
-  private static Map<String, String> getPropertiesMap(List<PropertyDto> propertyDtos, boolean hasScanPerm) {
+  private static Map<String, String> getPropertiesMap(Collection<PropertyDto> propertyDtos, boolean hasScanPerm) {
     Map<String, String> properties = newHashMap();
     for (PropertyDto propertyDto : propertyDtos) {
       String key = propertyDto.getKey();
@@ -27,6 +27,7 @@ public class ProjectDataQuery {
   private String projectOrModuleKey;
   private String profileName;
   private boolean issuesMode;
+  private String knownFileDataVersion;
 
   private ProjectDataQuery() {
     // No direct call
@@ -60,6 +61,19 @@ public class ProjectDataQuery {
     return this;
   }
 
+  /**
+   * Version of file data already known by the caller. File data are not loaded if it's still the current version.
+   */
+  @CheckForNull
+  public String getKnownFileDataVersion() {
+    return knownFileDataVersion;
+  }
+
+  public ProjectDataQuery setKnownFileDataVersion(@Nullable String knownFileDataVersion) {
+    this.knownFileDataVersion = knownFileDataVersion;
+    return this;
+  }
+
   public static ProjectDataQuery create() {
     return new ProjectDataQuery();
   }
@@ -20,7 +20,9 @@
 package org.sonar.server.component.index;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import org.apache.commons.lang.StringUtils;
@@ -29,6 +31,10 @@ import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.tophits.TopHits;
+import org.elasticsearch.search.aggregations.metrics.tophits.TopHitsBuilder;
 import org.sonar.core.util.stream.Collectors;
 import org.sonar.server.es.BaseIndex;
 import org.sonar.server.es.DefaultIndexSettings;
@@ -39,6 +45,7 @@ import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
 import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
 import static org.elasticsearch.index.query.QueryBuilders.matchQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
 import static org.sonar.server.component.index.ComponentIndexDefinition.FIELD_AUTHORIZATION_GROUPS;
 import static org.sonar.server.component.index.ComponentIndexDefinition.FIELD_AUTHORIZATION_USERS;
 import static org.sonar.server.component.index.ComponentIndexDefinition.FIELD_KEY;
@@ -50,6 +57,15 @@ import static org.sonar.server.component.index.ComponentIndexDefinition.TYPE_COM
 
 public class ComponentIndex extends BaseIndex {
 
+  private static final String AGGREGATION_QUALIFIERS = "qualifiers";
+  private static final String AGGREGATION_TOP_HITS = "top_hits";
+
+  /**
+   * Number of results returned when the query has no limit. Same as the default size of Elasticsearch search
+   * requests, which differs from the default size of top_hits aggregations (3).
+   */
+  static final int DEFAULT_LIMIT = 10;
+
   private final UserSession userSession;
 
   public ComponentIndex(EsClient client, UserSession userSession) {
@@ -61,9 +77,8 @@ public class ComponentIndex extends BaseIndex {
     SearchRequestBuilder request = getClient()
       .prepareSearch(INDEX_COMPONENTS)
       .setTypes(TYPE_COMPONENT)
-      .setFetchSource(false);
-
-    query.getLimit().ifPresent(request::setSize);
+      .setFetchSource(false)
+      .setSize(query.getLimit().orElse(DEFAULT_LIMIT));
 
     request.setQuery(createQuery(query));
 
@@ -72,7 +87,45 @@ public class ComponentIndex extends BaseIndex {
       .collect(Collectors.toList());
   }
 
-  private QueryBuilder createQuery(ComponentIndexQuery query) {
+  /**
+   * Searches the components of several qualifiers with a single request. The best results of each qualifier,
+   * up to the limit of the query ({@link #DEFAULT_LIMIT} by default), are returned by qualifier, in the order of the given qualifiers.
+   * Qualifiers without any results are not returned.
+   */
+  public Map<String, List<String>> searchByQualifiers(ComponentIndexQuery query, List<String> qualifiers) {
+    TopHitsBuilder topHits = AggregationBuilders.topHits(AGGREGATION_TOP_HITS)
+      .setFetchSource(false)
+      .setSize(query.getLimit().orElse(DEFAULT_LIMIT));
+
+    BoolQueryBuilder esQuery = createQuery(query);
+    esQuery.filter(termsQuery(FIELD_QUALIFIER, qualifiers));
+
+    SearchRequestBuilder request = getClient()
+      .prepareSearch(INDEX_COMPONENTS)
+      .setTypes(TYPE_COMPONENT)
+      .setFetchSource(false)
+      .setSize(0)
+      .setQuery(esQuery)
+      .addAggregation(AggregationBuilders.terms(AGGREGATION_QUALIFIERS)
+        .field(FIELD_QUALIFIER)
+        .size(qualifiers.size())
+        .subAggregation(topHits));
+
+    Terms qualifierTerms = request.get().getAggregations().get(AGGREGATION_QUALIFIERS);
+    Map<String, List<String>> uuidsByQualifier = new LinkedHashMap<>();
+    for (String qualifier : qualifiers) {
+      Terms.Bucket bucket = qualifierTerms.getBucketByKey(qualifier);
+      if (bucket != null) {
+        TopHits hits = bucket.getAggregations().get(AGGREGATION_TOP_HITS);
+        uuidsByQualifier.put(qualifier, Arrays.stream(hits.getHits().hits())
+          .map(SearchHit::getId)
+          .collect(Collectors.toList()));
+      }
+    }
+    return uuidsByQualifier;
+  }
+
+  private BoolQueryBuilder createQuery(ComponentIndexQuery query) {
     BoolQueryBuilder esQuery = boolQuery();
     esQuery.filter(createAuthorizationFilter());
 
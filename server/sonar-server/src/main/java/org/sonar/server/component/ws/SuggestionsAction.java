@@ -21,10 +21,10 @@ package org.sonar.server.component.ws;
 
 import com.google.common.io.Resources;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Stream;
+import java.util.Objects;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.api.server.ws.Request;
 import org.sonar.api.server.ws.Response;
@@ -49,14 +49,13 @@ public class SuggestionsAction implements ComponentsWsAction {
 
   private static final String URL_PARAM_QUERY = "s";
 
-  private static final String[] QUALIFIERS = {
+  private static final List<String> QUALIFIERS = Arrays.asList(
     Qualifiers.VIEW,
     Qualifiers.SUBVIEW,
     Qualifiers.PROJECT,
     Qualifiers.MODULE,
     Qualifiers.FILE,
-    Qualifiers.UNIT_TEST_FILE
-  };
+    Qualifiers.UNIT_TEST_FILE);
 
   private static final int NUMBER_OF_RESULTS_PER_QUALIFIER = 6;
 
@@ -99,40 +98,33 @@ public class SuggestionsAction implements ComponentsWsAction {
   }
 
   private List<Qualifier> getResultsOfAllQualifiers(String query) {
-    return Arrays
-      .stream(QUALIFIERS)
-      .flatMap(qualifier -> getResultsOfQualifier(query, qualifier).map(Stream::of).orElseGet(Stream::empty))
-      .collect(Collectors.toList());
-  }
-
-  private Optional<Qualifier> getResultsOfQualifier(String query, String qualifier) {
     ComponentIndexQuery componentIndexQuery = new ComponentIndexQuery(query)
-      .setQualifier(qualifier)
       .setLimit(NUMBER_OF_RESULTS_PER_QUALIFIER);
-
-    List<String> uuids = searchInIndex(componentIndexQuery);
-    if (uuids.isEmpty()) {
-      return Optional.empty();
+    Map<String, List<String>> uuidsByQualifier = index.searchByQualifiers(componentIndexQuery, QUALIFIERS);
+    if (uuidsByQualifier.isEmpty()) {
+      return Collections.emptyList();
     }
 
-    List<ComponentDto> componentDtos;
+    Map<String, ComponentDto> componentsByUuid;
     Map<String, String> organizationKeyByUuids;
     try (DbSession dbSession = dbClient.openSession(false)) {
-      componentDtos = dbClient.componentDao().selectByUuids(dbSession, uuids);
+      List<String> uuids = uuidsByQualifier.values().stream().flatMap(List::stream).collect(Collectors.toList());
+      List<ComponentDto> componentDtos = dbClient.componentDao().selectByUuids(dbSession, uuids);
+      componentsByUuid = componentDtos.stream().collect(Collectors.uniqueIndex(ComponentDto::uuid));
       organizationKeyByUuids = getOrganizationKeys(dbSession, componentDtos);
     }
 
-    List<Component> results = componentDtos
-      .stream()
-      .map(dto -> dtoToComponent(dto, organizationKeyByUuids))
+    return uuidsByQualifier.entrySet().stream()
+      .map(entry -> Qualifier.newBuilder()
+        .setQ(entry.getKey())
+        .addAllItems(entry.getValue().stream()
+          .map(componentsByUuid::get)
+          .filter(Objects::nonNull)
+          .map(dto -> dtoToComponent(dto, organizationKeyByUuids))
+          .collect(Collectors.toList()))
+        .build())
+      .filter(qualifier -> qualifier.getItemsCount() > 0)
       .collect(Collectors.toList());
-
-    Qualifier q = Qualifier.newBuilder()
-      .setQ(qualifier)
-      .addAllItems(results)
-      .build();
-
-    return Optional.of(q);
   }
 
   private Map<String, String> getOrganizationKeys(DbSession dbSession, List<ComponentDto> componentDtos) {
@@ -143,10 +135,6 @@ public class SuggestionsAction implements ComponentsWsAction {
       .collect(Collectors.uniqueIndex(OrganizationDto::getUuid, OrganizationDto::getKey));
   }
 
-  private List<String> searchInIndex(ComponentIndexQuery componentIndexQuery) {
-    return index.search(componentIndexQuery);
-  }
-
   private static Component dtoToComponent(ComponentDto result, Map<String, String> organizationKeysByUuid) {
     String organizationKey = organizationKeysByUuid.get(result.getOrganizationUuid());
     checkState(organizationKey != null, "Organization with uuid '%s' not found", result.getOrganizationUuid());
@@ -0,0 +1,105 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.monitoring;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.picocontainer.Startable;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.ce.monitoring.CEQueueStatus;
+import org.sonar.process.DefaultProcessCommands;
+import org.sonar.process.ProcessCommands;
+import org.sonar.process.ProcessMetric;
+
+import static org.sonar.process.ProcessEntryPoint.PROPERTY_PROCESS_INDEX;
+import static org.sonar.process.ProcessEntryPoint.PROPERTY_SHARED_PATH;
+
+/**
+ * Periodically publishes the number of pending and in progress tasks of the Compute Engine into the
+ * shared memory, along with the JVM metrics of the process (see {@link ProcessMetric}). Does nothing
+ * when the Compute Engine is not run as a child process of the monitor.
+ */
+public class CeProcessMetricsPublisher implements Startable {
+
+  private static final Logger LOG = Loggers.get(CeProcessMetricsPublisher.class);
+  private static final long DELAY_IN_SECONDS = 5L;
+
+  private final CEQueueStatus queueStatus;
+  private final Settings settings;
+  private DefaultProcessCommands commands;
+  private ScheduledExecutorService executorService;
+
+  public CeProcessMetricsPublisher(CEQueueStatus queueStatus, Settings settings) {
+    this.queueStatus = queueStatus;
+    this.settings = settings;
+  }
+
+  @Override
+  public void start() {
+    String sharedPath = settings.getString(PROPERTY_SHARED_PATH);
+    String processIndex = settings.getString(PROPERTY_PROCESS_INDEX);
+    if (sharedPath == null || processIndex == null) {
+      return;
+    }
+    commands = DefaultProcessCommands.secondary(new File(sharedPath), Integer.parseInt(processIndex));
+    executorService = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder()
+        .setNameFormat("CeMetricsPublisher-%d")
+        .setDaemon(true)
+        .setPriority(Thread.MIN_PRIORITY)
+        .build());
+    executorService.scheduleWithFixedDelay(() -> {
+      try {
+        publish(commands);
+      } catch (Exception e) {
+        LOG.debug("Fail to publish Compute Engine metrics", e);
+      }
+    }, 0L, DELAY_IN_SECONDS, TimeUnit.SECONDS);
+  }
+
+  @VisibleForTesting
+  void publish(ProcessCommands processCommands) {
+    processCommands.setMetric(ProcessMetric.CE_PENDING_TASKS, queueStatus.getPendingCount());
+    processCommands.setMetric(ProcessMetric.CE_IN_PROGRESS_TASKS, queueStatus.getInProgressCount());
+  }
+
+  @Override
+  public void stop() {
+    if (executorService == null) {
+      return;
+    }
+    executorService.shutdown();
+    try {
+      executorService.awaitTermination(DELAY_IN_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    // the queue is no longer processed
+    commands.setMetric(ProcessMetric.CE_PENDING_TASKS, 0L);
+    commands.setMetric(ProcessMetric.CE_IN_PROGRESS_TASKS, 0L);
+    commands.close();
+  }
+}
@@ -21,10 +21,14 @@ package org.sonar.server.computation.task.projectanalysis.formula;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.CheckForNull;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
 import org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor;
 import org.sonar.server.computation.task.projectanalysis.component.CrawlerDepthLimit;
@@ -39,6 +43,7 @@ import org.sonar.server.computation.task.projectanalysis.period.PeriodsHolder;
 import static java.util.Objects.requireNonNull;
 
 public class FormulaExecutorComponentVisitor extends PathAwareVisitorAdapter<FormulaExecutorComponentVisitor.Counters> {
+  private static final Logger LOGGER = Loggers.get(FormulaExecutorComponentVisitor.class);
   private static final SimpleStackElementFactory<Counters> COUNTERS_FACTORY = new SimpleStackElementFactory<Counters>() {
 
     @Override
@@ -64,6 +69,11 @@ public class FormulaExecutorComponentVisitor extends PathAwareVisitorAdapter<For
   private final MetricRepository metricRepository;
   private final MeasureRepository measureRepository;
   private final List<Formula> formulas;
+  /**
+   * Cumulative execution time of each formula, in nanoseconds. Only computed when debug logs are enabled.
+   */
+  @CheckForNull
+  private final long[] durations;
 
   private FormulaExecutorComponentVisitor(Builder builder, Iterable<Formula> formulas) {
     super(CrawlerDepthLimit.LEAVES, ComponentVisitor.Order.POST_ORDER, COUNTERS_FACTORY);
@@ -71,6 +81,7 @@ public class FormulaExecutorComponentVisitor extends PathAwareVisitorAdapter<For
     this.measureRepository = builder.measureRepository;
     this.metricRepository = builder.metricRepository;
     this.formulas = ImmutableList.copyOf(formulas);
+    this.durations = LOGGER.isDebugEnabled() ? new long[this.formulas.size()] : null;
   }
 
   public static Builder newBuilder(MetricRepository metricRepository, MeasureRepository measureRepository) {
@@ -143,10 +154,15 @@ public class FormulaExecutorComponentVisitor extends PathAwareVisitorAdapter<For
     } else {
       processNotLeaf(component, path);
     }
+    if (durations != null && path.isRoot()) {
+      logDurations();
+    }
   }
 
   private void processNotLeaf(Component component, Path<FormulaExecutorComponentVisitor.Counters> path) {
-    for (Formula formula : formulas) {
+    for (int i = 0; i < formulas.size(); i++) {
+      long start = durations == null ? 0L : System.nanoTime();
+      Formula formula = formulas.get(i);
       Counter counter = path.current().getCounter(formula);
       // If there were no file under this node, the counter won't be initialized
       if (counter != null) {
@@ -155,18 +171,37 @@ public class FormulaExecutorComponentVisitor extends PathAwareVisitorAdapter<For
         }
         aggregateToParent(path, formula, counter);
       }
+      incrementDuration(i, start);
     }
   }
 
   private void processLeaf(Component file, Path<FormulaExecutorComponentVisitor.Counters> path) {
     CounterInitializationContext counterContext = new CounterInitializationContextImpl(file);
-    for (Formula formula : formulas) {
+    for (int i = 0; i < formulas.size(); i++) {
+      long start = durations == null ? 0L : System.nanoTime();
+      Formula formula = formulas.get(i);
       Counter counter = formula.createNewCounter();
       counter.initialize(counterContext);
       for (String metricKey : formula.getOutputMetricKeys()) {
         addNewMeasure(file, metricKey, formula, counter);
       }
       aggregateToParent(path, formula, counter);
+      incrementDuration(i, start);
+    }
+  }
+
+  private void incrementDuration(int formulaIndex, long start) {
+    if (durations != null) {
+      durations[formulaIndex] += System.nanoTime() - start;
+    }
+  }
+
+  private void logDurations() {
+    LOGGER.debug("  Execution time for each formula:");
+    for (int i = 0; i < formulas.size(); i++) {
+      Formula formula = formulas.get(i);
+      LOGGER.debug("  - {} {} | time={}ms", formula.getClass().getSimpleName(), Arrays.toString(formula.getOutputMetricKeys()),
+        TimeUnit.NANOSECONDS.toMillis(durations[i]));
     }
   }
 
@@ -21,8 +21,14 @@ package org.sonar.server.computation.task.projectanalysis.measure;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.SetMultimap;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import javax.annotation.CheckForNull;
+import org.picocontainer.Startable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
 import org.sonar.core.util.CloseableIterator;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
@@ -39,7 +45,9 @@ import org.sonar.server.computation.task.projectanalysis.metric.ReportMetricVali
 import static java.util.Objects.requireNonNull;
 import static org.sonar.server.computation.task.projectanalysis.component.ComponentFunctions.toReportRef;
 
-public class MeasureRepositoryImpl implements MeasureRepository {
+public class MeasureRepositoryImpl implements MeasureRepository, Startable {
+  private static final Logger LOGGER = Loggers.get(MeasureRepositoryImpl.class);
+
   private final MapBasedRawMeasureRepository<Integer> delegate = new MapBasedRawMeasureRepository<>(toReportRef());
   private final DbClient dbClient;
   private final BatchReportReader reportReader;
@@ -49,6 +57,12 @@ public class MeasureRepositoryImpl implements MeasureRepository {
 
   private MeasureDtoToMeasure underTest = new MeasureDtoToMeasure();
   private final Set<Integer> loadedComponents = new HashSet<>();
+  // base measures of the last requested component only, so that memory does not grow with the number of components
+  @CheckForNull
+  private String baseMeasuresComponentUuid;
+  private Map<Integer, MeasureDto> baseMeasuresByMetricId = new HashMap<>();
+  private int baseMeasureRequests = 0;
+  private int baseMeasureQueries = 0;
 
   public MeasureRepositoryImpl(DbClient dbClient, BatchReportReader reportReader, MetricRepository metricRepository, ReportMetricValidator reportMetricValidator) {
     this.dbClient = dbClient;
@@ -58,19 +72,48 @@ public class MeasureRepositoryImpl implements MeasureRepository {
     this.metricRepository = metricRepository;
   }
 
+  @Override
+  public void start() {
+    // nothing to do
+  }
+
+  @Override
+  public void stop() {
+    LOGGER.debug("Base measures | requests={} | queries={}", baseMeasureRequests, baseMeasureQueries);
+  }
+
   @Override
   public Optional<Measure> getBaseMeasure(Component component, Metric metric) {
     // fail fast
     requireNonNull(component);
     requireNonNull(metric);
 
+    baseMeasureRequests++;
+    if (!component.getUuid().equals(baseMeasuresComponentUuid)) {
+      baseMeasuresByMetricId = loadBaseMeasures(component.getUuid());
+      baseMeasuresComponentUuid = component.getUuid();
+    }
+    MeasureDto measureDto = baseMeasuresByMetricId.get(metric.getId());
+    if (measureDto != null) {
+      return underTest.toMeasure(measureDto, metric);
+    }
+    return Optional.absent();
+  }
+
+  /**
+   * All the base measures of a component are loaded by a single query, so that asking for several
+   * metrics of the same component does not run one query per metric. They replace the measures
+   * of the previously requested component.
+   */
+  private Map<Integer, MeasureDto> loadBaseMeasures(String componentUuid) {
+    baseMeasureQueries++;
     try (DbSession dbSession = dbClient.openSession(false)) {
-      MeasureQuery query = MeasureQuery.builder().setComponentUuid(component.getUuid()).setMetricKey(metric.getKey()).build();
-      java.util.Optional<MeasureDto> measureDto = dbClient.measureDao().selectSingle(dbSession, query);
-      if (measureDto.isPresent()) {
-        return underTest.toMeasure(measureDto.get(), metric);
+      MeasureQuery query = MeasureQuery.builder().setComponentUuid(componentUuid).build();
+      Map<Integer, MeasureDto> measuresByMetricId = new HashMap<>();
+      for (MeasureDto measureDto : dbClient.measureDao().selectByQuery(dbSession, query)) {
+        measuresByMetricId.put(measureDto.getMetricId(), measureDto);
       }
-      return Optional.absent();
+      return measuresByMetricId;
     }
   }
 
@@ -19,7 +19,6 @@
  */
 package org.sonar.server.computation.task.projectanalysis.step;
 
-import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import java.util.Collection;
@@ -52,8 +51,6 @@ import org.sonar.server.computation.task.step.ComputationStep;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
-import static java.util.function.Function.identity;
-import static org.sonar.core.util.stream.Collectors.uniqueIndex;
 import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.DIRECTORY;
 import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.SUBVIEW;
 import static org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor.Order.PRE_ORDER;
@@ -86,25 +83,40 @@ public class ComputeMeasureVariationsStep implements ComputationStep {
     DbSession dbSession = dbClient.openSession(false);
     try {
       List<Metric> metrics = StreamSupport.stream(metricRepository.getAll().spliterator(), false).filter(NumericMetric.INSTANCE::apply).collect(Collectors.toList());
-      new DepthTraversalTypeAwareCrawler(new VariationMeasuresVisitor(dbSession, metrics))
+      Map<Integer, PastValues> pastValuesByPeriod = loadPastValues(dbSession, metrics);
+      new DepthTraversalTypeAwareCrawler(new VariationMeasuresVisitor(metrics, pastValuesByPeriod))
         .visit(treeRootHolder.getRoot());
     } finally {
       dbClient.closeSession(dbSession);
     }
   }
 
+  /**
+   * Past measures of all components are loaded with a single query per period, instead of one query per component
+   * and period.
+   */
+  private Map<Integer, PastValues> loadPastValues(DbSession dbSession, List<Metric> metrics) {
+    Set<Integer> metricIds = metrics.stream().map(Metric::getId).collect(Collectors.toSet());
+    Map<Integer, PastValues> pastValuesByPeriod = new HashMap<>();
+    for (Period period : periodsHolder.getPeriods()) {
+      PastValues pastValues = new PastValues();
+      dbClient.measureDao().selectPastMeasures(dbSession, period.getAnalysisUuid(), metricIds,
+        context -> pastValues.add((PastMeasureDto) context.getResultObject()));
+      pastValuesByPeriod.put(period.getIndex(), pastValues);
+    }
+    return pastValuesByPeriod;
+  }
+
   private class VariationMeasuresVisitor extends TypeAwareVisitorAdapter {
 
-    private final DbSession session;
-    private final Set<Integer> metricIds;
     private final List<Metric> metrics;
+    private final Map<Integer, PastValues> pastValuesByPeriod;
 
-    VariationMeasuresVisitor(DbSession session, List<Metric> metrics) {
+    VariationMeasuresVisitor(List<Metric> metrics, Map<Integer, PastValues> pastValuesByPeriod) {
       // measures on files are currently purged, so past measures are not available on files
       super(CrawlerDepthLimit.reportMaxDepth(DIRECTORY).withViewsMaxDepth(SUBVIEW), PRE_ORDER);
-      this.session = session;
-      this.metricIds = metrics.stream().map(MetricDtoToMetricId.INSTANCE::apply).collect(Collectors.toSet());
       this.metrics = metrics;
+      this.pastValuesByPeriod = pastValuesByPeriod;
     }
 
     @Override
@@ -116,23 +128,19 @@ public class ComputeMeasureVariationsStep implements ComputationStep {
     private MeasuresWithVariationRepository computeMeasuresWithVariations(Component component) {
       MeasuresWithVariationRepository measuresWithVariationRepository = new MeasuresWithVariationRepository();
       for (Period period : periodsHolder.getPeriods()) {
-        List<PastMeasureDto> pastMeasures = dbClient.measureDao()
-          .selectPastMeasures(session, component.getUuid(), period.getAnalysisUuid(), metricIds);
-        setVariationMeasures(component, pastMeasures, period.getIndex(), measuresWithVariationRepository);
+        Map<Integer, Double> pastValues = pastValuesByPeriod.get(period.getIndex()).get(component.getUuid());
+        setVariationMeasures(component, pastValues, period.getIndex(), measuresWithVariationRepository);
       }
       return measuresWithVariationRepository;
     }
 
-    private void setVariationMeasures(Component component, List<PastMeasureDto> pastMeasures, int period, MeasuresWithVariationRepository measuresWithVariationRepository) {
-      Map<MeasureKey, PastMeasureDto> pastMeasuresByMeasureKey = pastMeasures
-        .stream()
-        .collect(uniqueIndex(m -> new MeasureKey(metricRepository.getById((long) m.getMetricId()).getKey(), null), identity()));
+    private void setVariationMeasures(Component component, @Nullable Map<Integer, Double> pastValues, int period,
+      MeasuresWithVariationRepository measuresWithVariationRepository) {
       for (Metric metric : metrics) {
         Optional<Measure> measure = measureRepository.getRawMeasure(component, metric);
         if (measure.isPresent() && !measure.get().hasVariations()) {
-          PastMeasureDto pastMeasure = pastMeasuresByMeasureKey.get(new MeasureKey(metric.getKey(), null));
-          double pastValue = (pastMeasure != null && pastMeasure.hasValue()) ? pastMeasure.getValue() : 0d;
-          measuresWithVariationRepository.add(metric, measure.get(), period, computeVariation(measure.get(), pastValue));
+          Double pastValue = pastValues == null ? null : pastValues.get(metric.getId());
+          measuresWithVariationRepository.add(metric, measure.get(), period, computeVariation(measure.get(), pastValue == null ? 0d : pastValue));
         }
       }
     }
@@ -168,6 +176,27 @@ public class ComputeMeasureVariationsStep implements ComputationStep {
     }
   }
 
+  /**
+   * Past values of the numeric metrics, by component and by metric id, for a given period. Only the
+   * metrics having a value are stored.
+   */
+  private static final class PastValues {
+    private final Map<String, Map<Integer, Double>> valuesByComponentUuid = new HashMap<>();
+
+    void add(PastMeasureDto pastMeasure) {
+      if (!pastMeasure.hasValue()) {
+        return;
+      }
+      valuesByComponentUuid.computeIfAbsent(pastMeasure.getComponentUuid(), uuid -> new HashMap<>())
+        .put(pastMeasure.getMetricId(), pastMeasure.getValue());
+    }
+
+    @CheckForNull
+    Map<Integer, Double> get(String componentUuid) {
+      return valuesByComponentUuid.get(componentUuid);
+    }
+  }
+
   private static final class MeasuresWithVariationRepository {
 
     private final Map<MeasureKey, MeasureWithVariations> measuresWithVariations = new HashMap<>();
@@ -216,16 +245,6 @@ public class ComputeMeasureVariationsStep implements ComputationStep {
     }
   }
 
-  private enum MetricDtoToMetricId implements Function<Metric, Integer> {
-    INSTANCE;
-
-    @Nullable
-    @Override
-    public Integer apply(@Nonnull Metric metric) {
-      return metric.getId();
-    }
-  }
-
   private enum NumericMetric implements Predicate<Metric> {
     INSTANCE;
 
@@ -21,13 +21,14 @@ package org.sonar.server.computation.task.projectanalysis.step;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
 import java.util.List;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
 import org.sonar.server.computation.task.projectanalysis.component.CrawlerDepthLimit;
-import org.sonar.server.computation.task.projectanalysis.component.PathAwareCrawler;
 import org.sonar.server.computation.task.projectanalysis.component.PathAwareVisitorAdapter;
 import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolder;
+import org.sonar.server.computation.task.projectanalysis.component.VisitorsCrawler;
 import org.sonar.server.computation.task.projectanalysis.formula.Formula;
 import org.sonar.server.computation.task.projectanalysis.formula.FormulaExecutorComponentVisitor;
 import org.sonar.server.computation.task.projectanalysis.measure.Measure;
@@ -78,11 +79,11 @@ public class SizeMeasuresStep implements ComputationStep {
     Metric fileMetric = metricRepository.getByKey(CoreMetrics.FILES_KEY);
     Metric directoryMetric = metricRepository.getByKey(CoreMetrics.DIRECTORIES_KEY);
 
-    new PathAwareCrawler<>(new FileAndDirectoryMeasureVisitor(directoryMetric, fileMetric))
+    // both visitors are independent, so they share a single traversal of the tree
+    new VisitorsCrawler(Arrays.asList(
+      new FileAndDirectoryMeasureVisitor(directoryMetric, fileMetric),
+      FormulaExecutorComponentVisitor.newBuilder(metricRepository, measureRepository).buildFor(AGGREGATED_SIZE_MEASURE_FORMULAS)))
       .visit(treeRootHolder.getRoot());
-    new PathAwareCrawler<>(FormulaExecutorComponentVisitor.newBuilder(metricRepository, measureRepository)
-      .buildFor(AGGREGATED_SIZE_MEASURE_FORMULAS))
-        .visit(treeRootHolder.getRoot());
   }
 
   @Override
@@ -38,6 +38,7 @@ import org.elasticsearch.action.delete.DeleteRequestBuilder;
 import org.elasticsearch.action.get.GetRequestBuilder;
 import org.elasticsearch.action.get.MultiGetRequestBuilder;
 import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.MultiSearchRequestBuilder;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchScrollRequestBuilder;
 import org.elasticsearch.client.Client;
@@ -62,6 +63,7 @@ import org.sonar.server.es.request.ProxyIndexRequestBuilder;
 import org.sonar.server.es.request.ProxyIndicesExistsRequestBuilder;
 import org.sonar.server.es.request.ProxyIndicesStatsRequestBuilder;
 import org.sonar.server.es.request.ProxyMultiGetRequestBuilder;
+import org.sonar.server.es.request.ProxyMultiSearchRequestBuilder;
 import org.sonar.server.es.request.ProxyNodesStatsRequestBuilder;
 import org.sonar.server.es.request.ProxyPutMappingRequestBuilder;
 import org.sonar.server.es.request.ProxyRefreshRequestBuilder;
@@ -148,6 +150,10 @@ public class EsClient implements Closeable {
     return new ProxyMultiGetRequestBuilder(nativeClient());
   }
 
+  public MultiSearchRequestBuilder prepareMultiSearch() {
+    return new ProxyMultiSearchRequestBuilder(nativeClient());
+  }
+
   /**
    * @deprecated use {@link #prepareSearch(String...)} with size 0
    */
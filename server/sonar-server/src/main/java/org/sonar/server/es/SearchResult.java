@@ -37,6 +37,16 @@ public class SearchResult<DOC extends BaseDoc> {
     this.docs = EsUtils.convertToDocs(response.getHits(), converter);
   }
 
+  /**
+   * @param hitsResponse response of the request returning the documents
+   * @param facetsResponse response of the request returning the aggregations
+   */
+  public SearchResult(SearchResponse hitsResponse, SearchResponse facetsResponse, Function<Map<String, Object>, DOC> converter) {
+    this.facets = new Facets(facetsResponse);
+    this.total = hitsResponse.getHits().totalHits();
+    this.docs = EsUtils.convertToDocs(hitsResponse.getHits(), converter);
+  }
+
   public List<DOC> getDocs() {
     return docs;
   }
@@ -0,0 +1,81 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es.request;
+
+import java.util.Arrays;
+import org.elasticsearch.action.ListenableActionFuture;
+import org.elasticsearch.action.search.MultiSearchAction;
+import org.elasticsearch.action.search.MultiSearchRequestBuilder;
+import org.elasticsearch.action.search.MultiSearchResponse;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
+import org.sonar.api.utils.log.Profiler;
+import org.sonar.server.es.EsClient;
+
+public class ProxyMultiSearchRequestBuilder extends MultiSearchRequestBuilder {
+
+  public ProxyMultiSearchRequestBuilder(Client client) {
+    super(client, MultiSearchAction.INSTANCE);
+  }
+
+  @Override
+  public MultiSearchResponse get() {
+    Profiler profiler = Profiler.createIfTrace(EsClient.LOGGER).start();
+    try {
+      return super.execute().actionGet();
+    } catch (Exception e) {
+      throw new IllegalStateException(String.format("Fail to execute %s", toString()), e);
+    } finally {
+      if (profiler.isTraceEnabled()) {
+        profiler.stopTrace(toString());
+      }
+    }
+  }
+
+  @Override
+  public MultiSearchResponse get(TimeValue timeout) {
+    throw new IllegalStateException("Not yet implemented");
+  }
+
+  @Override
+  public MultiSearchResponse get(String timeout) {
+    throw new IllegalStateException("Not yet implemented");
+  }
+
+  @Override
+  public ListenableActionFuture<MultiSearchResponse> execute() {
+    throw new UnsupportedOperationException("execute() should not be called as it's used for asynchronous");
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder message = new StringBuilder();
+    message.append("ES multi search request");
+    for (SearchRequest searchRequest : request.requests()) {
+      message.append(String.format(" [indices '%s'", Arrays.toString(searchRequest.indices())));
+      if (searchRequest.types().length > 0) {
+        message.append(String.format(", types '%s'", Arrays.toString(searchRequest.types())));
+      }
+      message.append("],");
+    }
+    return message.toString();
+  }
+}
@@ -25,6 +25,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -42,6 +43,7 @@ import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.BooleanUtils;
 import org.apache.commons.lang.StringUtils;
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchType;
@@ -49,6 +51,7 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.aggregations.bucket.filter.FilterAggregationBuilder;
@@ -58,6 +61,7 @@ import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInter
 import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.elasticsearch.search.aggregations.bucket.terms.Terms.Order;
 import org.elasticsearch.search.aggregations.bucket.terms.TermsBuilder;
+import org.elasticsearch.search.aggregations.metrics.max.Max;
 import org.elasticsearch.search.aggregations.metrics.min.Min;
 import org.elasticsearch.search.aggregations.metrics.sum.SumBuilder;
 import org.joda.time.Duration;
@@ -145,11 +149,19 @@ public class IssueIndex extends BaseIndex {
   private static final SumBuilder EFFORT_AGGREGATION = AggregationBuilders.sum(FACET_MODE_EFFORT).field(IssueIndexDefinition.FIELD_ISSUE_EFFORT);
   private static final Order EFFORT_AGGREGATION_ORDER = Order.aggregation(FACET_MODE_EFFORT, false);
 
+  private static final String LAST_UPDATE_AGGREGATION = "lastUpdate";
+
   private static final int DEFAULT_FACET_SIZE = 15;
   private static final Duration TWENTY_DAYS = Duration.standardDays(20L);
   private static final Duration TWENTY_WEEKS = Duration.standardDays(20L * 7L);
   private static final Duration TWENTY_MONTHS = Duration.standardDays(20L * 30L);
 
+  /**
+   * Maximum number of projects browsable by the user for which issues are filtered with a terms query
+   * instead of a parent/child join on the authorization documents.
+   */
+  private static final int MAX_AUTHORIZED_PROJECTS_IN_TERMS_FILTER = 1_000;
+
   /**
    * Convert an Elasticsearch result (a map) to an {@link org.sonar.server.issue.index.IssueDoc}. It's
    * used for {@link org.sonar.server.es.SearchResult}.
@@ -225,8 +237,40 @@ public class IssueIndex extends BaseIndex {
     configurePagination(options, requestBuilder);
 
     QueryBuilder esQuery = matchAllQuery();
-    BoolQueryBuilder esFilter = boolQuery();
     Map<String, QueryBuilder> filters = createFilters(query);
+    setQuery(requestBuilder, esQuery, filters);
+
+    if (options.getFacets().isEmpty() && !hasQueryEffortFacet(query)) {
+      return new SearchResult<>(requestBuilder.get(), DOC_CONVERTER);
+    }
+
+    // Aggregations are computed by a distinct request without hits, so that their result can be
+    // served by the Elasticsearch shard request cache, which is invalidated on each refresh of the index.
+    // Both requests are sent in the same multi search, so that they are executed concurrently.
+    SearchRequestBuilder facetsRequestBuilder = getClient()
+      .prepareSearch(IssueIndexDefinition.INDEX)
+      .setTypes(IssueIndexDefinition.TYPE_ISSUE)
+      .setSize(0)
+      .setRequestCache(true);
+    setQuery(facetsRequestBuilder, esQuery, filters);
+    configureStickyFacets(query, options, filters, esQuery, facetsRequestBuilder);
+    MultiSearchResponse.Item[] responses = getClient().prepareMultiSearch()
+      .add(requestBuilder)
+      .add(facetsRequestBuilder)
+      .get()
+      .getResponses();
+    return new SearchResult<>(getResponse(responses[0]), getResponse(responses[1]), DOC_CONVERTER);
+  }
+
+  private static SearchResponse getResponse(MultiSearchResponse.Item item) {
+    if (item.isFailure()) {
+      throw new IllegalStateException("Fail to search issues: " + item.getFailureMessage());
+    }
+    return item.getResponse();
+  }
+
+  private static void setQuery(SearchRequestBuilder requestBuilder, QueryBuilder esQuery, Map<String, QueryBuilder> filters) {
+    BoolQueryBuilder esFilter = boolQuery();
     for (QueryBuilder filter : filters.values()) {
       if (filter != null) {
         esFilter.must(filter);
@@ -237,9 +281,6 @@ public class IssueIndex extends BaseIndex {
     } else {
       requestBuilder.setQuery(esQuery);
     }
-
-    configureStickyFacets(query, options, filters, esQuery, requestBuilder);
-    return new SearchResult<>(requestBuilder.get(), DOC_CONVERTER);
   }
 
   private void configureSorting(IssueQuery query, SearchRequestBuilder esRequest) {
@@ -337,7 +378,13 @@ public class IssueIndex extends BaseIndex {
     return viewsFilter;
   }
 
-  private static QueryBuilder createAuthorizationFilter(boolean checkAuthorization, @Nullable Integer userId, Set<String> userGroups) {
+  /**
+   * When the user can browse a limited number of projects, the issues are filtered by a terms query on their
+   * project, which is much cheaper than the join on the parent authorization documents. The join is used
+   * for the users who can browse many projects. The uuids of at most {@link #MAX_AUTHORIZED_PROJECTS_IN_TERMS_FILTER} + 1
+   * projects are loaded by a single search: more hits than the maximum mean that the join must be used.
+   */
+  private QueryBuilder createAuthorizationFilter(boolean checkAuthorization, @Nullable Integer userId, Set<String> userGroups) {
     if (checkAuthorization) {
       BoolQueryBuilder groupsAndUser = boolQuery();
       if (userId != null) {
@@ -346,12 +393,30 @@ public class IssueIndex extends BaseIndex {
       for (String group : userGroups) {
         groupsAndUser.should(termQuery(IssueIndexDefinition.FIELD_AUTHORIZATION_GROUPS, group));
       }
-      return QueryBuilders.hasParentQuery(IssueIndexDefinition.TYPE_AUTHORIZATION,
-        QueryBuilders.boolQuery().must(matchAllQuery()).filter(groupsAndUser));
+      QueryBuilder authorizationQuery = QueryBuilders.boolQuery().must(matchAllQuery()).filter(groupsAndUser);
+      SearchHit[] hits = prepareAuthorizedProjectsSearch(authorizationQuery)
+        .setSize(MAX_AUTHORIZED_PROJECTS_IN_TERMS_FILTER + 1)
+        .get().getHits().hits();
+      if (hits.length > MAX_AUTHORIZED_PROJECTS_IN_TERMS_FILTER) {
+        return QueryBuilders.hasParentQuery(IssueIndexDefinition.TYPE_AUTHORIZATION, authorizationQuery);
+      }
+      List<String> projectUuids = new ArrayList<>(hits.length);
+      for (SearchHit hit : hits) {
+        projectUuids.add(hit.getId());
+      }
+      return termsQuery(IssueIndexDefinition.FIELD_ISSUE_PROJECT_UUID, projectUuids);
     }
     return matchAllQuery();
   }
 
+  private SearchRequestBuilder prepareAuthorizedProjectsSearch(QueryBuilder authorizationQuery) {
+    return getClient()
+      .prepareSearch(IssueIndexDefinition.INDEX)
+      .setTypes(IssueIndexDefinition.TYPE_AUTHORIZATION)
+      .setQuery(authorizationQuery)
+      .setFetchSource(false);
+  }
+
   private void addDatesFilter(Map<String, QueryBuilder> filters, IssueQuery query) {
     Date createdAfter = query.createdAfter();
     Date createdBefore = query.createdBefore();
@@ -499,7 +564,8 @@ public class IssueIndex extends BaseIndex {
     SearchRequestBuilder esRequest = getClient()
       .prepareSearch(IssueIndexDefinition.INDEX)
       .setTypes(IssueIndexDefinition.TYPE_ISSUE)
-      .setSize(0);
+      .setSize(0)
+      .setRequestCache(true);
     BoolQueryBuilder esFilter = boolQuery();
     filters.values().stream().filter(Objects::nonNull).forEach(esFilter::must);
     if (esFilter.hasClauses()) {
@@ -692,21 +758,6 @@ public class IssueIndex extends BaseIndex {
    * Only fields needed for the batch are returned.
    */
   public Iterator<IssueDoc> selectIssuesForBatch(ComponentDto component) {
-    BoolQueryBuilder filter = boolQuery()
-      .must(createAuthorizationFilter(true, userSession.getUserId(), userSession.getUserGroups()))
-      .mustNot(termsQuery(IssueIndexDefinition.FIELD_ISSUE_STATUS, Issue.STATUS_CLOSED));
-
-    switch (component.scope()) {
-      case Scopes.PROJECT:
-        filter.must(termsQuery(IssueIndexDefinition.FIELD_ISSUE_MODULE_PATH, component.uuid()));
-        break;
-      case Scopes.FILE:
-        filter.must(termsQuery(IssueIndexDefinition.FIELD_ISSUE_COMPONENT_UUID, component.uuid()));
-        break;
-      default:
-        throw new IllegalStateException(format("Component of scope '%s' is not allowed", component.scope()));
-    }
-
     SearchRequestBuilder requestBuilder = getClient()
       .prepareSearch(IssueIndexDefinition.INDEX)
       .setTypes(IssueIndexDefinition.TYPE_ISSUE)
@@ -720,9 +771,48 @@ public class IssueIndex extends BaseIndex {
           IssueIndexDefinition.FIELD_ISSUE_LINE, IssueIndexDefinition.FIELD_ISSUE_MESSAGE, IssueIndexDefinition.FIELD_ISSUE_CHECKSUM,
           IssueIndexDefinition.FIELD_ISSUE_FUNC_CREATED_AT},
         null)
-      .setQuery(boolQuery().must(matchAllQuery()).filter(filter));
+      .setQuery(boolQuery().must(matchAllQuery()).filter(createBatchFilter(component)));
     SearchResponse response = requestBuilder.get();
 
     return EsUtils.scroll(getClient(), response.getScrollId(), DOC_CONVERTER);
   }
+
+  /**
+   * Version of the issues returned by {@link #selectIssuesForBatch(ComponentDto)}, computed without loading them.
+   * Any change of these issues updates their technical update date, and closing an issue
+   * decreases their number, so the version changes as soon as the returned issues change.
+   */
+  public String selectIssuesForBatchVersion(ComponentDto component) {
+    SearchResponse response = getClient()
+      .prepareSearch(IssueIndexDefinition.INDEX)
+      .setTypes(IssueIndexDefinition.TYPE_ISSUE)
+      .setSize(0)
+      .setQuery(boolQuery().must(matchAllQuery()).filter(createBatchFilter(component)))
+      .addAggregation(AggregationBuilders.max(LAST_UPDATE_AGGREGATION).field(IssueIndexDefinition.FIELD_ISSUE_TECHNICAL_UPDATED_AT))
+      .get();
+    long total = response.getHits().getTotalHits();
+    if (total == 0L) {
+      return "0";
+    }
+    Max lastUpdate = response.getAggregations().get(LAST_UPDATE_AGGREGATION);
+    return total + "-" + (long) lastUpdate.getValue();
+  }
+
+  private BoolQueryBuilder createBatchFilter(ComponentDto component) {
+    BoolQueryBuilder filter = boolQuery()
+      .must(createAuthorizationFilter(true, userSession.getUserId(), userSession.getUserGroups()))
+      .mustNot(termsQuery(IssueIndexDefinition.FIELD_ISSUE_STATUS, Issue.STATUS_CLOSED));
+
+    switch (component.scope()) {
+      case Scopes.PROJECT:
+        filter.must(termsQuery(IssueIndexDefinition.FIELD_ISSUE_MODULE_PATH, component.uuid()));
+        break;
+      case Scopes.FILE:
+        filter.must(termsQuery(IssueIndexDefinition.FIELD_ISSUE_COMPONENT_UUID, component.uuid()));
+        break;
+      default:
+        throw new IllegalStateException(format("Component of scope '%s' is not allowed", component.scope()));
+    }
+    return filter;
+  }
 }
@@ -45,6 +45,8 @@ import org.sonar.server.issue.index.IssueDoc;
 import org.sonar.server.issue.index.IssueIndex;
 import org.sonar.server.rule.RuleKeyFunctions;
 import org.sonar.server.user.UserSession;
+import org.sonar.server.ws.ProtobufStreamWriter;
+import org.sonarqube.ws.Issues;
 import org.sonarqube.ws.Issues.SearchWsResponse;
 import org.sonarqube.ws.client.issue.SearchWsRequest;
 
@@ -55,7 +57,6 @@ import static java.util.Collections.singletonList;
 import static org.sonar.api.utils.Paging.forPageIndex;
 import static org.sonar.server.es.SearchOptions.MAX_LIMIT;
 import static org.sonar.server.ws.KeyExamples.KEY_PROJECT_EXAMPLE_001;
-import static org.sonar.server.ws.WsUtils.writeProtobuf;
 import static org.sonarqube.ws.client.issue.IssuesWsParameters.ACTION_SEARCH;
 import static org.sonarqube.ws.client.issue.IssuesWsParameters.DEPRECATED_FACET_MODE_DEBT;
 import static org.sonarqube.ws.client.issue.IssuesWsParameters.DEPRECATED_PARAM_ACTION_PLANS;
@@ -99,6 +100,7 @@ import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_TYPES;
 public class SearchAction implements IssuesWsAction {
 
   private static final String INTERNAL_PARAMETER_DISCLAIMER = "This parameter is mostly used by the Issues page, please prefer usage of the componentKeys parameter. ";
+  private static final String ISSUES_FIELD = "issues";
 
   private final UserSession userSession;
   private final IssueIndex issueIndex;
@@ -285,11 +287,10 @@ public class SearchAction implements IssuesWsAction {
 
   @Override
   public final void handle(Request request, Response response) throws Exception {
-    SearchWsResponse searchWsResponse = doHandle(toSearchWsRequest(request), request);
-    writeProtobuf(searchWsResponse, request, response);
+    doHandle(toSearchWsRequest(request), request, response);
   }
 
-  private SearchWsResponse doHandle(SearchWsRequest request, Request wsRequest) {
+  private void doHandle(SearchWsRequest request, Request wsRequest, Response wsResponse) {
     // prepare the Elasticsearch request
     SearchOptions options = createSearchOptionsFromRequest(request);
     EnumSet<SearchAdditionalField> additionalFields = SearchAdditionalField.getFromRequest(request);
@@ -324,7 +325,12 @@ public class SearchAction implements IssuesWsAction {
     // FIXME allow long in Paging
     Paging paging = forPageIndex(options.getPage()).withPageSize(options.getLimit()).andTotal((int) result.getTotal());
 
-    return searchResponseFormat.formatSearch(additionalFields, data, paging, facets);
+    // issues are streamed, so that their protobuf messages are not all built in memory. The message is not
+    // completed if formatting fails, so that a truncated response can't be mistaken for a complete one.
+    SearchWsResponse header = searchResponseFormat.formatSearchWithoutIssues(additionalFields, data, paging, facets);
+    ProtobufStreamWriter<Issues.Issue> writer = ProtobufStreamWriter.start(header, ISSUES_FIELD, wsRequest, wsResponse);
+    searchResponseFormat.formatIssues(additionalFields, data, writer::write);
+    writer.finish();
   }
 
   private static SearchOptions createSearchOptionsFromRequest(SearchWsRequest request) {
@@ -28,6 +28,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import org.sonar.api.resources.Language;
 import org.sonar.api.resources.Languages;
@@ -65,13 +66,16 @@ public class SearchResponseFormat {
     this.languages = languages;
   }
 
-  public Issues.SearchWsResponse formatSearch(Set<SearchAdditionalField> fields, SearchResponseData data,
+  /**
+   * Formats all the fields of the response of api/issues/search, except the issues, which are
+   * formatted by {@link #formatIssues(Set, SearchResponseData, Consumer)}.
+   */
+  public Issues.SearchWsResponse formatSearchWithoutIssues(Set<SearchAdditionalField> fields, SearchResponseData data,
     Paging paging, @Nullable Facets facets) {
     Issues.SearchWsResponse.Builder response = Issues.SearchWsResponse.newBuilder();
 
     formatPaging(paging, response);
     formatEffortTotal(data, response);
-    response.addAllIssues(formatIssues(fields, data));
     response.addAllComponents(formatComponents(data));
     if (facets != null) {
       formatFacets(facets, response);
@@ -121,8 +125,11 @@ public class SearchResponseFormat {
     response.setPaging(commonFormat.formatPaging(paging));
   }
 
-  private List<Issues.Issue> formatIssues(Set<SearchAdditionalField> fields, SearchResponseData data) {
-    List<Issues.Issue> result = new ArrayList<>();
+  /**
+   * Formats the issues of {@code data} one by one, so that they can be written to the response
+   * without being all kept in memory.
+   */
+  public void formatIssues(Set<SearchAdditionalField> fields, SearchResponseData data, Consumer<Issues.Issue> consumer) {
     Issues.Issue.Builder issueBuilder = Issues.Issue.newBuilder();
     for (IssueDto dto : data.getIssues()) {
       issueBuilder.clear();
@@ -136,9 +143,8 @@ public class SearchResponseFormat {
       if (fields.contains(SearchAdditionalField.COMMENTS)) {
         formatIssueComments(data, issueBuilder, dto);
       }
-      result.add(issueBuilder.build());
+      consumer.accept(issueBuilder.build());
     }
-    return result;
   }
 
   private void formatIssue(Issues.Issue.Builder issueBuilder, IssueDto dto, SearchResponseData data) {
@@ -23,13 +23,14 @@ import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.SetMultimap;
 import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.sonar.api.rule.RuleKey;
-import org.sonar.core.issue.DefaultIssue;
 import org.sonar.core.util.stream.Collectors;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
@@ -40,6 +41,7 @@ import org.sonar.db.protobuf.DbIssues;
 import org.sonar.server.es.Facets;
 import org.sonar.server.issue.ActionFinder;
 import org.sonar.server.issue.TransitionService;
+import org.sonar.server.issue.workflow.Transition;
 import org.sonar.server.user.UserSession;
 import org.sonarqube.ws.client.issue.IssuesWsParameters;
 
@@ -55,6 +57,8 @@ import static org.sonar.server.issue.ws.SearchAdditionalField.USERS;
  */
 public class SearchResponseLoader {
 
+  private static final char GROUP_SEPARATOR = '|';
+
   private final UserSession userSession;
   private final DbClient dbClient;
   private final ActionFinder actionService;
@@ -145,15 +149,20 @@ public class SearchResponseLoader {
 
   private void loadActionsAndTransitions(Collector collector, SearchResponseData result) {
     if (collector.contains(ACTIONS) || collector.contains(TRANSITIONS)) {
+      // Actions and transitions only depend on the state of the issue and on the permissions of the user on its
+      // project, so they are computed once for all the issues sharing the same project and state.
+      Map<String, List<String>> actionsByGroup = new HashMap<>();
+      Map<String, List<Transition>> transitionsByGroup = new HashMap<>();
+      String login = userSession.getLogin();
       for (IssueDto dto : result.getIssues()) {
-        // so that IssueDto can be used.
         if (collector.contains(ACTIONS)) {
-          result.addActions(dto.getKey(), actionService.listAvailableActions(dto));
+          String group = dto.getProjectUuid() + GROUP_SEPARATOR + (dto.getResolution() == null) + GROUP_SEPARATOR + Objects.equals(login, dto.getAssignee());
+          result.addActions(dto.getKey(), actionsByGroup.computeIfAbsent(group, g -> actionService.listAvailableActions(dto)));
         }
         if (collector.contains(TRANSITIONS)) {
+          String group = dto.getProjectUuid() + GROUP_SEPARATOR + dto.getStatus() + GROUP_SEPARATOR + dto.getResolution();
           // TODO workflow and action engines must not depend on org.sonar.api.issue.Issue but on a generic interface
-          DefaultIssue issue = dto.toDefaultIssue();
-          result.addTransitions(issue.key(), transitionService.listTransitions(issue));
+          result.addTransitions(dto.getKey(), transitionsByGroup.computeIfAbsent(group, g -> transitionService.listTransitions(dto.toDefaultIssue())));
         }
       }
     }
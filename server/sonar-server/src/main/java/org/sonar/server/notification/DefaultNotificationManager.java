@@ -26,14 +26,18 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
 import java.io.IOException;
 import java.io.InvalidClassException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.notifications.Notification;
 import org.sonar.api.notifications.NotificationChannel;
 import org.sonar.api.utils.SonarException;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.core.util.stream.Collectors;
 import org.sonar.db.notification.NotificationQueueDao;
 import org.sonar.db.notification.NotificationQueueDto;
 import org.sonar.db.property.PropertiesDao;
@@ -84,20 +88,47 @@ public class DefaultNotificationManager implements NotificationManager {
    * Give the notification queue so that it can be processed
    */
   public Notification getFromQueue() {
-    int batchSize = 1;
+    List<QueuedNotification> notifications = getFromQueue(1);
+    removeFromQueue(notifications);
+    return notifications.isEmpty() ? null : notifications.get(0).getNotification();
+  }
+
+  /**
+   * Give at most {@code batchSize} of the oldest notifications of the queue so that they can be processed. They stay in
+   * the queue until they are removed by {@link #removeFromQueue(List)}, so that they are not lost if the server
+   * stops before they are delivered. Notifications which can't be read are removed from the queue and ignored.
+   */
+  public List<QueuedNotification> getFromQueue(int batchSize) {
     List<NotificationQueueDto> notificationDtos = notificationQueueDao.selectOldest(batchSize);
     if (notificationDtos.isEmpty()) {
-      return null;
+      return Collections.emptyList();
     }
-    notificationQueueDao.delete(notificationDtos);
 
-    return convertToNotification(notificationDtos);
+    List<QueuedNotification> notifications = new ArrayList<>(notificationDtos.size());
+    List<NotificationQueueDto> unreadableDtos = new ArrayList<>();
+    for (NotificationQueueDto notificationDto : notificationDtos) {
+      Notification notification = convertToNotification(notificationDto);
+      if (notification == null) {
+        unreadableDtos.add(notificationDto);
+      } else {
+        notifications.add(new QueuedNotification(notificationDto, notification));
+      }
+    }
+    notificationQueueDao.delete(unreadableDtos);
+    return notifications;
   }
 
-  private Notification convertToNotification(List<NotificationQueueDto> notifications) {
+  /**
+   * Remove from the queue, with a single set-based delete, notifications returned by {@link #getFromQueue(int)}.
+   */
+  public void removeFromQueue(List<QueuedNotification> notifications) {
+    notificationQueueDao.delete(notifications.stream().map(n -> n.dto).collect(Collectors.toList()));
+  }
+
+  @CheckForNull
+  private Notification convertToNotification(NotificationQueueDto notification) {
     try {
-      // If batchSize is increased then we should return a list instead of a single element
-      return notifications.get(0).toNotification();
+      return notification.toNotification();
     } catch (InvalidClassException e) {
       // SONAR-4739
       if (!alreadyLoggedDeserializationIssue) {
@@ -166,4 +197,22 @@ public class DefaultNotificationManager implements NotificationManager {
     }
   }
 
+  /**
+   * A notification read from the queue, which is still in the queue until it's removed
+   * by {@link #removeFromQueue(List)}.
+   */
+  public static final class QueuedNotification {
+    private final NotificationQueueDto dto;
+    private final Notification notification;
+
+    QueuedNotification(NotificationQueueDto dto, Notification notification) {
+      this.dto = dto;
+      this.notification = notification;
+    }
+
+    public Notification getNotification() {
+      return notification;
+    }
+  }
+
 }
@@ -21,6 +21,8 @@ package org.sonar.server.notification;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -28,10 +30,10 @@ import org.picocontainer.Startable;
 import org.sonar.api.Properties;
 import org.sonar.api.Property;
 import org.sonar.api.config.Settings;
-import org.sonar.api.notifications.Notification;
 import org.sonar.api.server.ServerSide;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.server.notification.DefaultNotificationManager.QueuedNotification;
 
 @Properties({
   @Property(
@@ -43,6 +45,11 @@ import org.sonar.api.utils.log.Loggers;
     key = NotificationDaemon.PROPERTY_DELAY_BEFORE_REPORTING_STATUS,
     defaultValue = "600",
     name = "Delay before reporting notification status, in seconds",
+    global = false),
+  @Property(
+    key = NotificationDaemon.PROPERTY_BATCH_SIZE,
+    defaultValue = "100",
+    name = "Number of notifications dequeued at once",
     global = false)
 })
 @ServerSide
@@ -53,18 +60,23 @@ public class NotificationDaemon implements Startable {
 
   public static final String PROPERTY_DELAY = "sonar.notifications.delay";
   public static final String PROPERTY_DELAY_BEFORE_REPORTING_STATUS = "sonar.notifications.runningDelayBeforeReportingStatus";
+  public static final String PROPERTY_BATCH_SIZE = "sonar.notifications.batchSize";
+  static final int DEFAULT_BATCH_SIZE = 100;
 
   private final long delayInSeconds;
   private final long delayBeforeReportingStatusInSeconds;
+  private final int batchSize;
   private final DefaultNotificationManager manager;
   private final NotificationService service;
 
   private ScheduledExecutorService executorService;
-  private boolean stopping = false;
+  private volatile boolean stopping = false;
 
   public NotificationDaemon(Settings settings, DefaultNotificationManager manager, NotificationService service) {
     this.delayInSeconds = settings.getLong(PROPERTY_DELAY);
     this.delayBeforeReportingStatusInSeconds = settings.getLong(PROPERTY_DELAY_BEFORE_REPORTING_STATUS);
+    int configuredBatchSize = settings.getInt(PROPERTY_BATCH_SIZE);
+    this.batchSize = configuredBatchSize > 0 ? configuredBatchSize : DEFAULT_BATCH_SIZE;
     this.manager = manager;
     this.service = service;
   }
@@ -83,15 +95,17 @@ public class NotificationDaemon implements Startable {
         LOG.error("Error in NotificationService", e);
       }
     }, 0, delayInSeconds, TimeUnit.SECONDS);
-    LOG.info("Notification service started (delay {} sec.)", delayInSeconds);
+    LOG.info("Notification service started (delay {} sec., batch size {})", delayInSeconds, batchSize);
   }
 
   @Override
   public void stop() {
     try {
       stopping = true;
-      executorService.shutdown();
-      executorService.awaitTermination(5, TimeUnit.SECONDS);
+      if (executorService != null) {
+        executorService.shutdown();
+        executorService.awaitTermination(5, TimeUnit.SECONDS);
+      }
     } catch (InterruptedException e) {
       LOG.error("Error during stop of notification service", e);
       Thread.currentThread().interrupt();
@@ -105,21 +119,34 @@ public class NotificationDaemon implements Startable {
     long lastLog = start;
     long notifSentCount = 0;
 
-    Notification notifToSend = manager.getFromQueue();
-    while (notifToSend != null) {
-      service.deliver(notifToSend);
-      notifSentCount++;
+    List<QueuedNotification> notifsToSend = manager.getFromQueue(batchSize);
+    while (!notifsToSend.isEmpty()) {
+      List<QueuedNotification> processedNotifs = new ArrayList<>(notifsToSend.size());
+      try {
+        for (QueuedNotification notif : notifsToSend) {
+          if (stopping) {
+            // notifications which are not delivered yet stay in the queue
+            return;
+          }
+          // removed from the queue even if its delivery fails, so that a failing notification is not processed forever
+          processedNotifs.add(notif);
+          service.deliver(notif.getNotification());
+          notifSentCount++;
+          long now = now();
+          if (now - lastLog > delayBeforeReportingStatusInSeconds * 1000) {
+            long remainingNotifCount = manager.count();
+            lastLog = now;
+            long spentTimeInMinutes = (now - start) / (60 * 1000);
+            log(notifSentCount, remainingNotifCount, spentTimeInMinutes);
+          }
+        }
+      } finally {
+        manager.removeFromQueue(processedNotifs);
+      }
       if (stopping) {
         break;
       }
-      long now = now();
-      if (now - lastLog > delayBeforeReportingStatusInSeconds * 1000) {
-        long remainingNotifCount = manager.count();
-        lastLog = now;
-        long spentTimeInMinutes = (now - start) / (60 * 1000);
-        log(notifSentCount, remainingNotifCount, spentTimeInMinutes);
-      }
-      notifToSend = manager.getFromQueue();
+      notifsToSend = manager.getFromQueue(batchSize);
     }
   }
 
@@ -23,16 +23,20 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchResponse;
@@ -109,19 +113,27 @@ public class PermissionIndexer implements Startable {
   public void index(DbSession dbSession, List<String> viewOrProjectUuids) {
     checkArgument(!viewOrProjectUuids.isEmpty(), "viewOrProjectUuids cannot be empty");
     PermissionIndexerDao dao = new PermissionIndexerDao();
-    index(dao.selectByUuids(dbClient, dbSession, viewOrProjectUuids));
+    // the same project is listed once per permission change
+    List<String> distinctUuids = viewOrProjectUuids.stream().distinct().collect(Collectors.toList());
+    index(dao.selectByUuids(dbClient, dbSession, distinctUuids));
   }
 
+  /**
+   * The documents of the three indices are sent in the same bulk requests. Only the indices that
+   * received documents are refreshed, once all the requests are executed.
+   */
   private void index(Collection<PermissionIndexerDao.Dto> authorizations) {
     if (authorizations.isEmpty()) {
       return;
     }
     int count = 0;
+    Set<String> updatedIndices = new HashSet<>();
     BulkRequestBuilder bulkRequest = esClient.prepareBulk().setRefresh(false);
     for (PermissionIndexerDao.Dto dto : authorizations) {
-      newIssuesAuthorizationIndexRequest(dto).ifPresent(bulkRequest::add);
-      newProjectMeasuresAuthorizationIndexRequest(dto).ifPresent(bulkRequest::add);
-      newComponentsAuthorizationIndexRequest(dto).ifPresent(bulkRequest::add);
+      for (IndexRequest request : newIndexRequests(dto)) {
+        bulkRequest.add(request);
+        updatedIndices.add(request.index());
+      }
       count++;
       if (count >= MAX_BATCH_SIZE) {
         EsUtils.executeBulkRequest(bulkRequest, BULK_ERROR_MESSAGE);
@@ -129,37 +141,27 @@ public class PermissionIndexer implements Startable {
         count = 0;
       }
     }
-    EsUtils.executeBulkRequest(bulkRequest, BULK_ERROR_MESSAGE);
-    esClient.prepareRefresh(IssueIndexDefinition.INDEX).get();
-    esClient.prepareRefresh(ProjectMeasuresIndexDefinition.INDEX_PROJECT_MEASURES).get();
-    esClient.prepareRefresh(ComponentIndexDefinition.INDEX_COMPONENTS).get();
+    if (bulkRequest.numberOfActions() > 0) {
+      EsUtils.executeBulkRequest(bulkRequest, BULK_ERROR_MESSAGE);
+    }
+    updatedIndices.forEach(index -> esClient.prepareRefresh(index).get());
+  }
+
+  private static List<IndexRequest> newIndexRequests(PermissionIndexerDao.Dto dto) {
+    List<IndexRequest> requests = new ArrayList<>(3);
+    newIssuesAuthorizationIndexRequest(dto).ifPresent(requests::add);
+    newProjectMeasuresAuthorizationIndexRequest(dto).ifPresent(requests::add);
+    newComponentsAuthorizationIndexRequest(dto).ifPresent(requests::add);
+    return requests;
   }
 
   public void index(DbSession dbSession, String viewOrProjectUuid) {
-    PermissionIndexerDao dao = new PermissionIndexerDao();
-    List<PermissionIndexerDao.Dto> dtos = dao.selectByUuids(dbClient, dbSession, singletonList(viewOrProjectUuid));
-    if (dtos.size() == 1) {
-      index(dtos.get(0));
-    }
+    index(dbSession, singletonList(viewOrProjectUuid));
   }
 
   @VisibleForTesting
   void index(PermissionIndexerDao.Dto dto) {
-    newIssuesAuthorizationIndexRequest(dto)
-      .ifPresent(rqst -> index(IssueIndexDefinition.INDEX, IssueIndexDefinition.TYPE_AUTHORIZATION, rqst));
-    newProjectMeasuresAuthorizationIndexRequest(dto)
-      .ifPresent(rqst -> index(ProjectMeasuresIndexDefinition.INDEX_PROJECT_MEASURES, ProjectMeasuresIndexDefinition.TYPE_AUTHORIZATION, rqst));
-    newComponentsAuthorizationIndexRequest(dto)
-      .ifPresent(rqst -> index(ComponentIndexDefinition.INDEX_COMPONENTS, ComponentIndexDefinition.TYPE_AUTHORIZATION, rqst));
-  }
-
-  private void index(String index, String type, IndexRequest indexRequest) {
-    esClient.prepareIndex(index, type)
-      .setId(indexRequest.id())
-      .setRouting(indexRequest.routing())
-      .setSource(indexRequest.source())
-      .setRefresh(true)
-      .get();
+    index(singletonList(dto));
   }
 
   private static Optional<IndexRequest> newIssuesAuthorizationIndexRequest(PermissionIndexerDao.Dto dto) {
@@ -24,11 +24,14 @@ import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import javax.sql.DataSource;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.apache.commons.dbutils.DbUtils;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.MyBatis;
+import org.sonar.db.profiling.LatencyHistogram;
+import org.sonar.db.profiling.ProfiledDataSource;
 import org.sonar.server.platform.db.migration.version.DatabaseVersion;
 
 /**
@@ -84,6 +87,12 @@ public class DatabaseMonitor extends BaseMonitorMBean implements DatabaseMonitor
     return commonsDbcp().getInitialSize();
   }
 
+  @Override
+  public int getPoolPendingConnections() {
+    DataSource dataSource = dbClient.getDatabase().getDataSource();
+    return dataSource instanceof ProfiledDataSource ? ((ProfiledDataSource) dataSource).getNumPending() : 0;
+  }
+
   @Override
   public long getPoolMaxWaitMillis() {
     return commonsDbcp().getMaxWait();
@@ -117,6 +126,15 @@ public class DatabaseMonitor extends BaseMonitorMBean implements DatabaseMonitor
     attributes.put("Pool Max Wait (ms)", getPoolMaxWaitMillis());
     attributes.put("Pool Remove Abandoned", getPoolRemoveAbandoned());
     attributes.put("Pool Remove Abandoned Timeout (seconds)", getPoolRemoveAbandonedTimeoutSeconds());
+    DataSource dataSource = dbClient.getDatabase().getDataSource();
+    if (dataSource instanceof ProfiledDataSource) {
+      LatencyHistogram waitTimes = ((ProfiledDataSource) dataSource).getConnectionWaitTimes();
+      attributes.put("Pool Pending Connections", getPoolPendingConnections());
+      attributes.put("Pool Wait p50 (ms)", waitTimes.getPercentileMillis(50));
+      attributes.put("Pool Wait p95 (ms)", waitTimes.getPercentileMillis(95));
+      attributes.put("Pool Wait p99 (ms)", waitTimes.getPercentileMillis(99));
+      attributes.put("Pool Wait Max (ms)", waitTimes.getMaxMillis());
+    }
   }
 
   private BasicDataSource commonsDbcp() {
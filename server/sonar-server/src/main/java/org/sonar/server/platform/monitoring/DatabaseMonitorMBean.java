@@ -53,6 +53,12 @@ public interface DatabaseMonitorMBean {
    */
   int getPoolInitialSize();
 
+  /**
+   * The number of threads currently blocked until a connection is returned to the pool, because
+   * all the connections were active when they asked for one
+   */
+  int getPoolPendingConnections();
+
   /**
    * The maximum number of milliseconds that the pool will wait
    * (when there are no available connections) for a connection to be returned before throwing an exception, or -1 to wait indefinitely.
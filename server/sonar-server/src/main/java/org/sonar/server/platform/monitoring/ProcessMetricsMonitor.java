@@ -0,0 +1,94 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.File;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.sonar.api.config.Settings;
+import org.sonar.process.AllProcessesCommands;
+import org.sonar.process.ProcessId;
+import org.sonar.process.ProcessMetric;
+
+import static org.sonar.api.utils.DateUtils.formatDateTime;
+import static org.sonar.process.ProcessEntryPoint.PROPERTY_SHARED_PATH;
+
+/**
+ * Metrics published by the child processes (Elasticsearch, Web Server and Compute Engine) into
+ * the shared memory. Processes which are down or which did not publish their metrics yet are ignored.
+ */
+public class ProcessMetricsMonitor implements Monitor {
+
+  private static final Map<ProcessId, String> LABELS = ImmutableMap.of(
+    ProcessId.ELASTICSEARCH, "Elasticsearch",
+    ProcessId.WEB_SERVER, "Web Server",
+    ProcessId.COMPUTE_ENGINE, "Compute Engine");
+
+  private final Settings settings;
+
+  public ProcessMetricsMonitor(Settings settings) {
+    this.settings = settings;
+  }
+
+  @Override
+  public String name() {
+    return "Processes";
+  }
+
+  @Override
+  public Map<String, Object> attributes() {
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    String sharedPath = settings.getString(PROPERTY_SHARED_PATH);
+    if (sharedPath == null) {
+      return attributes;
+    }
+    try (AllProcessesCommands allCommands = new AllProcessesCommands(new File(sharedPath))) {
+      for (Map.Entry<ProcessId, String> label : LABELS.entrySet()) {
+        Map<ProcessMetric, Long> metrics = ProcessMetric.readAll(allCommands.create(label.getKey().getIpcIndex()));
+        if (!metrics.isEmpty()) {
+          putMetrics(attributes, label.getKey(), label.getValue(), metrics);
+        }
+      }
+    }
+    return attributes;
+  }
+
+  private static void putMetrics(Map<String, Object> attributes, ProcessId processId, String label, Map<ProcessMetric, Long> metrics) {
+    attributes.put(label + " Metrics Date", formatDateTime(new Date(metrics.get(ProcessMetric.UPDATED_AT))));
+    attributes.put(label + " Heap Used", formatMemory(metrics.get(ProcessMetric.HEAP_USED_BYTES)));
+    attributes.put(label + " Heap Max", formatMemory(metrics.get(ProcessMetric.HEAP_MAX_BYTES)));
+    attributes.put(label + " Non Heap Used", formatMemory(metrics.get(ProcessMetric.NON_HEAP_USED_BYTES)));
+    attributes.put(label + " Threads", metrics.get(ProcessMetric.THREAD_COUNT));
+    attributes.put(label + " GC Count", metrics.get(ProcessMetric.GC_COUNT));
+    attributes.put(label + " GC Time (ms)", metrics.get(ProcessMetric.GC_TIME_MS));
+    if (processId == ProcessId.COMPUTE_ENGINE) {
+      attributes.put(label + " Pending Tasks", metrics.get(ProcessMetric.CE_PENDING_TASKS));
+      attributes.put(label + " In Progress Tasks", metrics.get(ProcessMetric.CE_IN_PROGRESS_TASKS));
+    } else if (processId == ProcessId.ELASTICSEARCH) {
+      attributes.put(label + " Bulk Queue Size", metrics.get(ProcessMetric.ES_BULK_QUEUE_SIZE));
+    }
+  }
+
+  private static String formatMemory(long memoryInBytes) {
+    return String.format("%d MB", memoryInBytes / 1_000_000);
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.sonar.db.DbClient;
+import org.sonar.db.profiling.SqlStatementStatistics;
+import org.sonar.db.profiling.SqlStatistics;
+
+import static java.lang.String.format;
+import static java.util.Locale.ENGLISH;
+
+/**
+ * Calls, rows and latencies of the SQL requests executed by MyBatis, grouped by mapped statement
+ */
+public class SqlStatisticsMonitor extends BaseMonitorMBean implements SqlStatisticsMonitorMBean {
+
+  /**
+   * Only the most expensive statements are listed by system info
+   */
+  static final int MAX_STATEMENTS_IN_ATTRIBUTES = 50;
+
+  private final DbClient dbClient;
+
+  public SqlStatisticsMonitor(DbClient dbClient) {
+    this.dbClient = dbClient;
+  }
+
+  @Override
+  public String name() {
+    return "SQL Statements";
+  }
+
+  @Override
+  public int getStatementCount() {
+    return statistics().getAll().size();
+  }
+
+  @Override
+  public long getTotalCalls() {
+    return statistics().getAll().stream().mapToLong(SqlStatementStatistics::getCalls).sum();
+  }
+
+  @Override
+  public String[] getStatements() {
+    return statistics().getAll().stream()
+      .map(s -> format(ENGLISH, "%s: calls=%d, rows=%d, total=%dms, p50=%.3fms, p95=%.3fms, p99=%.3fms, max=%dms",
+        s.getId(), s.getCalls(), s.getRows(), s.getTotalMillis(), s.getPercentileMillis(50), s.getPercentileMillis(95),
+        s.getPercentileMillis(99), s.getMaxMillis()))
+      .toArray(String[]::new);
+  }
+
+  @Override
+  public void reset() {
+    statistics().reset();
+  }
+
+  @Override
+  public Map<String, Object> attributes() {
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    List<SqlStatementStatistics> all = statistics().getAll();
+    attributes.put("Statements", all.size());
+    for (SqlStatementStatistics s : all.subList(0, Math.min(all.size(), MAX_STATEMENTS_IN_ATTRIBUTES))) {
+      Map<String, Object> values = new LinkedHashMap<>();
+      values.put("Calls", s.getCalls());
+      values.put("Rows", s.getRows());
+      values.put("Total (ms)", s.getTotalMillis());
+      values.put("p50 (ms)", s.getPercentileMillis(50));
+      values.put("p95 (ms)", s.getPercentileMillis(95));
+      values.put("p99 (ms)", s.getPercentileMillis(99));
+      values.put("Max (ms)", s.getMaxMillis());
+      attributes.put(s.getId(), values);
+    }
+    return attributes;
+  }
+
+  private SqlStatistics statistics() {
+    return dbClient.getMyBatis().getSqlStatistics();
+  }
+}
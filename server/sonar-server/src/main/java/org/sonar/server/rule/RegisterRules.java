@@ -21,8 +21,10 @@ package org.sonar.server.rule;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Maps;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -95,21 +97,26 @@ public class RegisterRules implements Startable {
     DbSession session = dbClient.openSession(false);
     try {
       Map<RuleKey, RuleDto> allRules = loadRules(session);
+      ListMultimap<Integer, RuleParamDto> allParams = loadRuleParams(session, allRules.values());
+      List<RuleParamDto> newParamsWithDefaultValue = new ArrayList<>();
 
       RulesDefinition.Context context = defLoader.load();
       for (RulesDefinition.ExtendedRepository repoDef : getRepositories(context)) {
         if (languages.get(repoDef.language()) != null) {
           for (RulesDefinition.Rule ruleDef : repoDef.rules()) {
-            registerRule(ruleDef, allRules, session);
+            registerRule(ruleDef, allRules, allParams, newParamsWithDefaultValue, session);
           }
           session.commit();
         }
       }
+      propagateDefaultValuesToActiveRules(session, newParamsWithDefaultValue);
       List<RuleDto> activeRules = processRemainingDbRules(allRules.values(), session);
       List<ActiveRuleChange> changes = removeActiveRulesOnStillExistingRepositories(session, activeRules, context);
       session.commit();
 
       persistRepositories(session, context.repositories());
+      // only the rules updated since the last indexation are indexed, see BaseIndexer#index(IndexerTask) and
+      // RuleResultSetIterator, so unchanged rules are not reindexed
       ruleIndexer.index();
       activeRuleIndexer.index(changes);
       profiler.stopDebug();
@@ -133,7 +140,8 @@ public class RegisterRules implements Startable {
     // nothing
   }
 
-  private void registerRule(RulesDefinition.Rule ruleDef, Map<RuleKey, RuleDto> allRules, DbSession session) {
+  private void registerRule(RulesDefinition.Rule ruleDef, Map<RuleKey, RuleDto> allRules, ListMultimap<Integer, RuleParamDto> allParams,
+    List<RuleParamDto> newParamsWithDefaultValue, DbSession session) {
     RuleKey ruleKey = RuleKey.of(ruleDef.repository().key(), ruleDef.key());
 
     RuleDto rule = allRules.containsKey(ruleKey) ? allRules.remove(ruleKey) : createRuleDto(ruleDef, session);
@@ -155,7 +163,7 @@ public class RegisterRules implements Startable {
       update(session, rule);
     }
 
-    mergeParams(ruleDef, rule, session);
+    mergeParams(ruleDef, rule, allParams.get(rule.getId()), newParamsWithDefaultValue, session);
   }
 
   private Map<RuleKey, RuleDto> loadRules(DbSession session) {
@@ -166,6 +174,18 @@ public class RegisterRules implements Startable {
     return rules;
   }
 
+  /**
+   * Load the parameters of all the existing rules at once, rather than one request per rule
+   */
+  private ListMultimap<Integer, RuleParamDto> loadRuleParams(DbSession session, Collection<RuleDto> rules) {
+    List<Integer> ruleIds = rules.stream().map(RuleDto::getId).collect(Collectors.toList(rules.size()));
+    ListMultimap<Integer, RuleParamDto> paramsByRuleId = ArrayListMultimap.create();
+    for (RuleParamDto param : dbClient.ruleDao().selectRuleParamsByRuleIds(session, ruleIds)) {
+      paramsByRuleId.put(param.getRuleId(), param);
+    }
+    return paramsByRuleId;
+  }
+
   private List<RulesDefinition.ExtendedRepository> getRepositories(RulesDefinition.Context context) {
     List<RulesDefinition.ExtendedRepository> repositories = new ArrayList<>();
     for (RulesDefinition.Repository repoDef : context.repositories()) {
@@ -296,8 +316,8 @@ public class RegisterRules implements Startable {
     return changed;
   }
 
-  private void mergeParams(RulesDefinition.Rule ruleDef, RuleDto rule, DbSession session) {
-    List<RuleParamDto> paramDtos = dbClient.ruleDao().selectRuleParamsByRuleKey(session, rule.getKey());
+  private void mergeParams(RulesDefinition.Rule ruleDef, RuleDto rule, List<RuleParamDto> paramDtos, List<RuleParamDto> newParamsWithDefaultValue,
+    DbSession session) {
     Map<String, RuleParamDto> existingParamsByName = Maps.newHashMap();
 
     for (RuleParamDto paramDto : paramDtos) {
@@ -325,15 +345,32 @@ public class RegisterRules implements Startable {
         .setDefaultValue(param.defaultValue())
         .setType(param.type().toString());
       dbClient.ruleDao().insertRuleParam(session, rule, paramDto);
-      if (StringUtils.isEmpty(param.defaultValue())) {
-        continue;
+      if (!StringUtils.isEmpty(param.defaultValue())) {
+        newParamsWithDefaultValue.add(paramDto);
       }
-      // Propagate the default value to existing active rule parameters
-      for (ActiveRuleDto activeRule : dbClient.activeRuleDao().selectByRuleId(session, rule.getId())) {
-        ActiveRuleParamDto activeParam = ActiveRuleParamDto.createFor(paramDto).setValue(param.defaultValue());
+    }
+  }
+
+  /**
+   * Propagate the default value of new rule parameters to existing active rules. Active rules of all the
+   * impacted rules are loaded at once.
+   */
+  private void propagateDefaultValuesToActiveRules(DbSession session, List<RuleParamDto> newParamsWithDefaultValue) {
+    if (newParamsWithDefaultValue.isEmpty()) {
+      return;
+    }
+    List<Integer> ruleIds = newParamsWithDefaultValue.stream().map(RuleParamDto::getRuleId).distinct().collect(Collectors.toList());
+    ListMultimap<Integer, ActiveRuleDto> activeRulesByRuleId = ArrayListMultimap.create();
+    for (ActiveRuleDto activeRule : dbClient.activeRuleDao().selectByRuleIds(session, ruleIds)) {
+      activeRulesByRuleId.put(activeRule.getRuleId(), activeRule);
+    }
+    for (RuleParamDto paramDto : newParamsWithDefaultValue) {
+      for (ActiveRuleDto activeRule : activeRulesByRuleId.get(paramDto.getRuleId())) {
+        ActiveRuleParamDto activeParam = ActiveRuleParamDto.createFor(paramDto).setValue(paramDto.getDefaultValue());
         dbClient.activeRuleDao().insertParam(session, activeRule, activeParam);
       }
     }
+    session.commit();
   }
 
   private boolean mergeParam(RuleParamDto paramDto, RulesDefinition.Param paramDef) {
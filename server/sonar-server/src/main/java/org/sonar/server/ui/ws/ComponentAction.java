@@ -19,15 +19,27 @@
  */
 package org.sonar.server.ui.ws;
 
-import com.google.common.collect.Lists;
+import com.google.common.net.HttpHeaders;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.api.resources.ResourceType;
 import org.sonar.api.resources.ResourceTypes;
@@ -37,8 +49,8 @@ import org.sonar.api.server.ws.WebService.NewAction;
 import org.sonar.api.server.ws.WebService.NewController;
 import org.sonar.api.utils.DateUtils;
 import org.sonar.api.utils.text.JsonWriter;
-import org.sonar.api.web.UserRole;
 import org.sonar.api.web.page.Page;
+import org.sonar.core.util.stream.Collectors;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.component.ComponentDto;
@@ -57,6 +69,7 @@ import org.sonar.server.qualityprofile.QPMeasureData;
 import org.sonar.server.qualityprofile.QualityProfile;
 import org.sonar.server.ui.PageRepository;
 import org.sonar.server.user.UserSession;
+import org.sonarqube.ws.MediaTypes;
 
 import static org.sonar.api.measures.CoreMetrics.QUALITY_PROFILES_KEY;
 import static org.sonar.api.web.UserRole.ADMIN;
@@ -73,6 +86,9 @@ public class ComponentAction implements NavigationWsAction {
   private static final String PROPERTY_MODIFIABLE_HISTORY = "modifiable_history";
   private static final String PROPERTY_UPDATABLE_KEY = "updatable_key";
 
+  private static final int ANALYSIS_DATA_CACHE_SIZE = 1_000;
+  private static final int RESPONSE_CACHE_SIZE = 1_000;
+
   private final DbClient dbClient;
   private final PageRepository pageRepository;
   private final ResourceTypes resourceTypes;
@@ -80,6 +96,30 @@ public class ComponentAction implements NavigationWsAction {
   private final ComponentFinder componentFinder;
   private final QualityGateFinder qualityGateFinder;
 
+  /**
+   * Breadcrumbs and quality profiles of the components, which change only when a new analysis is processed. They are
+   * kept by component key and uuid of the last analysis of the project. Data depending on the user, on the settings
+   * or on the permissions are not cached.
+   */
+  private final Map<String, AnalysisData> analysisDataCache = Collections.synchronizedMap(new LinkedHashMap<String, AnalysisData>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, AnalysisData> eldest) {
+      return size() > ANALYSIS_DATA_CACHE_SIZE;
+    }
+  });
+
+  /**
+   * Responses, by the values they are built from: the component, its organization, the last analysis of the project,
+   * the quality gate, the favourite flag and the permissions of the user. Any change of these values leads to a new
+   * entry, so that entries do not have to be invalidated on settings or permission changes.
+   */
+  private final Map<List<Object>, CachedResponse> responseCache = Collections.synchronizedMap(new LinkedHashMap<List<Object>, CachedResponse>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedResponse> eldest) {
+      return size() > RESPONSE_CACHE_SIZE;
+    }
+  });
+
   public ComponentAction(DbClient dbClient, PageRepository pageRepository, ResourceTypes resourceTypes, UserSession userSession,
     ComponentFinder componentFinder, QualityGateFinder qualityGateFinder) {
     this.dbClient = dbClient;
@@ -113,7 +153,9 @@ public class ComponentAction implements NavigationWsAction {
   public void define(NewController context) {
     NewAction projectNavigation = context.createAction("component")
       .setDescription("Get information concerning component navigation for the current user. " +
-        "Requires the 'Browse' permission on the component's project.")
+        "Requires the 'Browse' permission on the component's project.<br/>" +
+        "The response has an ETag header. If the request has an If-None-Match header with the same value, " +
+        "the response has the status 304 and no body.")
       .setHandler(this)
       .setInternal(true)
       .setResponseExample(getClass().getResource("component-example.json"))
@@ -132,35 +174,92 @@ public class ComponentAction implements NavigationWsAction {
       if (!(userSession.hasComponentUuidPermission(USER, component.projectUuid()) || userSession.hasComponentUuidPermission(ADMIN, component.projectUuid()))) {
         throw new ForbiddenException("Insufficient privileges");
       }
-      OrganizationDto organizationDto = componentFinder.getOrganization(session, component);
-      Optional<SnapshotDto> analysis = dbClient.snapshotDao().selectLastAnalysisByRootComponentUuid(session, component.projectUuid());
-
-      JsonWriter json = response.newJsonWriter();
-      json.beginObject();
-      writeComponent(json, session, component, organizationDto, analysis.orElse(null));
-      writeProfiles(json, session, component);
-      writeQualityGate(json, session, component);
-      if (userSession.hasComponentUuidPermission(ADMIN, component.projectUuid()) || userSession.hasPermission(QUALITY_PROFILE_ADMIN)) {
-        writeConfiguration(json, component);
+      ResponseContext context = new ResponseContext(
+        component,
+        componentFinder.getOrganization(session, component),
+        dbClient.snapshotDao().selectLastAnalysisByRootComponentUuid(session, component.projectUuid()).orElse(null),
+        isFavourite(session, component),
+        qualityGateFinder.getQualityGate(session, component.getId()).orElse(null),
+        new UserPermissions(userSession, component));
+
+      List<Object> cacheKey = context.toCacheKey();
+      CachedResponse cachedResponse = responseCache.get(cacheKey);
+      if (cachedResponse == null) {
+        cachedResponse = new CachedResponse(writeBody(session, context));
+        responseCache.put(cacheKey, cachedResponse);
       }
-      writeBreadCrumbs(json, session, component);
-      json.endObject().close();
+      writeResponse(request, response, cachedResponse);
+    }
+  }
+
+  private String writeBody(DbSession session, ResponseContext context) {
+    ComponentDto component = context.component;
+    AnalysisData analysisData = getAnalysisData(session, component, context.analysis);
+
+    StringWriter body = new StringWriter();
+    JsonWriter json = JsonWriter.of(body);
+    json.beginObject();
+    writeComponent(json, context);
+    writeProfiles(json, analysisData);
+    writeQualityGate(json, context.qualityGate);
+    if (context.permissions.adminOnProject || context.permissions.qualityProfileAdmin) {
+      writeConfiguration(json, component, context.permissions);
     }
+    writeBreadCrumbs(json, analysisData);
+    json.endObject().close();
+    return body.toString();
+  }
+
+  private static void writeResponse(Request request, Response response, CachedResponse cachedResponse) throws IOException {
+    response.setHeader(HttpHeaders.ETAG, cachedResponse.etag);
+    if (request.header(HttpHeaders.IF_NONE_MATCH).filter(cachedResponse.etag::equals).isPresent()) {
+      response.stream().setStatus(HttpURLConnection.HTTP_NOT_MODIFIED);
+      return;
+    }
+    response.stream().setMediaType(MediaTypes.JSON);
+    try (Writer writer = new OutputStreamWriter(response.stream().output(), StandardCharsets.UTF_8)) {
+      writer.write(cachedResponse.body);
+    }
+  }
+
+  private AnalysisData getAnalysisData(DbSession session, ComponentDto component, @Nullable SnapshotDto analysis) {
+    if (analysis == null) {
+      return loadAnalysisData(session, component);
+    }
+    String cacheKey = component.key() + ':' + analysis.getUuid();
+    AnalysisData analysisData = analysisDataCache.get(cacheKey);
+    if (analysisData == null) {
+      analysisData = loadAnalysisData(session, component);
+      analysisDataCache.put(cacheKey, analysisData);
+    }
+    return analysisData;
+  }
+
+  private AnalysisData loadAnalysisData(DbSession session, ComponentDto component) {
+    List<QualityProfile> qualityProfiles = dbClient.measureDao()
+      .selectSingle(session, MeasureQuery.builder().setComponentUuid(component.projectUuid()).setMetricKey(QUALITY_PROFILES_KEY).build())
+      .map(dbMeasure -> Stream.of(dbMeasure).flatMap(toQualityProfiles()).collect(Collectors.toList()))
+      .orElse(Collections.emptyList());
+    List<ComponentDto> breadcrumbs = new ArrayList<>(dbClient.componentDao().selectAncestors(session, component));
+    breadcrumbs.add(component);
+    return new AnalysisData(qualityProfiles, breadcrumbs);
   }
 
-  private void writeComponent(JsonWriter json, DbSession session, ComponentDto component, OrganizationDto organizationDto, @Nullable SnapshotDto analysis) {
+  private void writeComponent(JsonWriter json, ResponseContext context) {
+    ComponentDto component = context.component;
     json.prop("key", component.key())
-      .prop("organization", organizationDto.getKey())
+      .prop("organization", context.organization.getKey())
       .prop("id", component.uuid())
       .prop("name", component.name())
       .prop("description", component.description())
-      .prop("isFavorite", isFavourite(session, component));
+      .prop("isFavorite", context.isFavourite);
 
+    SnapshotDto analysis = context.analysis;
     if (analysis != null) {
       json.prop("version", analysis.getVersion())
         .prop("snapshotDate", DateUtils.formatDateTime(new Date(analysis.getCreatedAt())));
       List<Page> pages = pageRepository.getComponentPages(false, component.qualifier());
-      writeExtensions(json, component, pages);
+      writeExtensions(json, pages, context.permissions);
     }
   }
 
@@ -174,45 +273,38 @@ public class ComponentAction implements NavigationWsAction {
     return componentFavourites.size() == 1;
   }
 
-  private void writeProfiles(JsonWriter json, DbSession session, ComponentDto component) {
+  private static void writeProfiles(JsonWriter json, AnalysisData analysisData) {
     json.name("qualityProfiles").beginArray();
-    dbClient.measureDao().selectSingle(session, MeasureQuery.builder().setComponentUuid(component.projectUuid()).setMetricKey(QUALITY_PROFILES_KEY).build())
-      .ifPresent(dbMeasure -> Stream.of(dbMeasure)
-        .flatMap(toQualityProfiles())
-        .forEach(writeToJson(json)));
+    analysisData.qualityProfiles.forEach(writeToJson(json));
     json.endArray();
   }
 
-  private void writeQualityGate(JsonWriter json, DbSession session, ComponentDto component) {
-    Optional<QualityGateFinder.QualityGateData> qualityGateData = qualityGateFinder.getQualityGate(session, component.getId());
-    if (!qualityGateData.isPresent()) {
+  private static void writeQualityGate(JsonWriter json, @Nullable QualityGateFinder.QualityGateData qualityGateData) {
+    if (qualityGateData == null) {
       return;
     }
-    QualityGateDto qualityGateDto = qualityGateData.get().getQualityGate();
+    QualityGateDto qualityGateDto = qualityGateData.getQualityGate();
     json.name("qualityGate").beginObject()
       .prop("key", qualityGateDto.getId())
       .prop("name", qualityGateDto.getName())
-      .prop("isDefault", qualityGateData.get().isDefault())
+      .prop("isDefault", qualityGateData.isDefault())
       .endObject();
   }
 
-  private void writeExtensions(JsonWriter json, ComponentDto component, List<Page> pages) {
+  private static void writeExtensions(JsonWriter json, List<Page> pages, UserPermissions permissions) {
     json.name("extensions").beginArray();
-    Predicate<Page> isAuthorized = page -> {
-      String requiredPermission = page.isAdmin() ? UserRole.ADMIN : UserRole.USER;
-      return userSession.hasComponentUuidPermission(requiredPermission, component.uuid());
-    };
+    Predicate<Page> isAuthorized = page -> page.isAdmin() ? permissions.adminOnComponent : permissions.browseOnComponent;
     pages.stream()
       .filter(isAuthorized)
       .forEach(page -> writePage(json, page));
     json.endArray();
   }
 
-  private void writeConfiguration(JsonWriter json, ComponentDto component) {
-    boolean isAdmin = userSession.hasComponentUuidPermission(ADMIN, component.projectUuid());
+  private void writeConfiguration(JsonWriter json, ComponentDto component, UserPermissions permissions) {
+    boolean isAdmin = permissions.adminOnProject;
 
     json.name("configuration").beginObject();
-    writeConfigPageAccess(json, isAdmin, component);
+    writeConfigPageAccess(json, isAdmin, component, permissions);
 
     if (isAdmin) {
       json.name("extensions").beginArray();
@@ -223,7 +315,7 @@ public class ComponentAction implements NavigationWsAction {
     json.endObject();
   }
 
-  private void writeConfigPageAccess(JsonWriter json, boolean isAdmin, ComponentDto component) {
+  private void writeConfigPageAccess(JsonWriter json, boolean isAdmin, ComponentDto component, UserPermissions permissions) {
     boolean isProject = Qualifiers.PROJECT.equals(component.qualifier());
     boolean showManualMeasures = isAdmin && !Qualifiers.DIRECTORY.equals(component.qualifier());
 
@@ -235,7 +327,7 @@ public class ComponentAction implements NavigationWsAction {
     json.prop("showPermissions", isAdmin && componentTypeHasProperty(component, PROPERTY_HAS_ROLE_POLICY));
     json.prop("showHistory", isAdmin && componentTypeHasProperty(component, PROPERTY_MODIFIABLE_HISTORY));
     json.prop("showUpdateKey", isAdmin && componentTypeHasProperty(component, PROPERTY_UPDATABLE_KEY));
-    json.prop("showBackgroundTasks", ActivityAction.isAllowedOnComponentUuid(userSession, component.uuid()));
+    json.prop("showBackgroundTasks", permissions.backgroundTasks);
   }
 
   private boolean componentTypeHasProperty(ComponentDto component, String resourceTypeProperty) {
@@ -243,14 +335,10 @@ public class ComponentAction implements NavigationWsAction {
     return resourceType != null && resourceType.getBooleanProperty(resourceTypeProperty);
   }
 
-  private void writeBreadCrumbs(JsonWriter json, DbSession session, ComponentDto component) {
+  private static void writeBreadCrumbs(JsonWriter json, AnalysisData analysisData) {
     json.name("breadcrumbs").beginArray();
 
-    List<ComponentDto> breadcrumb = Lists.newArrayList();
-    breadcrumb.addAll(dbClient.componentDao().selectAncestors(session, component));
-    breadcrumb.add(component);
-
-    for (ComponentDto c : breadcrumb) {
+    for (ComponentDto c : analysisData.breadcrumbs) {
       json.beginObject()
         .prop("key", c.key())
         .prop("name", c.name())
@@ -260,4 +348,77 @@ public class ComponentAction implements NavigationWsAction {
 
     json.endArray();
   }
+
+  private static class AnalysisData {
+    private final List<QualityProfile> qualityProfiles;
+    private final List<ComponentDto> breadcrumbs;
+
+    private AnalysisData(List<QualityProfile> qualityProfiles, List<ComponentDto> breadcrumbs) {
+      this.qualityProfiles = qualityProfiles;
+      this.breadcrumbs = breadcrumbs;
+    }
+  }
+
+  /**
+   * Permissions of the user which change the response
+   */
+  private static class UserPermissions {
+    private final boolean browseOnComponent;
+    private final boolean adminOnComponent;
+    private final boolean adminOnProject;
+    private final boolean qualityProfileAdmin;
+    private final boolean backgroundTasks;
+
+    private UserPermissions(UserSession userSession, ComponentDto component) {
+      this.browseOnComponent = userSession.hasComponentUuidPermission(USER, component.uuid());
+      this.adminOnComponent = userSession.hasComponentUuidPermission(ADMIN, component.uuid());
+      this.adminOnProject = userSession.hasComponentUuidPermission(ADMIN, component.projectUuid());
+      this.qualityProfileAdmin = userSession.hasPermission(QUALITY_PROFILE_ADMIN);
+      this.backgroundTasks = ActivityAction.isAllowedOnComponentUuid(userSession, component.uuid());
+    }
+  }
+
+  private static class ResponseContext {
+    private final ComponentDto component;
+    private final OrganizationDto organization;
+    @CheckForNull
+    private final SnapshotDto analysis;
+    private final boolean isFavourite;
+    @CheckForNull
+    private final QualityGateFinder.QualityGateData qualityGate;
+    private final UserPermissions permissions;
+
+    private ResponseContext(ComponentDto component, OrganizationDto organization, @Nullable SnapshotDto analysis, boolean isFavourite,
+      @Nullable QualityGateFinder.QualityGateData qualityGate, UserPermissions permissions) {
+      this.component = component;
+      this.organization = organization;
+      this.analysis = analysis;
+      this.isFavourite = isFavourite;
+      this.qualityGate = qualityGate;
+      this.permissions = permissions;
+    }
+
+    private List<Object> toCacheKey() {
+      return Arrays.asList(
+        component.uuid(), component.key(), component.name(), component.description(), component.qualifier(), component.projectUuid(),
+        organization.getKey(),
+        analysis == null ? null : analysis.getUuid(),
+        isFavourite,
+        qualityGate == null ? null : qualityGate.getQualityGate().getId(),
+        qualityGate == null ? null : qualityGate.getQualityGate().getName(),
+        qualityGate != null && qualityGate.isDefault(),
+        permissions.browseOnComponent, permissions.adminOnComponent, permissions.adminOnProject, permissions.qualityProfileAdmin,
+        permissions.backgroundTasks);
+    }
+  }
+
+  private static class CachedResponse {
+    private final String body;
+    private final String etag;
+
+    private CachedResponse(String body) {
+      this.body = body;
+      this.etag = '"' + DigestUtils.sha1Hex(body) + '"';
+    }
+  }
 }
@@ -0,0 +1,133 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.ws;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import javax.annotation.CheckForNull;
+import org.apache.commons.io.IOUtils;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.utils.text.JsonWriter;
+import org.sonar.core.util.ProtobufJsonFormat;
+import org.sonarqube.ws.MediaTypes;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+
+/**
+ * Writes a protobuf message to the response of a web service while the elements of one of its repeated
+ * fields are produced, so that the protobuf messages of these elements don't have to be all kept in memory
+ * before being sent.
+ * <p>
+ * The protobuf output can be parsed as the complete message, as the wire format of a message is the
+ * concatenation of its fields. The JSON output is the same as {@link WsUtils#writeProtobuf(Message, Request, Response)},
+ * except that the streamed field is the last field of the JSON object.
+ * <p>
+ * Errors raised while elements are written can't be reported to the client as a proper error response once
+ * the beginning of the response has been sent. That's why the message is completed only by {@link #finish()}, which
+ * must not be called on errors: a JSON response is then not closed, and the fields of the header of a protobuf
+ * response, which are written after the elements, are missing. In both cases, the client does not mistake a
+ * truncated response for a complete one.
+ *
+ * <pre>
+ *   ProtobufStreamWriter&lt;Issue&gt; writer = ProtobufStreamWriter.start(header, "issues", request, response);
+ *   issues.forEach(writer::write);
+ *   writer.finish();
+ * </pre>
+ */
+public class ProtobufStreamWriter<E extends Message> {
+
+  private final Message header;
+  private final Descriptors.FieldDescriptor field;
+  private final OutputStream output;
+  @CheckForNull
+  private final CodedOutputStream protobufOutput;
+  @CheckForNull
+  private final JsonWriter jsonWriter;
+
+  private ProtobufStreamWriter(Message header, Descriptors.FieldDescriptor field, OutputStream output, @CheckForNull CodedOutputStream protobufOutput,
+    @CheckForNull JsonWriter jsonWriter) {
+    this.header = header;
+    this.field = field;
+    this.output = output;
+    this.protobufOutput = protobufOutput;
+    this.jsonWriter = jsonWriter;
+  }
+
+  /**
+   * Opens the repeated field {@code repeatedFieldName} of {@code header}. In JSON, the other fields of {@code header}
+   * are written first. In protobuf, they are written by {@link #finish()}. The header must not contain any element
+   * of the repeated field.
+   */
+  public static <E extends Message> ProtobufStreamWriter<E> start(Message header, String repeatedFieldName, Request request, Response response) {
+    Descriptors.FieldDescriptor field = header.getDescriptorForType().findFieldByName(repeatedFieldName);
+    checkArgument(field != null && field.isRepeated() && !field.isMapField() && field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE,
+      "Field '%s' is not a repeated message field of %s", repeatedFieldName, header.getDescriptorForType().getFullName());
+    checkArgument(header.getRepeatedFieldCount(field) == 0, "Elements of field '%s' must not be set on the header", repeatedFieldName);
+
+    OutputStream output = response.stream().output();
+    if (request.getMediaType().equals(MediaTypes.PROTOBUF)) {
+      response.stream().setMediaType(MediaTypes.PROTOBUF);
+      return new ProtobufStreamWriter<>(header, field, output, CodedOutputStream.newInstance(output), null);
+    }
+    response.stream().setMediaType(MediaTypes.JSON);
+    JsonWriter jsonWriter = JsonWriter.of(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    ProtobufJsonFormat.beginRepeated(header, repeatedFieldName, jsonWriter);
+    return new ProtobufStreamWriter<>(header, field, output, null, jsonWriter);
+  }
+
+  public ProtobufStreamWriter<E> write(E element) {
+    try {
+      if (protobufOutput != null) {
+        protobufOutput.writeMessage(field.getNumber(), element);
+      } else {
+        ProtobufJsonFormat.writeRepeatedElement(element, jsonWriter);
+      }
+      return this;
+    } catch (IOException e) {
+      throw new IllegalStateException(format("Error while writing element of field '%s'", field.getFullName()), e);
+    }
+  }
+
+  /**
+   * Completes the message and closes the response. Must be called only once all the elements have been written successfully.
+   */
+  public void finish() {
+    try {
+      if (protobufOutput != null) {
+        header.writeTo(protobufOutput);
+        protobufOutput.flush();
+      } else {
+        ProtobufJsonFormat.endRepeated(jsonWriter);
+        jsonWriter.close();
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(format("Error while writing protobuf message %s", header.getDescriptorForType().getFullName()), e);
+    } finally {
+      IOUtils.closeQuietly(output);
+    }
+  }
+}
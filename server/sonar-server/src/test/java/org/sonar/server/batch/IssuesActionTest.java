@@ -21,6 +21,7 @@ package org.sonar.server.batch;
 
 import java.io.ByteArrayInputStream;
 import java.util.Arrays;
+import java.util.Date;
 import javax.annotation.Nullable;
 import org.junit.Before;
 import org.junit.Rule;
@@ -320,6 +321,50 @@ public class IssuesActionTest {
     tester.newGetRequest("batch", "issues").setParam("key", "Other component key").execute();
   }
 
+  @Test
+  public void return_not_modified_when_etag_matches() throws Exception {
+    ComponentDto file = insertProjectAndFile();
+    indexIssues(IssueDocTesting.newDoc("EFGH", file));
+    addBrowsePermissionOnComponent(PROJECT_KEY);
+
+    WsTester.Result result = tester.newGetRequest("batch", "issues").setParam("key", PROJECT_KEY).execute();
+    String etag = result.header("ETag");
+    assertThat(etag).isNotEmpty();
+    assertThat(result.output()).isNotEmpty();
+
+    result = tester.newGetRequest("batch", "issues").setParam("key", PROJECT_KEY).setHeader("If-None-Match", etag).execute();
+
+    result.assertNotModified().assertHeader("ETag", etag);
+    assertThat(result.output()).isEmpty();
+  }
+
+  @Test
+  public void etag_changes_when_issues_are_updated_or_closed() throws Exception {
+    ComponentDto file = insertProjectAndFile();
+    indexIssues(IssueDocTesting.newDoc("EFGH", file), IssueDocTesting.newDoc("IJKL", file));
+    addBrowsePermissionOnComponent(PROJECT_KEY);
+    String etag = tester.newGetRequest("batch", "issues").setParam("key", PROJECT_KEY).execute().header("ETag");
+
+    indexIssues(IssueDocTesting.newDoc("EFGH", file).setAssignee("john").setTechnicalUpdateDate(new Date()));
+    WsTester.Result result = tester.newGetRequest("batch", "issues").setParam("key", PROJECT_KEY).setHeader("If-None-Match", etag).execute();
+    assertThat(result.header("ETag")).isNotEqualTo(etag);
+    assertThat(ServerIssue.parseDelimitedFrom(new ByteArrayInputStream(result.output()))).isNotNull();
+    etag = result.header("ETag");
+
+    indexIssues(IssueDocTesting.newDoc("IJKL", file).setStatus("CLOSED"));
+    result = tester.newGetRequest("batch", "issues").setParam("key", PROJECT_KEY).setHeader("If-None-Match", etag).execute();
+    assertThat(result.header("ETag")).isNotEqualTo(etag);
+    assertThat(result.output()).isNotEmpty();
+  }
+
+  private ComponentDto insertProjectAndFile() {
+    ComponentDto project = ComponentTesting.newProjectDto(db.getDefaultOrganization(), PROJECT_UUID).setKey(PROJECT_KEY);
+    ComponentDto file = ComponentTesting.newFileDto(project, null, FILE_UUID).setKey(FILE_KEY);
+    db.getDbClient().componentDao().insert(db.getSession(), project, file);
+    db.getSession().commit();
+    return file;
+  }
+
   private void indexIssues(IssueDoc... issues) {
     issueIndexer.index(Arrays.asList(issues).iterator());
     for (IssueDoc issue : issues) {
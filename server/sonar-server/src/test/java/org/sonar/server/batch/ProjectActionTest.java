@@ -87,4 +87,22 @@ public class ProjectActionTest {
     WsProjectResponse wsProjectResponse = WsProjectResponse.parseFrom(result.getInputStream());
     assertThat(wsProjectResponse.getFileDataByModuleAndPath()).isEmpty();
   }
+
+  @Test
+  public void pass_known_file_data_version() throws Exception {
+    ProjectRepositories projectRepositories = new ProjectRepositories().setFileDataVersion("ABCD").setFileDataUnchanged(true);
+    ArgumentCaptor<ProjectDataQuery> queryArgumentCaptor = ArgumentCaptor.forClass(ProjectDataQuery.class);
+    when(projectDataLoader.load(queryArgumentCaptor.capture())).thenReturn(projectRepositories);
+
+    TestResponse result = ws.newRequest()
+      .setMediaType(MediaTypes.PROTOBUF)
+      .setParam("key", "org.codehaus.sonar:sonar")
+      .setParam("file_data_version", "ABCD")
+      .execute();
+
+    assertThat(queryArgumentCaptor.getValue().getKnownFileDataVersion()).isEqualTo("ABCD");
+    WsProjectResponse wsProjectResponse = WsProjectResponse.parseFrom(result.getInputStream());
+    assertThat(wsProjectResponse.getFileDataVersion()).isEqualTo("ABCD");
+    assertThat(wsProjectResponse.getFileDataUnchanged()).isTrue();
+  }
 }
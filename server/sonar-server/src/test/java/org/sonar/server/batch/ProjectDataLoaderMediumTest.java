@@ -34,6 +34,8 @@ import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.component.ComponentTesting;
+import org.sonar.db.component.SnapshotDto;
+import org.sonar.db.component.SnapshotTesting;
 import org.sonar.db.organization.OrganizationDto;
 import org.sonar.db.organization.OrganizationTesting;
 import org.sonar.db.property.PropertyDto;
@@ -404,6 +406,33 @@ public class ProjectDataLoaderMediumTest {
       "sonar.coverage.exclusions", "**/*.java"));
   }
 
+  @Test
+  public void return_sub_module_settings_overriding_settings_of_parent_modules_in_order() {
+    OrganizationDto organizationDto = OrganizationTesting.newOrganizationDto();
+    dbClient.organizationDao().insert(dbSession, organizationDto);
+    ComponentDto project = ComponentTesting.newProjectDto(organizationDto);
+    dbClient.componentDao().insert(dbSession, project);
+    addDefaultProfile();
+    ComponentDto module = ComponentTesting.newModuleDto(project);
+    dbClient.componentDao().insert(dbSession, module);
+    ComponentDto subModule = ComponentTesting.newModuleDto(module);
+    dbClient.componentDao().insert(dbSession, subModule);
+    ComponentDto subSubModule = ComponentTesting.newModuleDto(subModule);
+    dbClient.componentDao().insert(dbSession, subSubModule);
+
+    dbClient.propertiesDao().saveProperty(dbSession, new PropertyDto().setKey("sonar.jira.project.key").setValue("PROJECT").setResourceId(project.getId()));
+    dbClient.propertiesDao().saveProperty(dbSession, new PropertyDto().setKey("sonar.jira.project.key").setValue("MODULE").setResourceId(module.getId()));
+    dbClient.propertiesDao().saveProperty(dbSession, new PropertyDto().setKey("sonar.jira.project.key").setValue("SUB_MODULE").setResourceId(subModule.getId()));
+    dbClient.propertiesDao().saveProperty(dbSession, new PropertyDto().setKey("sonar.coverage.exclusions").setValue("**/*.java").setResourceId(module.getId()));
+    userSessionRule.login("john").setGlobalPermissions(SCAN_EXECUTION);
+    dbSession.commit();
+
+    ProjectRepositories ref = underTest.load(ProjectDataQuery.create().setModuleKey(subSubModule.key()));
+    assertThat(ref.settings(subSubModule.key())).isEqualTo(ImmutableMap.of(
+      "sonar.jira.project.key", "SUB_MODULE",
+      "sonar.coverage.exclusions", "**/*.java"));
+  }
+
   @Test
   public void return_sub_module_settings_only_inherited_from_project() {
     OrganizationDto organizationDto = OrganizationTesting.newOrganizationDto();
@@ -602,6 +631,68 @@ public class ProjectDataLoaderMediumTest {
     assertThat(ref.fileData(project.key(), projectFile.path())).isNull();
   }
 
+  @Test
+  public void do_not_return_file_data_when_known_version_is_the_last_analysis() {
+    OrganizationDto organizationDto = OrganizationTesting.newOrganizationDto();
+    dbClient.organizationDao().insert(dbSession, organizationDto);
+    ComponentDto project = ComponentTesting.newProjectDto(organizationDto);
+    userSessionRule.login("john").setGlobalPermissions(SCAN_EXECUTION);
+    dbClient.componentDao().insert(dbSession, project);
+    SnapshotDto analysis = SnapshotTesting.newAnalysis(project);
+    dbClient.snapshotDao().insert(dbSession, analysis);
+    addDefaultProfile();
+
+    ComponentDto file = ComponentTesting.newFileDto(project, null, "file");
+    dbClient.componentDao().insert(dbSession, file);
+    tester.get(FileSourceDao.class).insert(newFileSourceDto(file).setSrcHash("123456"));
+
+    dbSession.commit();
+
+    ProjectRepositories ref = underTest.load(ProjectDataQuery.create().setModuleKey(project.key()));
+    String version = ref.fileDataVersion();
+    assertThat(version).startsWith(analysis.getUuid());
+    assertThat(ref.isFileDataUnchanged()).isFalse();
+    assertThat(ref.fileDataByPath(project.key())).hasSize(1);
+
+    ref = underTest.load(ProjectDataQuery.create().setModuleKey(project.key()).setKnownFileDataVersion("an old analysis"));
+    assertThat(ref.isFileDataUnchanged()).isFalse();
+    assertThat(ref.fileDataByPath(project.key())).hasSize(1);
+
+    ref = underTest.load(ProjectDataQuery.create().setModuleKey(project.key()).setKnownFileDataVersion(version));
+    assertThat(ref.fileDataVersion()).isEqualTo(version);
+    assertThat(ref.isFileDataUnchanged()).isTrue();
+    assertThat(ref.fileDataByModuleAndPath()).isEmpty();
+  }
+
+  @Test
+  public void return_file_data_when_module_keys_are_updated_since_known_version() {
+    OrganizationDto organizationDto = OrganizationTesting.newOrganizationDto();
+    dbClient.organizationDao().insert(dbSession, organizationDto);
+    ComponentDto project = ComponentTesting.newProjectDto(organizationDto).setKey("old-project");
+    userSessionRule.login("john").setGlobalPermissions(SCAN_EXECUTION);
+    dbClient.componentDao().insert(dbSession, project);
+    dbClient.snapshotDao().insert(dbSession, SnapshotTesting.newAnalysis(project));
+    addDefaultProfile();
+
+    ComponentDto module = ComponentTesting.newModuleDto(project).setKey("old-project:module");
+    dbClient.componentDao().insert(dbSession, module);
+    ComponentDto moduleFile = ComponentTesting.newFileDto(module, null, "moduleFile");
+    dbClient.componentDao().insert(dbSession, moduleFile);
+    tester.get(FileSourceDao.class).insert(newFileSourceDto(moduleFile).setSrcHash("789456"));
+    dbSession.commit();
+
+    String version = underTest.load(ProjectDataQuery.create().setModuleKey(project.key())).fileDataVersion();
+
+    // same project with new keys, without new analysis
+    dbClient.componentKeyUpdaterDao().bulkUpdateKey(dbSession, project.uuid(), "old-", "new-");
+    dbSession.commit();
+
+    ProjectRepositories ref = underTest.load(ProjectDataQuery.create().setModuleKey("new-project").setKnownFileDataVersion(version));
+    assertThat(ref.fileDataVersion()).isNotEqualTo(version);
+    assertThat(ref.isFileDataUnchanged()).isFalse();
+    assertThat(ref.fileData("new-project:module", moduleFile.path()).hash()).isEqualTo("789456");
+  }
+
   private void addDefaultProfile() {
     QualityProfileDto profileDto = newQProfileDto(QProfileName.createFor(ServerTester.Xoo.KEY, "SonarQube way"), "abcd").setRulesUpdatedAt(
       formatDateTime(new Date())).setDefault(true);
@@ -22,6 +22,7 @@ package org.sonar.server.component.index;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.IntStream;
 import org.assertj.core.api.AbstractListAssert;
 import org.junit.Before;
@@ -40,7 +41,9 @@ import org.sonar.server.es.EsTester;
 import org.sonar.server.permission.index.PermissionIndexerTester;
 import org.sonar.server.tester.UserSessionRule;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class ComponentIndexTest {
@@ -209,6 +212,40 @@ public class ComponentIndexTest {
     assertSearchResults(new ComponentIndexQuery("struts").setQualifier(Qualifiers.PROJECT), project);
   }
 
+  @Test
+  public void search_by_qualifiers_in_a_single_request() {
+    ComponentDto project = indexProject("struts", "Apache Struts");
+    ComponentDto file1 = indexFile(project, "src/main/java/StrutsManager.java", "StrutsManager.java");
+    ComponentDto file2 = indexFile(project, "src/main/java/StrutsAction.java", "StrutsAction.java");
+    indexProject("other", "Other");
+
+    Map<String, List<String>> result = index.searchByQualifiers(new ComponentIndexQuery("struts"),
+      asList(Qualifiers.VIEW, Qualifiers.FILE, Qualifiers.PROJECT));
+
+    assertThat(result.keySet()).containsExactly(Qualifiers.FILE, Qualifiers.PROJECT);
+    assertThat(result.get(Qualifiers.FILE)).containsOnly(file1.uuid(), file2.uuid());
+    assertThat(result.get(Qualifiers.PROJECT)).containsOnly(project.uuid());
+  }
+
+  @Test
+  public void search_by_qualifiers_limits_the_number_of_results_per_qualifier() {
+    IntStream.rangeClosed(0, 10).forEach(i -> indexProject("sonarqube" + i, "SonarQube" + i));
+
+    Map<String, List<String>> result = index.searchByQualifiers(new ComponentIndexQuery("sonarqube").setLimit(5), singletonList(Qualifiers.PROJECT));
+
+    assertThat(result.get(Qualifiers.PROJECT)).hasSize(5);
+  }
+
+  @Test
+  public void search_by_qualifiers_returns_as_many_results_per_qualifier_as_search_when_no_limit() {
+    IntStream.rangeClosed(0, 10).forEach(i -> indexProject("sonarqube" + i, "SonarQube" + i));
+
+    Map<String, List<String>> result = index.searchByQualifiers(new ComponentIndexQuery("sonarqube"), singletonList(Qualifiers.PROJECT));
+
+    assertThat(result.get(Qualifiers.PROJECT)).hasSize(ComponentIndex.DEFAULT_LIMIT);
+    assertSearch("sonarqube").hasSize(ComponentIndex.DEFAULT_LIMIT);
+  }
+
   @Test
   public void should_order_results_by_score() {
     ComponentDto project1 = indexProject("keyOne", "Struts");
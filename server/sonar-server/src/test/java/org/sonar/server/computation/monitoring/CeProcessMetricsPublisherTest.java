@@ -0,0 +1,92 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.monitoring;
+
+import java.io.File;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.config.Settings;
+import org.sonar.ce.monitoring.CEQueueStatus;
+import org.sonar.process.DefaultProcessCommands;
+import org.sonar.process.ProcessId;
+import org.sonar.process.ProcessMetric;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.sonar.process.ProcessEntryPoint.PROPERTY_PROCESS_INDEX;
+import static org.sonar.process.ProcessEntryPoint.PROPERTY_SHARED_PATH;
+
+public class CeProcessMetricsPublisherTest {
+
+  private static final int PROCESS_INDEX = ProcessId.COMPUTE_ENGINE.getIpcIndex();
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private CEQueueStatus queueStatus = mock(CEQueueStatus.class);
+  private Settings settings = new MapSettings();
+  private CeProcessMetricsPublisher underTest = new CeProcessMetricsPublisher(queueStatus, settings);
+
+  @Test
+  public void publish_pending_and_in_progress_tasks_until_stopped() throws Exception {
+    File sharedDir = temp.newFolder();
+    settings.setProperty(PROPERTY_SHARED_PATH, sharedDir.getAbsolutePath());
+    settings.setProperty(PROPERTY_PROCESS_INDEX, PROCESS_INDEX);
+    when(queueStatus.getPendingCount()).thenReturn(12L);
+    when(queueStatus.getInProgressCount()).thenReturn(2L);
+
+    try (DefaultProcessCommands commands = DefaultProcessCommands.main(sharedDir, PROCESS_INDEX)) {
+      underTest.start();
+      verify(queueStatus, timeout(2_000)).getInProgressCount();
+      underTest.stop();
+
+      // values are reset once the queue is no longer processed
+      assertThat(commands.getMetric(ProcessMetric.CE_PENDING_TASKS)).isEqualTo(0L);
+      assertThat(commands.getMetric(ProcessMetric.CE_IN_PROGRESS_TASKS)).isEqualTo(0L);
+    }
+  }
+
+  @Test
+  public void publish_writes_queue_status() throws Exception {
+    when(queueStatus.getPendingCount()).thenReturn(12L);
+    when(queueStatus.getInProgressCount()).thenReturn(2L);
+
+    try (DefaultProcessCommands commands = DefaultProcessCommands.main(temp.newFolder(), PROCESS_INDEX)) {
+      underTest.publish(commands);
+
+      assertThat(commands.getMetric(ProcessMetric.CE_PENDING_TASKS)).isEqualTo(12L);
+      assertThat(commands.getMetric(ProcessMetric.CE_IN_PROGRESS_TASKS)).isEqualTo(2L);
+    }
+  }
+
+  @Test
+  public void do_nothing_if_not_run_by_the_monitor() {
+    underTest.start();
+    underTest.stop();
+
+    verifyZeroInteractions(queueStatus);
+  }
+}
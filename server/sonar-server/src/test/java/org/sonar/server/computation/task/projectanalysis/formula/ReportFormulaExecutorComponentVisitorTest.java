@@ -24,6 +24,8 @@ import com.google.common.collect.ImmutableList;
 import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
 import org.sonar.server.computation.task.projectanalysis.component.PathAwareCrawler;
 import org.sonar.server.computation.task.projectanalysis.component.ReportComponent;
@@ -79,6 +81,8 @@ public class ReportFormulaExecutorComponentVisitorTest {
         .build())
     .build();
 
+  @Rule
+  public LogTester logTester = new LogTester();
   @Rule
   public TreeRootHolderRule treeRootHolder = new TreeRootHolderRule();
   @Rule
@@ -213,6 +217,28 @@ public class ReportFormulaExecutorComponentVisitorTest {
     assertAddedRawMeasure(DIRECTORY_1_REF, 0);
   }
 
+  @Test
+  public void log_execution_time_of_formulas_in_debug() throws Exception {
+    logTester.setLevel(LoggerLevel.DEBUG);
+    treeRootHolder.setRoot(BALANCED_COMPONENT_TREE);
+
+    new PathAwareCrawler<>(formulaExecutorComponentVisitor(new FakeFormula()))
+      .visit(BALANCED_COMPONENT_TREE);
+
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).contains("  Execution time for each formula:");
+    assertThat(logTester.logs(LoggerLevel.DEBUG).stream().anyMatch(log -> log.startsWith("  - FakeFormula [ncloc] | time="))).isTrue();
+  }
+
+  @Test
+  public void do_not_log_execution_time_of_formulas_by_default() throws Exception {
+    treeRootHolder.setRoot(BALANCED_COMPONENT_TREE);
+
+    new PathAwareCrawler<>(formulaExecutorComponentVisitor(new FakeFormula()))
+      .visit(BALANCED_COMPONENT_TREE);
+
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).isEmpty();
+  }
+
   private FormulaExecutorComponentVisitor formulaExecutorComponentVisitor(Formula formula) {
     return FormulaExecutorComponentVisitor.newBuilder(metricRepository, measureRepository)
       .withVariationSupport(periodsHolder)
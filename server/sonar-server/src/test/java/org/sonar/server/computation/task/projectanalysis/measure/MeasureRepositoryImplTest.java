@@ -99,8 +99,10 @@ public class MeasureRepositoryImplTest {
 
   @Before
   public void setUp() {
+    when(metric1.getId()).thenReturn(METRIC_ID_1);
     when(metric1.getKey()).thenReturn(METRIC_KEY_1);
     when(metric1.getType()).thenReturn(Metric.MetricType.STRING);
+    when(metric2.getId()).thenReturn(METRIC_ID_2);
     when(metric2.getKey()).thenReturn(METRIC_KEY_2);
     when(metric2.getType()).thenReturn(Metric.MetricType.STRING);
 
@@ -155,6 +157,38 @@ public class MeasureRepositoryImplTest {
     assertThat(res).isAbsent();
   }
 
+  @Test
+  public void getBaseMeasure_loads_all_measures_of_component_at_once() {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+    dbClient.measureDao().insert(dbSession, createMeasureDto(METRIC_ID_1, FILE_COMPONENT.getUuid(), LAST_ANALYSIS_UUID));
+    dbSession.commit();
+
+    assertThat(underTest.getBaseMeasure(FILE_COMPONENT, metric1)).isPresent();
+
+    // measures inserted after the first call are not seen, as they are not expected to change during the task
+    dbClient.measureDao().insert(dbSession, createMeasureDto(METRIC_ID_2, FILE_COMPONENT.getUuid(), LAST_ANALYSIS_UUID));
+    dbSession.commit();
+
+    assertThat(underTest.getBaseMeasure(FILE_COMPONENT, metric2)).isAbsent();
+    assertThat(underTest.getBaseMeasure(FILE_COMPONENT, metric1)).isPresent();
+  }
+
+  @Test
+  public void getBaseMeasure_keeps_only_measures_of_last_requested_component() {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+    dbClient.measureDao().insert(dbSession, createMeasureDto(METRIC_ID_1, FILE_COMPONENT.getUuid(), LAST_ANALYSIS_UUID));
+    dbSession.commit();
+
+    assertThat(underTest.getBaseMeasure(FILE_COMPONENT, metric1)).isPresent();
+
+    dbClient.measureDao().insert(dbSession, createMeasureDto(METRIC_ID_2, FILE_COMPONENT.getUuid(), LAST_ANALYSIS_UUID));
+    dbSession.commit();
+
+    // measures of FILE_COMPONENT are dropped when OTHER_COMPONENT is requested, then loaded again
+    assertThat(underTest.getBaseMeasure(OTHER_COMPONENT, metric1)).isAbsent();
+    assertThat(underTest.getBaseMeasure(FILE_COMPONENT, metric2)).isPresent();
+  }
+
   @Test
   public void add_throws_NPE_if_Component_argument_is_null() {
     expectedException.expect(NullPointerException.class);
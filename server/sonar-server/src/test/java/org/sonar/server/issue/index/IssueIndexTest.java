@@ -29,6 +29,8 @@ import java.util.Map;
 import java.util.TimeZone;
 import javax.annotation.Nullable;
 import org.assertj.core.api.Fail;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.index.IndexRequest;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -417,6 +419,43 @@ public class IssueIndexTest {
     assertThat(underTest.search(IssueQuery.builder(userSessionRule).statuses(newArrayList(Issue.STATUS_CONFIRMED)).build(), new SearchOptions()).getDocs()).isEmpty();
   }
 
+  @Test
+  public void facets_are_computed_on_all_issues_matching_the_query_when_hits_are_paginated() {
+    ComponentDto project = ComponentTesting.newProjectDto(newOrganizationDto());
+    ComponentDto file = ComponentTesting.newFileDto(project, null);
+
+    indexIssues(
+      IssueDocTesting.newDoc("ISSUE1", file).setSeverity(Severity.INFO).setStatus(Issue.STATUS_OPEN),
+      IssueDocTesting.newDoc("ISSUE2", file).setSeverity(Severity.INFO).setStatus(Issue.STATUS_OPEN),
+      IssueDocTesting.newDoc("ISSUE3", file).setSeverity(Severity.MAJOR).setStatus(Issue.STATUS_OPEN),
+      IssueDocTesting.newDoc("ISSUE4", file).setSeverity(Severity.MAJOR).setStatus(Issue.STATUS_CLOSED));
+
+    SearchResult<IssueDoc> result = underTest.search(IssueQuery.builder(userSessionRule).statuses(singletonList(Issue.STATUS_OPEN)).build(),
+      new SearchOptions().setPage(2, 1).addFacets(newArrayList("severities", "statuses")));
+
+    // hits come from the paginated request
+    assertThat(result.getDocs()).hasSize(1);
+    assertThat(result.getTotal()).isEqualTo(3);
+    // facets come from the request without hits
+    assertThat(result.getFacets().getNames()).containsOnly("severities", "statuses");
+    assertThat(result.getFacets().get("severities")).containsOnly(entry("INFO", 2L), entry("MAJOR", 1L));
+    // facet on statuses is sticky: it ignores the filter on statuses
+    assertThat(result.getFacets().get("statuses")).containsOnly(entry(Issue.STATUS_OPEN, 3L), entry(Issue.STATUS_CLOSED, 1L));
+  }
+
+  @Test
+  public void search_without_facets() {
+    ComponentDto project = ComponentTesting.newProjectDto(newOrganizationDto());
+    ComponentDto file = ComponentTesting.newFileDto(project, null);
+    indexIssues(IssueDocTesting.newDoc("ISSUE1", file), IssueDocTesting.newDoc("ISSUE2", file));
+
+    SearchResult<IssueDoc> result = underTest.search(IssueQuery.builder(userSessionRule).build(), new SearchOptions());
+
+    assertThat(result.getDocs()).extracting(IssueDoc::key).containsOnly("ISSUE1", "ISSUE2");
+    assertThat(result.getTotal()).isEqualTo(2);
+    assertThat(result.getFacets().getNames()).isEmpty();
+  }
+
   @Test
   public void facets_on_statuses() {
     ComponentDto project = ComponentTesting.newProjectDto(newOrganizationDto());
@@ -1228,6 +1267,36 @@ public class IssueIndexTest {
     assertThat(underTest.search(IssueQuery.builder(userSessionRule).build(), new SearchOptions()).getDocs()).hasSize(1);
   }
 
+  @Test
+  public void authorized_issues_when_user_can_browse_many_projects() {
+    OrganizationDto organizationDto = newOrganizationDto();
+    ComponentDto project1 = ComponentTesting.newProjectDto(organizationDto).setKey("project1");
+    ComponentDto project2 = ComponentTesting.newProjectDto(organizationDto).setKey("project2");
+
+    ComponentDto file1 = ComponentTesting.newFileDto(project1, null).setKey("file1");
+    ComponentDto file2 = ComponentTesting.newFileDto(project2, null).setKey("file2");
+
+    indexIssue(IssueDocTesting.newDoc("ISSUE1", file1), "sonar-users", null);
+    indexIssue(IssueDocTesting.newDoc("ISSUE2", file2), null, null);
+    // too many projects to filter issues on the projects that can be browsed
+    BulkRequestBuilder bulkRequest = tester.client().prepareBulk().setRefresh(true);
+    for (int i = 0; i < 1_000; i++) {
+      String projectUuid = "P" + i;
+      bulkRequest.add(new IndexRequest(IssueIndexDefinition.INDEX, IssueIndexDefinition.TYPE_AUTHORIZATION, projectUuid)
+        .routing(projectUuid)
+        .source(ImmutableMap.of(
+          IssueIndexDefinition.FIELD_AUTHORIZATION_PROJECT_UUID, projectUuid,
+          IssueIndexDefinition.FIELD_AUTHORIZATION_GROUPS, singletonList("sonar-users"),
+          IssueIndexDefinition.FIELD_AUTHORIZATION_UPDATED_AT, new Date())));
+    }
+    bulkRequest.get();
+
+    userSessionRule.login("john").setUserGroups("sonar-users");
+    assertThat(underTest.search(IssueQuery.builder(userSessionRule).build(), new SearchOptions()).getDocs())
+      .extracting(IssueDoc::key)
+      .containsOnly("ISSUE1");
+  }
+
   @Test
   public void search_issues_for_batch_return_needed_fields() {
     ComponentDto project = ComponentTesting.newProjectDto(newOrganizationDto(), "PROJECT");
@@ -61,7 +61,12 @@ import org.sonar.server.permission.ProjectId;
 import org.sonar.server.tester.ServerTester;
 import org.sonar.server.tester.UserSessionRule;
 import org.sonar.server.usergroups.ws.GroupIdOrAnyone;
+import org.sonar.server.ws.TestResponse;
+import org.sonar.server.ws.WsActionTester;
 import org.sonar.server.ws.WsTester;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.Issues.SearchWsResponse;
+import org.sonarqube.ws.MediaTypes;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -624,6 +629,34 @@ public class SearchActionMediumTest {
     result.assertJson(this.getClass(), "paging_with_page_size_to_minus_one.json");
   }
 
+  @Test
+  public void return_header_fields_and_issues_in_protobuf() throws Exception {
+    RuleDto rule = newRule();
+    ComponentDto project = insertComponent(ComponentTesting.newProjectDto(otherOrganization1, "PROJECT_ID").setKey("PROJECT_KEY"));
+    setDefaultProjectPermission(project);
+    ComponentDto file = insertComponent(ComponentTesting.newFileDto(project, null, "FILE_ID").setKey("FILE_KEY"));
+    for (int i = 0; i < 12; i++) {
+      IssueDto issue = IssueTesting.newDto(rule, file, project);
+      tester.get(IssueDao.class).insert(session, issue);
+    }
+    session.commit();
+    tester.get(IssueIndexer.class).indexAll();
+
+    TestResponse response = new WsActionTester(tester.get(SearchAction.class)).newRequest()
+      .setParam(WebService.Param.PAGE, "2")
+      .setParam(WebService.Param.PAGE_SIZE, "9")
+      .setMediaType(MediaTypes.PROTOBUF)
+      .execute();
+
+    SearchWsResponse searchResponse = SearchWsResponse.parseFrom(response.getInputStream());
+    assertThat(searchResponse.getTotal()).isEqualTo(12);
+    assertThat(searchResponse.getPaging().getPageIndex()).isEqualTo(2);
+    assertThat(searchResponse.getPaging().getPageSize()).isEqualTo(9);
+    assertThat(searchResponse.getIssuesCount()).isEqualTo(3);
+    assertThat(searchResponse.getIssuesList()).extracting(Issues.Issue::getComponent).containsOnly("FILE_KEY");
+    assertThat(searchResponse.getComponentsList()).extracting(Issues.Component::getKey).containsOnly("PROJECT_KEY", "FILE_KEY");
+  }
+
   @Test
   public void deprecated_paging() throws Exception {
     RuleDto rule = newRule();
@@ -0,0 +1,124 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.core.util.stream.Collectors;
+import org.sonar.db.DbTester;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.issue.IssueDto;
+import org.sonar.db.rule.RuleDto;
+import org.sonar.server.issue.ActionFinder;
+import org.sonar.server.issue.IssueFieldsSetter;
+import org.sonar.server.issue.TransitionService;
+import org.sonar.server.issue.workflow.FunctionExecutor;
+import org.sonar.server.issue.workflow.IssueWorkflow;
+import org.sonar.server.issue.workflow.Transition;
+import org.sonar.server.tester.UserSessionRule;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.api.issue.Issue.RESOLUTION_FIXED;
+import static org.sonar.api.issue.Issue.STATUS_RESOLVED;
+import static org.sonar.api.web.UserRole.ISSUE_ADMIN;
+import static org.sonar.db.component.ComponentTesting.newFileDto;
+import static org.sonar.db.issue.IssueTesting.newDto;
+import static org.sonar.db.rule.RuleTesting.newRuleDto;
+import static org.sonar.server.issue.ws.SearchAdditionalField.ACTIONS;
+import static org.sonar.server.issue.ws.SearchAdditionalField.TRANSITIONS;
+
+public class SearchResponseLoaderTest {
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  @Rule
+  public UserSessionRule userSession = UserSessionRule.standalone();
+
+  private IssueFieldsSetter updater = new IssueFieldsSetter();
+  private IssueWorkflow workflow = new IssueWorkflow(new FunctionExecutor(updater), updater);
+
+  private SearchResponseLoader underTest = new SearchResponseLoader(userSession, db.getDbClient(), new ActionFinder(userSession), new TransitionService(userSession, workflow));
+
+  @Before
+  public void setUp() throws Exception {
+    workflow.start();
+  }
+
+  @Test
+  public void load_actions_and_transitions_of_each_issue_according_to_its_project_and_state() {
+    RuleDto rule = db.rules().insertRule(newRuleDto());
+    ComponentDto adminProject = db.components().insertProject();
+    ComponentDto adminFile = db.components().insertComponent(newFileDto(adminProject));
+    ComponentDto otherProject = db.components().insertProject();
+    ComponentDto otherFile = db.components().insertComponent(newFileDto(otherProject));
+    IssueDto adminUnassigned = db.issues().insertIssue(newDto(rule, adminFile, adminProject));
+    IssueDto adminAssignedToMe = db.issues().insertIssue(newDto(rule, adminFile, adminProject).setAssignee("john"));
+    IssueDto adminAssignedToOther = db.issues().insertIssue(newDto(rule, adminFile, adminProject).setAssignee("bob"));
+    IssueDto adminResolved = db.issues().insertIssue(newDto(rule, adminFile, adminProject).setStatus(STATUS_RESOLVED).setResolution(RESOLUTION_FIXED));
+    IssueDto otherUnassigned = db.issues().insertIssue(newDto(rule, otherFile, otherProject));
+    IssueDto otherAssignedToMe = db.issues().insertIssue(newDto(rule, otherFile, otherProject).setAssignee("john"));
+    IssueDto otherResolved = db.issues().insertIssue(newDto(rule, otherFile, otherProject).setStatus(STATUS_RESOLVED).setResolution(RESOLUTION_FIXED)
+      .setAssignee("john"));
+    userSession.login("john").addProjectUuidPermissions(ISSUE_ADMIN, adminProject.uuid());
+
+    SearchResponseData result = load(adminUnassigned, adminAssignedToMe, adminAssignedToOther, adminResolved, otherUnassigned, otherAssignedToMe, otherResolved);
+
+    assertThat(result.getActionsForIssueKey(adminUnassigned.getKey())).containsOnly("comment", "assign", "set_tags", "assign_to_me", "set_type", "set_severity");
+    assertThat(result.getActionsForIssueKey(adminAssignedToMe.getKey())).containsOnly("comment", "assign", "set_tags", "set_type", "set_severity");
+    assertThat(result.getActionsForIssueKey(adminAssignedToOther.getKey())).containsOnly("comment", "assign", "set_tags", "assign_to_me", "set_type", "set_severity");
+    assertThat(result.getActionsForIssueKey(adminResolved.getKey())).containsOnly("comment");
+    assertThat(result.getActionsForIssueKey(otherUnassigned.getKey())).containsOnly("comment", "assign", "set_tags", "assign_to_me");
+    assertThat(result.getActionsForIssueKey(otherAssignedToMe.getKey())).containsOnly("comment", "assign", "set_tags");
+    assertThat(result.getActionsForIssueKey(otherResolved.getKey())).containsOnly("comment");
+
+    assertThat(transitionKeys(result, adminUnassigned)).containsOnly("confirm", "resolve", "falsepositive", "wontfix");
+    assertThat(transitionKeys(result, adminAssignedToMe)).containsOnly("confirm", "resolve", "falsepositive", "wontfix");
+    assertThat(transitionKeys(result, adminAssignedToOther)).containsOnly("confirm", "resolve", "falsepositive", "wontfix");
+    assertThat(transitionKeys(result, adminResolved)).containsOnly("reopen");
+    assertThat(transitionKeys(result, otherUnassigned)).containsOnly("confirm", "resolve");
+    assertThat(transitionKeys(result, otherAssignedToMe)).containsOnly("confirm", "resolve");
+    assertThat(transitionKeys(result, otherResolved)).containsOnly("reopen");
+  }
+
+  @Test
+  public void load_no_actions_nor_transitions_when_not_logged_in() {
+    IssueDto issue = db.issues().insertIssue();
+
+    SearchResponseData result = load(issue);
+
+    assertThat(result.getActionsForIssueKey(issue.getKey())).isNull();
+    assertThat(result.getTransitionsForIssueKey(issue.getKey())).isNull();
+  }
+
+  private SearchResponseData load(IssueDto... issues) {
+    List<String> keys = asList(issues).stream().map(IssueDto::getKey).collect(Collectors.toList());
+    return underTest.load(new SearchResponseLoader.Collector(EnumSet.of(ACTIONS, TRANSITIONS), keys), null);
+  }
+
+  private static List<String> transitionKeys(SearchResponseData result, IssueDto issue) {
+    return result.getTransitionsForIssueKey(issue.getKey()).stream().map(Transition::key).collect(Collectors.toList());
+  }
+}
@@ -36,11 +36,14 @@ import org.sonar.api.notifications.NotificationChannel;
 import org.sonar.db.notification.NotificationQueueDao;
 import org.sonar.db.notification.NotificationQueueDto;
 import org.sonar.db.property.PropertiesDao;
+import org.sonar.server.notification.DefaultNotificationManager.QueuedNotification;
 
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -106,6 +109,41 @@ public class DefaultNotificationManagerTest {
     inOrder.verify(notificationQueueDao).delete(dtos);
   }
 
+  @Test
+  public void getFromQueue_by_batch_skips_unreadable_notifications() throws Exception {
+    Notification notification1 = new Notification("test1");
+    Notification notification2 = new Notification("test2");
+    NotificationQueueDto unreadable = mock(NotificationQueueDto.class);
+    when(unreadable.toNotification()).thenThrow(new InvalidClassException("Pouet"));
+    List<NotificationQueueDto> dtos = Arrays.asList(NotificationQueueDto.toNotificationQueueDto(notification1), unreadable,
+      NotificationQueueDto.toNotificationQueueDto(notification2));
+    when(notificationQueueDao.selectOldest(10)).thenReturn(dtos);
+
+    assertThat(manager.getFromQueue(10)).extracting(QueuedNotification::getNotification).containsExactly(notification1, notification2);
+
+    // only unreadable notifications are removed from the queue
+    verify(notificationQueueDao).delete(singletonList(unreadable));
+    verify(notificationQueueDao, never()).delete(dtos);
+  }
+
+  @Test
+  public void removeFromQueue_deletes_notifications_returned_by_getFromQueue() {
+    NotificationQueueDto dto1 = NotificationQueueDto.toNotificationQueueDto(new Notification("test1"));
+    NotificationQueueDto dto2 = NotificationQueueDto.toNotificationQueueDto(new Notification("test2"));
+    when(notificationQueueDao.selectOldest(10)).thenReturn(Arrays.asList(dto1, dto2));
+
+    manager.removeFromQueue(manager.getFromQueue(10));
+
+    verify(notificationQueueDao).delete(Arrays.asList(dto1, dto2));
+  }
+
+  @Test
+  public void getFromQueue_by_batch_returns_empty_list_when_queue_is_empty() {
+    assertThat(manager.getFromQueue(10)).isEmpty();
+
+    verify(notificationQueueDao, never()).delete(any(List.class));
+  }
+
   // SONAR-4739
   @Test
   public void shouldNotFailWhenUnableToDeserialize() throws Exception {
@@ -21,6 +21,7 @@ package org.sonar.server.notification;
 
 import com.google.common.collect.Sets;
 import java.util.Arrays;
+import java.util.Collections;
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -29,17 +30,24 @@ import org.sonar.api.config.MapSettings;
 import org.sonar.api.notifications.Notification;
 import org.sonar.api.notifications.NotificationChannel;
 import org.sonar.db.DbClient;
+import org.sonar.db.notification.NotificationQueueDto;
 import org.sonar.db.property.PropertiesDao;
+import org.sonar.server.notification.DefaultNotificationManager.QueuedNotification;
 
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.same;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -68,7 +76,7 @@ public class NotificationDaemonTest {
     when(commentOnIssueCreatedByMe.getType()).thenReturn("issue-changes");
     when(qualityGateChange.getKey()).thenReturn("QGateChange");
     when(qualityGateChange.getType()).thenReturn("qgate-changes");
-    when(manager.getFromQueue()).thenReturn(notification).thenReturn(null);
+    when(manager.getFromQueue(anyInt())).thenReturn(singletonList(queued(notification))).thenReturn(Collections.emptyList());
 
     Settings settings = new MapSettings().setProperty("sonar.notifications.delay", 1L);
 
@@ -174,7 +182,7 @@ public class NotificationDaemonTest {
   @Test
   public void shouldNotStopWhenException() {
     setUpMocks();
-    when(manager.getFromQueue()).thenThrow(new RuntimeException("Unexpected exception")).thenReturn(notification).thenReturn(null);
+    when(manager.getFromQueue(anyInt())).thenThrow(new RuntimeException("Unexpected exception")).thenReturn(singletonList(queued(notification))).thenReturn(Collections.emptyList());
     doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
     doAnswer(addUser(CREATOR_SIMON, emailChannel)).when(commentOnIssueCreatedByMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
 
@@ -197,6 +205,62 @@ public class NotificationDaemonTest {
     verify(gtalkChannel, never()).deliver(any(Notification.class), anyString());
   }
 
+  @Test
+  public void process_queue_by_batch_of_configured_size() {
+    setUpMocks();
+    QueuedNotification queued1 = queued(notification);
+    QueuedNotification queued2 = queued(mock(Notification.class));
+    when(manager.getFromQueue(anyInt())).thenReturn(Arrays.asList(queued1, queued2)).thenReturn(Collections.emptyList());
+    doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(any(Notification.class), any(NotificationDispatcher.Context.class));
+    underTest = new NotificationDaemon(new MapSettings().setProperty("sonar.notifications.batchSize", 50), manager, service);
+
+    underTest.processQueue();
+
+    verify(manager, times(2)).getFromQueue(50);
+    verify(emailChannel).deliver(queued1.getNotification(), ASSIGNEE_SIMON);
+    verify(emailChannel).deliver(queued2.getNotification(), ASSIGNEE_SIMON);
+    verify(manager).removeFromQueue(Arrays.asList(queued1, queued2));
+  }
+
+  @Test
+  public void remove_from_queue_only_delivered_notifications_when_stopping() {
+    setUpMocks();
+    QueuedNotification queued1 = queued(notification);
+    QueuedNotification queued2 = queued(mock(Notification.class));
+    when(manager.getFromQueue(anyInt())).thenReturn(Arrays.asList(queued1, queued2));
+    // the daemon is stopped while the first notification is delivered
+    doAnswer(invocation -> {
+      underTest.stop();
+      return null;
+    }).when(commentOnIssueAssignedToMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
+
+    underTest.processQueue();
+
+    verify(commentOnIssueAssignedToMe, never()).dispatch(same(queued2.getNotification()), any(NotificationDispatcher.Context.class));
+    verify(manager).removeFromQueue(singletonList(queued1));
+    verify(manager, times(1)).getFromQueue(anyInt());
+  }
+
+  @Test
+  public void remove_notification_from_queue_when_its_delivery_fails() {
+    setUpMocks();
+    QueuedNotification queued1 = queued(notification);
+    QueuedNotification queued2 = queued(mock(Notification.class));
+    when(manager.getFromQueue(anyInt())).thenReturn(Arrays.asList(queued1, queued2));
+    NotificationService failingService = mock(NotificationService.class);
+    doThrow(new IllegalStateException("Delivery failure")).when(failingService).deliver(notification);
+    underTest = new NotificationDaemon(new MapSettings(), manager, failingService);
+
+    try {
+      underTest.processQueue();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("Delivery failure");
+    }
+
+    verify(manager).removeFromQueue(singletonList(queued1));
+  }
+
   @Test
   public void getDispatchers() {
     setUpMocks();
@@ -216,7 +280,7 @@ public class NotificationDaemonTest {
   public void shouldLogEvery10Minutes() {
     setUpMocks();
     // Emulate 2 notifications in DB
-    when(manager.getFromQueue()).thenReturn(notification).thenReturn(notification).thenReturn(null);
+    when(manager.getFromQueue(anyInt())).thenReturn(singletonList(queued(notification))).thenReturn(singletonList(queued(notification))).thenReturn(Collections.emptyList());
     when(manager.count()).thenReturn(1L).thenReturn(0L);
     underTest = spy(underTest);
     // Emulate processing of each notification take 10 min to have a log each time
@@ -243,6 +307,10 @@ public class NotificationDaemonTest {
     assertThat(service.hasProjectSubscribersForTypes("PROJECT_UUID", Sets.newHashSet("issue-changes"))).isTrue();
   }
 
+  private static QueuedNotification queued(Notification notification) {
+    return new QueuedNotification(NotificationQueueDto.toNotificationQueueDto(new Notification("test")), notification);
+  }
+
   private static Answer<Object> addUser(final String user, final NotificationChannel channel) {
     return addUser(user, new NotificationChannel[]{channel});
   }
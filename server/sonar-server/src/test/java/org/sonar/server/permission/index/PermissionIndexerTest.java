@@ -170,6 +170,21 @@ public class PermissionIndexerTest {
     authorizationIndexerTester.verifyProjectDoesNotExist(project3.uuid());
   }
 
+  @Test
+  public void index_projects_listed_many_times_once() throws Exception {
+    GroupDto group = userDbTester.insertGroup();
+    ComponentDto project = componentDbTester.insertProject();
+    userDbTester.insertProjectPermissionOnGroup(group, USER, project);
+    ComponentDto view = componentDbTester.insertView();
+    userDbTester.insertProjectPermissionOnGroup(group, USER, view);
+
+    underTest.index(dbTester.getSession(), asList(project.uuid(), view.uuid(), project.uuid(), view.uuid()));
+
+    authorizationIndexerTester.verifyProjectExistsWithPermission(project.uuid(), asList(group.getName(), ANYONE), emptyList());
+    authorizationIndexerTester.verifyViewExistsWithPermissionInRightIndexes(view.uuid(), asList(group.getName(), ANYONE), emptyList());
+    assertThat(esTester.countDocuments(ComponentIndexDefinition.INDEX_COMPONENTS, ComponentIndexDefinition.TYPE_AUTHORIZATION)).isEqualTo(2);
+  }
+
   @Test
   public void update_existing_permissions() {
     authorizationIndexerTester.indexProjectPermission("ABC", singletonList("dev"), singletonList(10L));
@@ -0,0 +1,124 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import java.io.File;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.config.Settings;
+import org.sonar.process.DefaultProcessCommands;
+import org.sonar.process.ProcessId;
+import org.sonar.process.ProcessMetric;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.sonar.process.ProcessEntryPoint.PROPERTY_SHARED_PATH;
+
+public class ProcessMetricsMonitorTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private File sharedDir;
+  private Settings settings = new MapSettings();
+  private ProcessMetricsMonitor underTest = new ProcessMetricsMonitor(settings);
+
+  @Before
+  public void setUp() throws Exception {
+    sharedDir = temp.newFolder();
+    settings.setProperty(PROPERTY_SHARED_PATH, sharedDir.getAbsolutePath());
+  }
+
+  @Test
+  public void name() {
+    assertThat(underTest.name()).isEqualTo("Processes");
+  }
+
+  @Test
+  public void read_metrics_published_by_processes() {
+    try (DefaultProcessCommands ce = DefaultProcessCommands.main(sharedDir, ProcessId.COMPUTE_ENGINE.getIpcIndex());
+      DefaultProcessCommands es = DefaultProcessCommands.main(sharedDir, ProcessId.ELASTICSEARCH.getIpcIndex())) {
+      ce.setMetric(ProcessMetric.HEAP_USED_BYTES, 25_000_000L);
+      ce.setMetric(ProcessMetric.THREAD_COUNT, 42L);
+      ce.setMetric(ProcessMetric.GC_COUNT, 7L);
+      ce.setMetric(ProcessMetric.CE_PENDING_TASKS, 3L);
+      ce.setMetric(ProcessMetric.CE_IN_PROGRESS_TASKS, 1L);
+      ce.setMetric(ProcessMetric.UPDATED_AT, 1_000L);
+      // not published yet
+      es.setMetric(ProcessMetric.HEAP_USED_BYTES, 10L);
+
+      Map<String, Object> attributes = underTest.attributes();
+
+      assertThat(attributes)
+        .contains(
+          entry("Compute Engine Heap Used", "25 MB"),
+          entry("Compute Engine Threads", 42L),
+          entry("Compute Engine GC Count", 7L),
+          entry("Compute Engine Pending Tasks", 3L),
+          entry("Compute Engine In Progress Tasks", 1L))
+        .containsKeys("Compute Engine Metrics Date", "Compute Engine Heap Max", "Compute Engine Non Heap Used", "Compute Engine GC Time (ms)");
+      // only the Compute Engine section
+      assertThat(attributes).hasSize(9);
+    }
+  }
+
+  @Test
+  public void read_bulk_queue_size_published_by_elasticsearch() {
+    try (DefaultProcessCommands es = DefaultProcessCommands.main(sharedDir, ProcessId.ELASTICSEARCH.getIpcIndex())) {
+      es.setMetric(ProcessMetric.ES_BULK_QUEUE_SIZE, 12L);
+      es.setMetric(ProcessMetric.UPDATED_AT, 1_000L);
+
+      Map<String, Object> attributes = underTest.attributes();
+
+      assertThat(attributes)
+        .contains(entry("Elasticsearch Bulk Queue Size", 12L))
+        .doesNotContainKey("Elasticsearch Pending Tasks")
+        .hasSize(8);
+    }
+  }
+
+  @Test
+  public void ignore_metrics_of_stopped_process() {
+    try (DefaultProcessCommands ce = DefaultProcessCommands.main(sharedDir, ProcessId.COMPUTE_ENGINE.getIpcIndex())) {
+      ce.setMetric(ProcessMetric.CE_PENDING_TASKS, 3L);
+      ce.setMetric(ProcessMetric.UPDATED_AT, 1_000L);
+
+      ce.clearMetrics();
+
+      assertThat(underTest.attributes()).isEmpty();
+    }
+  }
+
+  @Test
+  public void no_attributes_if_no_process_published_metrics() {
+    assertThat(underTest.attributes()).isEmpty();
+  }
+
+  @Test
+  public void no_attributes_if_shared_path_is_not_defined() {
+    settings.removeProperty(PROPERTY_SHARED_PATH);
+
+    assertThat(underTest.attributes()).isEmpty();
+  }
+}
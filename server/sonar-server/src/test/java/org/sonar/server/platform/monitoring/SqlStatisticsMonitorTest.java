@@ -0,0 +1,92 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbTester;
+import org.sonar.db.profiling.SqlStatistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqlStatisticsMonitorTest {
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  private SqlStatisticsMonitor underTest = new SqlStatisticsMonitor(db.getDbClient());
+  private SqlStatistics statistics;
+
+  @Before
+  public void setUp() {
+    statistics = db.getDbClient().getMyBatis().getSqlStatistics();
+    statistics.reset();
+  }
+
+  @Test
+  public void name_is_not_empty() {
+    assertThat(underTest.name()).isNotEmpty();
+  }
+
+  @Test
+  public void attributes_contain_statistics_of_statements() {
+    statistics.record("org.sonar.db.FooMapper.selectFoo", 1_000_000L, 10);
+    statistics.record("org.sonar.db.FooMapper.selectFoo", 3_000_000L, 20);
+
+    Map<String, Object> attributes = underTest.attributes();
+
+    assertThat(attributes.get("Statements")).isEqualTo(1);
+    Map<String, Object> foo = (Map<String, Object>) attributes.get("org.sonar.db.FooMapper.selectFoo");
+    assertThat(foo.get("Calls")).isEqualTo(2L);
+    assertThat(foo.get("Rows")).isEqualTo(30L);
+    assertThat(foo.get("Total (ms)")).isEqualTo(4L);
+    assertThat(foo.get("Max (ms)")).isEqualTo(3L);
+  }
+
+  @Test
+  public void limit_number_of_statements_in_attributes() {
+    for (int i = 0; i < SqlStatisticsMonitor.MAX_STATEMENTS_IN_ATTRIBUTES + 10; i++) {
+      statistics.record("statement" + i, 1_000L, 1);
+    }
+
+    Map<String, Object> attributes = underTest.attributes();
+
+    assertThat(attributes.get("Statements")).isEqualTo(SqlStatisticsMonitor.MAX_STATEMENTS_IN_ATTRIBUTES + 10);
+    assertThat(attributes).hasSize(SqlStatisticsMonitor.MAX_STATEMENTS_IN_ATTRIBUTES + 1);
+  }
+
+  @Test
+  public void jmx_attributes_and_reset() {
+    statistics.record("foo", 1_000L, 1);
+    statistics.record("bar", 1_000L, 1);
+    statistics.record("bar", 1_000L, 1);
+
+    assertThat(underTest.getStatementCount()).isEqualTo(2);
+    assertThat(underTest.getTotalCalls()).isEqualTo(3L);
+    assertThat(underTest.getStatements()).hasSize(2);
+    assertThat(underTest.getStatements()[0]).startsWith("bar: calls=2, rows=2");
+
+    underTest.reset();
+    assertThat(underTest.getStatementCount()).isEqualTo(0);
+  }
+}
@@ -36,6 +36,10 @@ import org.sonar.api.utils.System2;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
+import org.sonar.db.qualityprofile.ActiveRuleDto;
+import org.sonar.db.qualityprofile.ActiveRuleParamDto;
+import org.sonar.db.qualityprofile.QualityProfileDto;
+import org.sonar.db.qualityprofile.QualityProfileTesting;
 import org.sonar.db.rule.RuleDto;
 import org.sonar.db.rule.RuleParamDto;
 import org.sonar.db.rule.RuleRepositoryDto;
@@ -51,6 +55,7 @@ import org.sonar.server.rule.index.RuleQuery;
 import static com.google.common.collect.Sets.newHashSet;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.sonar.api.rule.Severity.BLOCKER;
@@ -190,6 +195,37 @@ public class RegisterRulesTest {
     assertThat(dbClient.ruleRepositoryDao().selectAll(dbTester.getSession())).extracting(RuleRepositoryDto::getKey).containsOnly("fake");
   }
 
+  @Test
+  public void update_remove_and_add_rule_params_and_apply_them_to_active_rules() {
+    execute(new FakeRepositoryV1());
+    DbSession dbSession = dbTester.getSession();
+    RuleDto rule1 = dbClient.ruleDao().selectOrFailByKey(dbSession, RULE_KEY1);
+    List<RuleParamDto> ruleParams = dbClient.ruleDao().selectRuleParamsByRuleKey(dbSession, RULE_KEY1);
+    QualityProfileDto profile = QualityProfileTesting.newQualityProfileDto();
+    dbClient.qualityProfileDao().insert(dbSession, profile);
+    ActiveRuleDto activeRule = dbClient.activeRuleDao().insert(dbSession, ActiveRuleDto.createFor(profile, rule1).setSeverity(BLOCKER));
+    dbClient.activeRuleDao().insertParam(dbSession, activeRule, ActiveRuleParamDto.createFor(getParam(ruleParams, "param1")).setValue("custom1"));
+    dbClient.activeRuleDao().insertParam(dbSession, activeRule, ActiveRuleParamDto.createFor(getParam(ruleParams, "param2")).setValue("custom2"));
+    dbSession.commit();
+
+    when(system.now()).thenReturn(DATE2.getTime());
+    execute(new FakeRepositoryWithChangedParams());
+
+    assertThat(dbClient.ruleDao().selectRuleParamsByRuleKey(dbSession, RULE_KEY1))
+      .extracting(RuleParamDto::getName, RuleParamDto::getDescription, RuleParamDto::getDefaultValue)
+      .containsOnly(
+        tuple("param1", "parameter one v2", "default1 v2"),
+        tuple("param3", "parameter three", "default3"),
+        tuple("param4", "parameter four", null));
+    assertThat(dbClient.ruleDao().selectRuleParamsByRuleKey(dbSession, RULE_KEY2))
+      .extracting(RuleParamDto::getName, RuleParamDto::getDefaultValue)
+      .containsOnly(tuple("param1", "default of two"));
+    // value of param1 is kept, param2 is removed, default value of param3 is applied, param4 has no default value
+    assertThat(dbClient.activeRuleDao().selectParamsByActiveRuleId(dbSession, activeRule.getId()))
+      .extracting(ActiveRuleParamDto::getKey, ActiveRuleParamDto::getValue)
+      .containsOnly(tuple("param1", "custom1"), tuple("param3", "default3"));
+  }
+
   @Test
   public void add_new_tag() {
     execute(new RulesDefinition() {
@@ -480,6 +516,36 @@ public class RegisterRulesTest {
     }
   }
 
+  /**
+   * FakeRepositoryV1 with changes on parameters only
+   */
+  static class FakeRepositoryWithChangedParams implements RulesDefinition {
+    @Override
+    public void define(Context context) {
+      NewRepository repo = context.createRepository("fake", "java");
+      NewRule rule1 = repo.createRule("rule1")
+        .setName("One")
+        .setHtmlDescription("Description of One")
+        .setSeverity(BLOCKER)
+        .setInternalKey("config1")
+        .setTags("tag1", "tag2", "tag3")
+        .setType(RuleType.CODE_SMELL)
+        .setStatus(RuleStatus.BETA)
+        .setGapDescription("squid.S115.effortToFix");
+      rule1.setDebtRemediationFunction(rule1.debtRemediationFunctions().linearWithOffset("5d", "10h"));
+      // param1 is updated, param2 is dropped, param3 and param4 are new
+      rule1.createParam("param1").setDescription("parameter one v2").setDefaultValue("default1 v2");
+      rule1.createParam("param3").setDescription("parameter three").setDefaultValue("default3");
+      rule1.createParam("param4").setDescription("parameter four");
+
+      NewRule rule2 = repo.createRule("rule2")
+        .setName("Two")
+        .setHtmlDescription("Minimal rule");
+      rule2.createParam("param1").setDefaultValue("default of two");
+      repo.done();
+    }
+  }
+
   static class BigRepository implements RulesDefinition {
     static final int SIZE = 500;
 
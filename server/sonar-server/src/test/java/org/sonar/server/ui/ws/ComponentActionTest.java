@@ -56,6 +56,7 @@ import org.sonar.server.qualityprofile.QPMeasureData;
 import org.sonar.server.qualityprofile.QualityProfile;
 import org.sonar.server.tester.UserSessionRule;
 import org.sonar.server.ui.PageRepository;
+import org.sonar.server.ws.TestResponse;
 import org.sonar.server.ws.WsActionTester;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -369,6 +370,61 @@ public class ComponentActionTest {
     assertJson(result).ignoreFields("snapshotDate", "key", "qualityGate.key").isSimilarTo(ws.getDef().responseExampleAsString());
   }
 
+  @Test
+  public void return_not_modified_when_etag_matches() throws Exception {
+    init();
+    componentDbTester.insertComponent(project);
+    userSessionRule.addProjectUuidPermissions(UserRole.USER, project.uuid());
+
+    TestResponse response = ws.newRequest().setParam("componentKey", project.key()).execute();
+    String etag = response.getHeader("ETag");
+    assertThat(etag).isNotEmpty();
+
+    TestResponse notModified = ws.newRequest().setParam("componentKey", project.key()).setHeader("If-None-Match", etag).execute();
+    assertThat(notModified.getStatus()).isEqualTo(304);
+    assertThat(notModified.getInput()).isEmpty();
+
+    UserDto user = userDbTester.insertUser("obiwan");
+    propertyDbTester.insertProperty(new PropertyDto().setKey("favourite").setResourceId(project.getId()).setUserId(user.getId()));
+    userSessionRule.login(user).addProjectUuidPermissions(UserRole.USER, project.uuid());
+    TestResponse modified = ws.newRequest().setParam("componentKey", project.key()).setHeader("If-None-Match", etag).execute();
+    assertThat(modified.getStatus()).isEqualTo(200);
+    assertThat(modified.getHeader("ETag")).isNotEqualTo(etag);
+    assertJson(modified.getInput()).isSimilarTo("{\"isFavorite\": true}");
+  }
+
+  @Test
+  public void reuse_breadcrumbs_and_quality_profiles_of_last_analysis() throws Exception {
+    init();
+    componentDbTester.insertComponent(project);
+    SnapshotDto analysis = componentDbTester.insertSnapshot(newAnalysis(project));
+    addQualityProfiles(project, analysis, createQProfile("qp1", "Sonar Way Java", "java"));
+    userSessionRule.addProjectUuidPermissions(UserRole.USER, project.uuid());
+    execute(project.key());
+
+    // changed without new analysis
+    dbTester.executeUpdateSql("update projects set name=? where uuid=?", "Renamed", project.uuid());
+    assertJson(execute(project.key())).isSimilarTo("{\"breadcrumbs\": [{\"name\": \"Polop\"}]}");
+
+    dbTester.executeUpdateSql("update snapshots set islast=? where uuid=?", false, analysis.getUuid());
+    componentDbTester.insertSnapshot(newAnalysis(project));
+    assertJson(execute(project.key())).isSimilarTo("{\"breadcrumbs\": [{\"name\": \"Renamed\"}]}");
+  }
+
+  @Test
+  public void do_not_reuse_response_of_other_permissions() throws Exception {
+    init();
+    componentDbTester.insertComponent(project);
+    userSessionRule.addProjectUuidPermissions(UserRole.USER, project.uuid());
+    String etag = ws.newRequest().setParam("componentKey", project.key()).execute().getHeader("ETag");
+
+    userSessionRule.addProjectUuidPermissions(UserRole.ADMIN, project.uuid());
+    TestResponse response = ws.newRequest().setParam("componentKey", project.key()).setHeader("If-None-Match", etag).execute();
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertJson(response.getInput()).isSimilarTo("{\"configuration\": {\"showSettings\": false}}");
+  }
+
   private void init(Page... pages) {
     PluginRepository pluginRepository = mock(PluginRepository.class);
     when(pluginRepository.hasPlugin(anyString())).thenReturn(true);
@@ -0,0 +1,126 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.ws;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.MediaTypes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProtobufStreamWriterTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private Issues.SearchWsResponse header = Issues.SearchWsResponse.newBuilder().setTotal(2).setP(1).build();
+
+  @Test
+  public void stream_protobuf_message() throws Exception {
+    TestRequest request = new TestRequest();
+    request.setMediaType(MediaTypes.PROTOBUF);
+    DumbResponse response = new DumbResponse();
+
+    ProtobufStreamWriter<Issues.Issue> writer = ProtobufStreamWriter.start(header, "issues", request, response);
+    writer.write(Issues.Issue.newBuilder().setKey("I1").build());
+    writer.write(Issues.Issue.newBuilder().setKey("I2").build());
+    writer.finish();
+
+    assertThat(response.stream().mediaType()).isEqualTo(MediaTypes.PROTOBUF);
+    Issues.SearchWsResponse result = Issues.SearchWsResponse.parseFrom(response.getFlushedOutput());
+    assertThat(result.getTotal()).isEqualTo(2);
+    assertThat(result.getP()).isEqualTo(1);
+    assertThat(result.getIssuesList()).extracting(Issues.Issue::getKey).containsExactly("I1", "I2");
+  }
+
+  @Test
+  public void stream_json_message() throws Exception {
+    TestRequest request = new TestRequest();
+    DumbResponse response = new DumbResponse();
+
+    ProtobufStreamWriter<Issues.Issue> writer = ProtobufStreamWriter.start(header, "issues", request, response);
+    writer.write(Issues.Issue.newBuilder().setKey("I1").build());
+    writer.write(Issues.Issue.newBuilder().setKey("I2").build());
+    writer.finish();
+
+    assertThat(response.stream().mediaType()).isEqualTo(MediaTypes.JSON);
+    assertThat(response.outputAsString())
+      .startsWith("{")
+      .contains("\"total\":2")
+      .contains("\"issues\":[{\"key\":\"I1\"},{\"key\":\"I2\"}]")
+      .endsWith("}");
+  }
+
+  @Test
+  public void stream_json_message_without_elements() throws Exception {
+    TestRequest request = new TestRequest();
+    DumbResponse response = new DumbResponse();
+
+    ProtobufStreamWriter.start(header, "issues", request, response).finish();
+
+    assertThat(response.outputAsString()).contains("\"issues\":[]");
+  }
+
+  @Test
+  public void do_not_complete_protobuf_message_if_not_finished() throws Exception {
+    TestRequest request = new TestRequest();
+    request.setMediaType(MediaTypes.PROTOBUF);
+    DumbResponse response = new DumbResponse();
+
+    ProtobufStreamWriter<Issues.Issue> writer = ProtobufStreamWriter.start(header, "issues", request, response);
+    writer.write(Issues.Issue.newBuilder().setKey("I1").build());
+
+    // fields of header are written by finish()
+    Issues.SearchWsResponse result = Issues.SearchWsResponse.parseFrom(response.getFlushedOutput());
+    assertThat(result.hasP()).isFalse();
+    assertThat(result.hasTotal()).isFalse();
+  }
+
+  @Test
+  public void do_not_complete_json_message_if_not_finished() throws Exception {
+    TestRequest request = new TestRequest();
+    DumbResponse response = new DumbResponse();
+
+    ProtobufStreamWriter<Issues.Issue> writer = ProtobufStreamWriter.start(header, "issues", request, response);
+    writer.write(Issues.Issue.newBuilder().setKey("I1").build());
+
+    assertThat(response.outputAsString()).doesNotEndWith("}");
+  }
+
+  @Test
+  public void fail_if_field_is_not_repeated() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Field 'total' is not a repeated message field of sonarqube.ws.issues.SearchWsResponse");
+
+    ProtobufStreamWriter.start(header, "total", new TestRequest(), new DumbResponse());
+  }
+
+  @Test
+  public void fail_if_header_contains_elements_of_streamed_field() {
+    Issues.SearchWsResponse headerWithIssues = header.toBuilder().addIssues(Issues.Issue.newBuilder().setKey("I1")).build();
+
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Elements of field 'issues' must not be set on the header");
+
+    ProtobufStreamWriter.start(headerWithIssues, "issues", new TestRequest(), new DumbResponse());
+  }
+}
@@ -27,6 +27,7 @@ import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import org.apache.commons.io.IOUtils;
 import org.sonar.api.server.ws.internal.PartImpl;
 import org.sonar.api.server.ws.internal.ValidatingRequest;
@@ -39,6 +40,7 @@ public class TestRequest extends ValidatingRequest {
   private final ListMultimap<String, String> multiParams = ArrayListMultimap.create();
   private final Map<String, String> params = new HashMap<>();
   private final Map<String, Part> parts = Maps.newHashMap();
+  private final Map<String, String> headers = new HashMap<>();
   private String method = "GET";
   private String mimeType = "application/octet-stream";
   private String path;
@@ -109,6 +111,16 @@ public class TestRequest extends ValidatingRequest {
     return this;
   }
 
+  @Override
+  public Optional<String> header(String name) {
+    return Optional.ofNullable(headers.get(name));
+  }
+
+  public TestRequest setHeader(String name, String value) {
+    headers.put(requireNonNull(name), requireNonNull(value));
+    return this;
+  }
+
   public TestRequest setParam(String key, String value) {
     checkNotNull(key);
     checkNotNull(value);
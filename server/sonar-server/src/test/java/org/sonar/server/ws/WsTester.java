@@ -30,6 +30,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.io.IOUtils;
@@ -61,6 +62,7 @@ public class WsTester {
 
     private Map<String, String> params = Maps.newHashMap();
     private final Map<String, Part> parts = Maps.newHashMap();
+    private final Map<String, String> headers = Maps.newHashMap();
 
     private TestRequest(String method) {
       this.method = method;
@@ -136,6 +138,16 @@ public class WsTester {
       return this;
     }
 
+    @Override
+    public Optional<String> header(String name) {
+      return Optional.ofNullable(headers.get(name));
+    }
+
+    public TestRequest setHeader(String name, String value) {
+      headers.put(name, value);
+      return this;
+    }
+
     public Result execute() throws Exception {
       TestResponse response = new TestResponse();
       verifyRequest(action(), this);
@@ -282,6 +294,11 @@ public class WsTester {
       return this;
     }
 
+    @CheckForNull
+    public String header(String name) {
+      return response.getHeader(name);
+    }
+
     public Result assertHeader(String name, String value) {
       assertThat(response.getHeader(name)).isEqualTo(value);
       return this;
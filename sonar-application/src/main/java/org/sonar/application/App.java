@@ -109,6 +109,7 @@ public class App implements Stoppable {
 
   private static JavaCommand createWebServerCommand(Props props, File homeDir) {
     JavaCommand command = newJavaCommand(ProcessId.WEB_SERVER, props, homeDir)
+      .setDependencies(ProcessId.ELASTICSEARCH)
       .addJavaOptions(ProcessProperties.WEB_ENFORCED_JVM_ARGS)
       .addJavaOptions(props.nonNullValue(ProcessProperties.WEB_JAVA_OPTS))
       .addJavaOptions(props.nonNullValue(ProcessProperties.WEB_JAVA_ADDITIONAL_OPTS))
@@ -128,6 +129,8 @@ public class App implements Stoppable {
 
   private static JavaCommand createCeServerCommand(Props props, File homeDir) {
     JavaCommand command = newJavaCommand(ProcessId.COMPUTE_ENGINE, props, homeDir)
+      // Compute Engine waits by itself for the Web Server to be operational, see WebServerBarrier
+      .setDependencies(ProcessId.ELASTICSEARCH)
       .addJavaOptions(ProcessProperties.CE_ENFORCED_JVM_ARGS)
       .addJavaOptions(props.nonNullValue(ProcessProperties.CE_JAVA_OPTS))
       .addJavaOptions(props.nonNullValue(ProcessProperties.CE_JAVA_ADDITIONAL_OPTS))
@@ -62,6 +62,10 @@ public class AppTest {
     ArgumentCaptor<List<JavaCommand>> argument = newJavaCommandArgumentCaptor();
     verify(monitor).start(argument.capture());
     assertThat(argument.getValue()).extracting("processId").containsExactly(ProcessId.ELASTICSEARCH, ProcessId.WEB_SERVER, ProcessId.COMPUTE_ENGINE);
+    // web server and compute engine are launched in parallel once Elasticsearch is up
+    assertThat(argument.getValue().get(0).getDependencies()).isNull();
+    assertThat(argument.getValue().get(1).getDependencies()).containsOnly(ProcessId.ELASTICSEARCH);
+    assertThat(argument.getValue().get(2).getDependencies()).containsOnly(ProcessId.ELASTICSEARCH);
 
     app.stopAsync();
     verify(monitor).stop();
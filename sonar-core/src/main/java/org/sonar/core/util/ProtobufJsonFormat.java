@@ -24,8 +24,11 @@ import com.google.protobuf.MapEntry;
 import com.google.protobuf.Message;
 import java.io.StringWriter;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.sonar.api.utils.text.JsonWriter;
 
 /**
@@ -132,23 +135,37 @@ public class ProtobufJsonFormat {
   }
 
   static class MessageType {
-    private static final Map<Class<? extends Message>, MessageType> TYPES_BY_CLASS = new HashMap<>();
+    private static final Map<Class<? extends Message>, MessageType> TYPES_BY_CLASS = new ConcurrentHashMap<>();
 
-    private final Descriptors.FieldDescriptor[] fieldDescriptors;
+    private final Field[] fields;
     private final boolean doesWrapRepeated;
 
     private MessageType(Descriptors.Descriptor descriptor) {
-      this.fieldDescriptors = descriptor.getFields().toArray(new Descriptors.FieldDescriptor[descriptor.getFields().size()]);
-      this.doesWrapRepeated = fieldDescriptors.length == 1 && fieldDescriptors[0].isRepeated() && descriptor.getName().equalsIgnoreCase(fieldDescriptors[0].getName());
+      List<Descriptors.FieldDescriptor> fieldDescriptors = descriptor.getFields();
+      this.fields = fieldDescriptors.stream().map(Field::new).toArray(Field[]::new);
+      this.doesWrapRepeated = fields.length == 1 && fields[0].repeated && descriptor.getName().equalsIgnoreCase(fields[0].name);
     }
 
     static MessageType of(Message message) {
-      MessageType type = TYPES_BY_CLASS.get(message.getClass());
-      if (type == null) {
-        type = new MessageType(message.getDescriptorForType());
-        TYPES_BY_CLASS.put(message.getClass(), type);
-      }
-      return type;
+      return TYPES_BY_CLASS.computeIfAbsent(message.getClass(), c -> new MessageType(message.getDescriptorForType()));
+    }
+  }
+
+  /**
+   * Everything that is needed to write a field, computed once per message type instead of once per written message.
+   */
+  private static class Field {
+    private final Descriptors.FieldDescriptor descriptor;
+    private final String name;
+    private final boolean repeated;
+    @CheckForNull
+    private final Descriptors.FieldDescriptor mapValueDescriptor;
+
+    private Field(Descriptors.FieldDescriptor descriptor) {
+      this.descriptor = descriptor;
+      this.name = descriptor.getName();
+      this.repeated = descriptor.isRepeated();
+      this.mapValueDescriptor = descriptor.isMapField() ? descriptor.getMessageType().findFieldByName("value") : null;
     }
   }
 
@@ -159,6 +176,28 @@ public class ProtobufJsonFormat {
     writer.endObject();
   }
 
+  /**
+   * Starts writing {@code header} but leaves its repeated field {@code fieldName} open, so that its
+   * elements can be written one by one with {@link #writeRepeatedElement(Message, JsonWriter)}.
+   * Elements of this field in {@code header} are ignored. The JSON object is closed by
+   * {@link #endRepeated(JsonWriter)}. Unlike {@link #write(Message, JsonWriter)}, the field
+   * is the last one of the JSON object.
+   */
+  public static void beginRepeated(Message header, String fieldName, JsonWriter writer) {
+    writer.setSerializeNulls(false).setSerializeEmptys(true);
+    writer.beginObject();
+    writeMessage(header, writer, fieldName);
+    writer.name(fieldName).beginArray();
+  }
+
+  public static void writeRepeatedElement(Message element, JsonWriter writer) {
+    writeMessageValue(element, writer);
+  }
+
+  public static void endRepeated(JsonWriter writer) {
+    writer.endArray().endObject();
+  }
+
   public static String toJson(Message message) {
     StringWriter json = new StringWriter();
     JsonWriter jsonWriter = JsonWriter.of(json);
@@ -167,23 +206,37 @@ public class ProtobufJsonFormat {
   }
 
   private static void writeMessage(Message message, JsonWriter writer) {
+    writeMessage(message, writer, null);
+  }
+
+  private static void writeMessage(Message message, JsonWriter writer, @Nullable String skippedField) {
     MessageType type = MessageType.of(message);
-    for (Descriptors.FieldDescriptor fieldDescriptor : type.fieldDescriptors) {
-      if (fieldDescriptor.isRepeated()) {
-        writer.name(fieldDescriptor.getName());
-        if (fieldDescriptor.isMapField()) {
-          writeMap((Collection<MapEntry>) message.getField(fieldDescriptor), writer);
-        } else {
-          writeArray(writer, fieldDescriptor, (Collection) message.getField(fieldDescriptor));
-        }
-      } else if (message.hasField(fieldDescriptor)) {
-        writer.name(fieldDescriptor.getName());
-        Object fieldValue = message.getField(fieldDescriptor);
-        writeFieldValue(fieldDescriptor, fieldValue, writer);
+    for (Field field : type.fields) {
+      if (!field.name.equals(skippedField)) {
+        writeField(message, field, writer);
       }
     }
   }
 
+  private static void writeField(Message message, Field field, JsonWriter writer) {
+    if (field.repeated) {
+      writer.name(field.name);
+      writeRepeated(message, field, writer);
+    } else if (message.hasField(field.descriptor)) {
+      writer.name(field.name);
+      Object fieldValue = message.getField(field.descriptor);
+      writeFieldValue(field.descriptor, fieldValue, writer);
+    }
+  }
+
+  private static void writeRepeated(Message message, Field field, JsonWriter writer) {
+    if (field.mapValueDescriptor != null) {
+      writeMap((Collection<MapEntry>) message.getField(field.descriptor), field.mapValueDescriptor, writer);
+    } else {
+      writeArray(writer, field.descriptor, (Collection) message.getField(field.descriptor));
+    }
+  }
+
   private static void writeArray(JsonWriter writer, Descriptors.FieldDescriptor fieldDescriptor, Collection array) {
     writer.beginArray();
     for (Object o : array) {
@@ -192,12 +245,11 @@ public class ProtobufJsonFormat {
     writer.endArray();
   }
 
-  private static void writeMap(Collection<MapEntry> mapEntries, JsonWriter writer) {
+  private static void writeMap(Collection<MapEntry> mapEntries, Descriptors.FieldDescriptor valueDescriptor, JsonWriter writer) {
     writer.beginObject();
     for (MapEntry mapEntry : mapEntries) {
       // Key fields are always double-quoted in json
       writer.name(mapEntry.getKey().toString());
-      Descriptors.FieldDescriptor valueDescriptor = mapEntry.getDescriptorForType().findFieldByName("value");
       writeFieldValue(valueDescriptor, mapEntry.getValue(), writer);
     }
     writer.endObject();
@@ -234,12 +286,7 @@ public class ProtobufJsonFormat {
   private static void writeMessageValue(Message message, JsonWriter writer) {
     MessageType messageType = MessageType.of(message);
     if (messageType.doesWrapRepeated) {
-      Descriptors.FieldDescriptor repeatedDescriptor = messageType.fieldDescriptors[0];
-      if (repeatedDescriptor.isMapField()) {
-        writeMap((Collection<MapEntry>) message.getField(repeatedDescriptor), writer);
-      } else {
-        writeArray(writer, repeatedDescriptor, (Collection) message.getField(repeatedDescriptor));
-      }
+      writeRepeated(message, messageType.fields[0], writer);
     } else {
       writer.beginObject();
       writeMessage(message, writer);
@@ -21,6 +21,7 @@ package org.sonar.db;
 
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
@@ -32,18 +33,34 @@ import org.apache.ibatis.session.SqlSession;
 
 public class BatchSession extends DbSession {
 
+  /**
+   * Number of statements sent in a single JDBC batch by sessions created with {@link #BatchSession(SqlSession)}.
+   * Sessions opened by {@link MyBatis#openSession(boolean)} use {@link Database#getBatchSize()}.
+   */
   public static final int MAX_BATCH_SIZE = 250;
 
   private final int batchSize;
+  private final long maxBatchBytes;
   private int count = 0;
+  private long bytes = 0L;
 
   public BatchSession(SqlSession session) {
     this(session, MAX_BATCH_SIZE);
   }
 
   BatchSession(SqlSession session, int batchSize) {
+    this(session, batchSize, Long.MAX_VALUE);
+  }
+
+  /**
+   * @param batchSize statements are flushed and committed every {@code batchSize} inserts, updates or deletes
+   * @param maxBatchBytes statements are flushed and committed as soon as the estimated size of their parameters
+   *                      reaches {@code maxBatchBytes}, even if {@code batchSize} is not reached
+   */
+  BatchSession(SqlSession session, int batchSize, long maxBatchBytes) {
     super(session);
     this.batchSize = batchSize;
+    this.maxBatchBytes = maxBatchBytes;
   }
 
   @Override
@@ -115,15 +132,17 @@ public class BatchSession extends DbSession {
   @Override
   public int insert(String statement) {
     makeSureGeneratedKeysAreNotUsedInBatchInserts(statement);
-    increment();
-    return super.insert(statement);
+    int result = super.insert(statement);
+    increment(null);
+    return result;
   }
 
   @Override
   public int insert(String statement, Object parameter) {
     makeSureGeneratedKeysAreNotUsedInBatchInserts(statement);
-    increment();
-    return super.insert(statement, parameter);
+    int result = super.insert(statement, parameter);
+    increment(parameter);
+    return result;
   }
 
   private void makeSureGeneratedKeysAreNotUsedInBatchInserts(String statement) {
@@ -141,26 +160,30 @@ public class BatchSession extends DbSession {
 
   @Override
   public int update(String statement) {
-    increment();
-    return super.update(statement);
+    int result = super.update(statement);
+    increment(null);
+    return result;
   }
 
   @Override
   public int update(String statement, Object parameter) {
-    increment();
-    return super.update(statement, parameter);
+    int result = super.update(statement, parameter);
+    increment(parameter);
+    return result;
   }
 
   @Override
   public int delete(String statement) {
-    increment();
-    return super.delete(statement);
+    int result = super.delete(statement);
+    increment(null);
+    return result;
   }
 
   @Override
   public int delete(String statement, Object parameter) {
-    increment();
-    return super.delete(statement, parameter);
+    int result = super.delete(statement, parameter);
+    increment(parameter);
+    return result;
   }
 
   @Override
@@ -199,15 +222,22 @@ public class BatchSession extends DbSession {
     return getConfiguration().getMapper(type, this);
   }
 
-  private BatchSession increment() {
+  /**
+   * Counts a statement once it has been added to the current batch, and commits the batch
+   * as soon as it contains {@code batchSize} statements or {@code maxBatchBytes} bytes of parameters.
+   */
+  private void increment(@Nullable Object parameter) {
     count += 1;
-    if (count >= batchSize) {
+    if (maxBatchBytes != Long.MAX_VALUE) {
+      bytes += ParameterSizeEstimator.estimate(parameter);
+    }
+    if (count >= batchSize || bytes >= maxBatchBytes) {
       commit();
     }
-    return this;
   }
 
   private void reset() {
     count = 0;
+    bytes = 0L;
   }
 }
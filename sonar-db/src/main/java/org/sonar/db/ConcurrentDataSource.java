@@ -0,0 +1,146 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.dbcp.ConnectionFactory;
+import org.apache.commons.dbcp.PoolableConnectionFactory;
+import org.apache.commons.dbcp.PoolingDataSource;
+
+/**
+ * {@link BasicDataSource} backed by {@link ConcurrentObjectPool} instead of the synchronized
+ * GenericObjectPool, and which does not lock the data source on each call to {@link #getConnection()}.
+ * Enabled with sonar.jdbc.pool=concurrent.
+ * <p/>
+ * The connections are created and validated by the factories of commons-dbcp, so the sonar.jdbc.*
+ * settings of the driver, the size of pool, maxWait, validation and defaults of connections are supported.
+ * Statement pooling, removal of abandoned connections and eviction of idle connections are not.
+ */
+class ConcurrentDataSource extends BasicDataSource {
+
+  private volatile ConcurrentObjectPool pool;
+  private volatile DataSource poolingDataSource;
+
+  /**
+   * Copies the settings of the given data source, as created by {@link org.apache.commons.dbcp.BasicDataSourceFactory}
+   */
+  ConcurrentDataSource(BasicDataSource settings) {
+    setDriverClassName(settings.getDriverClassName());
+    setDriverClassLoader(settings.getDriverClassLoader());
+    setUrl(settings.getUrl());
+    setUsername(settings.getUsername());
+    setPassword(settings.getPassword());
+    setMaxActive(settings.getMaxActive());
+    setMaxIdle(settings.getMaxIdle());
+    setMinIdle(settings.getMinIdle());
+    setInitialSize(settings.getInitialSize());
+    setMaxWait(settings.getMaxWait());
+    setValidationQuery(settings.getValidationQuery());
+    setValidationQueryTimeout(settings.getValidationQueryTimeout());
+    setTestOnBorrow(settings.getTestOnBorrow());
+    setTestOnReturn(settings.getTestOnReturn());
+    setDefaultAutoCommit(settings.getDefaultAutoCommit());
+    if (settings.getDefaultReadOnly()) {
+      setDefaultReadOnly(true);
+    }
+    setDefaultTransactionIsolation(settings.getDefaultTransactionIsolation());
+    setDefaultCatalog(settings.getDefaultCatalog());
+    setConnectionInitSqls(settings.getConnectionInitSqls());
+    setAccessToUnderlyingConnectionAllowed(settings.isAccessToUnderlyingConnectionAllowed());
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    DataSource dataSource = poolingDataSource;
+    if (dataSource == null) {
+      dataSource = createDataSource();
+    }
+    return dataSource.getConnection();
+  }
+
+  /**
+   * Called by the methods of {@link BasicDataSource} which need the pool, like {@link #getLogWriter()}
+   */
+  @Override
+  protected synchronized DataSource createDataSource() throws SQLException {
+    if (poolingDataSource != null) {
+      return poolingDataSource;
+    }
+    if (isClosed()) {
+      throw new SQLException("Data source is closed");
+    }
+    ConnectionFactory connectionFactory = createConnectionFactory();
+    ConcurrentObjectPool newPool = new ConcurrentObjectPool(getMaxActive(), getMaxIdle(), getMaxWait(), getTestOnBorrow(), getTestOnReturn());
+    // registers itself as the factory of pool
+    new PoolableConnectionFactory(connectionFactory, newPool, null, getValidationQuery(), getValidationQueryTimeout(), getConnectionInitSqls(),
+      defaultReadOnly, getDefaultAutoCommit(), getDefaultTransactionIsolation(), getDefaultCatalog(), null);
+    PoolingDataSource newDataSource = new PoolingDataSource(newPool);
+    newDataSource.setAccessToUnderlyingConnectionAllowed(isAccessToUnderlyingConnectionAllowed());
+    try {
+      for (int i = 0; i < getInitialSize(); i++) {
+        newPool.addObject();
+      }
+    } catch (Exception e) {
+      throw new SQLException("Error preloading the connection pool", e);
+    }
+    pool = newPool;
+    poolingDataSource = newDataSource;
+    return newDataSource;
+  }
+
+  /**
+   * Not synchronized, contrary to {@link BasicDataSource}, as it's called on each call to
+   * {@link org.sonar.db.profiling.ProfiledDataSource#getConnection()}. The limit is set at startup.
+   */
+  @Override
+  public int getMaxActive() {
+    return maxActive;
+  }
+
+  @Override
+  public int getNumActive() {
+    ConcurrentObjectPool p = pool;
+    return p == null ? 0 : p.getNumActive();
+  }
+
+  @Override
+  public int getNumIdle() {
+    ConcurrentObjectPool p = pool;
+    return p == null ? 0 : p.getNumIdle();
+  }
+
+  @Override
+  public synchronized void close() throws SQLException {
+    super.close();
+    ConcurrentObjectPool p = pool;
+    pool = null;
+    poolingDataSource = null;
+    if (p != null) {
+      try {
+        p.close();
+      } catch (Exception e) {
+        throw new SQLException("Cannot close connection pool", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db;
+
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.pool.BaseObjectPool;
+import org.apache.commons.pool.PoolableObjectFactory;
+
+/**
+ * Object pool of commons-pool without global lock. The number of borrowed objects is bounded
+ * by a non-fair {@link Semaphore} and idle objects are kept in a lock-free deque, so that
+ * concurrent borrowers and returners do not serialize on the pool monitor, as they do
+ * with {@link org.apache.commons.pool.impl.GenericObjectPool}.
+ * <p/>
+ * Idle objects are reused last-in first-out and destroyed when more than {@code maxIdle} are idle.
+ * There is no eviction of idle objects in background.
+ */
+class ConcurrentObjectPool extends BaseObjectPool {
+
+  private final Semaphore permits;
+  private final Deque<Object> idle = new ConcurrentLinkedDeque<>();
+  // size of ConcurrentLinkedDeque is not a constant-time operation
+  private final AtomicInteger numIdle = new AtomicInteger();
+  private final AtomicInteger numActive = new AtomicInteger();
+  private final int maxIdle;
+  private final long maxWaitMillis;
+  private final boolean testOnBorrow;
+  private final boolean testOnReturn;
+  private volatile PoolableObjectFactory factory;
+
+  /**
+   * @param maxActive maximum number of borrowed objects, unlimited if negative or zero
+   * @param maxIdle maximum number of idle objects, unlimited if negative
+   * @param maxWaitMillis maximum time to wait for an object when {@code maxActive} objects are borrowed, unlimited if negative
+   */
+  ConcurrentObjectPool(int maxActive, int maxIdle, long maxWaitMillis, boolean testOnBorrow, boolean testOnReturn) {
+    this.permits = new Semaphore(maxActive > 0 ? maxActive : Integer.MAX_VALUE);
+    this.maxIdle = maxIdle;
+    this.maxWaitMillis = maxWaitMillis;
+    this.testOnBorrow = testOnBorrow;
+    this.testOnReturn = testOnReturn;
+  }
+
+  @Override
+  public void setFactory(PoolableObjectFactory factory) {
+    this.factory = factory;
+  }
+
+  @Override
+  public Object borrowObject() throws Exception {
+    assertOpen();
+    acquirePermit();
+    try {
+      Object obj;
+      while ((obj = pollIdle()) != null) {
+        if (activate(obj)) {
+          numActive.incrementAndGet();
+          return obj;
+        }
+      }
+      obj = factory.makeObject();
+      if (!activate(obj)) {
+        throw new NoSuchElementException("Could not create a validated object");
+      }
+      numActive.incrementAndGet();
+      return obj;
+    } catch (Exception | Error e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void acquirePermit() throws InterruptedException {
+    if (maxWaitMillis < 0) {
+      permits.acquire();
+    } else if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+      // same exception as GenericObjectPool, which is converted to SQLException by PoolingDataSource
+      throw new NoSuchElementException("Timeout waiting for idle object");
+    }
+  }
+
+  private Object pollIdle() {
+    Object obj = idle.pollFirst();
+    if (obj != null) {
+      numIdle.decrementAndGet();
+    }
+    return obj;
+  }
+
+  /**
+   * Activates then validates the object, and destroys it if any of these steps fails
+   */
+  private boolean activate(Object obj) {
+    try {
+      factory.activateObject(obj);
+      if (!testOnBorrow || factory.validateObject(obj)) {
+        return true;
+      }
+    } catch (Exception e) {
+      // destroyed below
+    }
+    destroy(obj);
+    return false;
+  }
+
+  @Override
+  public void returnObject(Object obj) throws Exception {
+    numActive.decrementAndGet();
+    try {
+      if (isClosed() || (testOnReturn && !factory.validateObject(obj))) {
+        destroy(obj);
+        return;
+      }
+      factory.passivateObject(obj);
+      addIdle(obj);
+    } catch (Exception e) {
+      destroy(obj);
+    } finally {
+      permits.release();
+    }
+  }
+
+  @Override
+  public void invalidateObject(Object obj) throws Exception {
+    numActive.decrementAndGet();
+    try {
+      destroy(obj);
+    } finally {
+      permits.release();
+    }
+  }
+
+  @Override
+  public void addObject() throws Exception {
+    assertOpen();
+    Object obj = factory.makeObject();
+    try {
+      factory.passivateObject(obj);
+    } catch (Exception e) {
+      destroy(obj);
+      throw e;
+    }
+    addIdle(obj);
+  }
+
+  private void addIdle(Object obj) {
+    if (maxIdle >= 0 && numIdle.incrementAndGet() > maxIdle) {
+      numIdle.decrementAndGet();
+      destroy(obj);
+      return;
+    }
+    if (maxIdle < 0) {
+      numIdle.incrementAndGet();
+    }
+    idle.offerFirst(obj);
+    if (isClosed()) {
+      // closed concurrently, after the last clear()
+      clear();
+    }
+  }
+
+  private void destroy(Object obj) {
+    try {
+      factory.destroyObject(obj);
+    } catch (Exception e) {
+      // ignored, as in GenericObjectPool
+    }
+  }
+
+  @Override
+  public int getNumIdle() {
+    return numIdle.get();
+  }
+
+  @Override
+  public int getNumActive() {
+    return numActive.get();
+  }
+
+  @Override
+  public void clear() {
+    Object obj;
+    while ((obj = pollIdle()) != null) {
+      destroy(obj);
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    super.close();
+    clear();
+  }
+}
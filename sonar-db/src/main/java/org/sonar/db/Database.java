@@ -38,4 +38,22 @@ public interface Database extends Startable {
   Dialect getDialect();
 
   void enableSqlLogging(boolean enable);
+
+  /**
+   * Maximum number of statements sent in a single JDBC batch by {@link BatchSession}.
+   * Defaults to {@link Dialect#getBatchSize()}.
+   * @since 6.3
+   */
+  default int getBatchSize() {
+    return getDialect().getBatchSize();
+  }
+
+  /**
+   * Maximum estimated size in bytes of the parameters of the statements sent in a single JDBC batch
+   * by {@link BatchSession}. Defaults to {@link Dialect#getBatchMaxBytes()}.
+   * @since 6.3
+   */
+  default long getBatchMaxBytes() {
+    return getDialect().getBatchMaxBytes();
+  }
 }
@@ -23,7 +23,6 @@ import com.google.common.base.Function;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Ordering;
-import com.google.common.collect.Sets;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
@@ -42,6 +41,7 @@ import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.db.dialect.PostgreSql;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static java.lang.String.format;
@@ -153,6 +153,37 @@ public class DatabaseUtils {
     return results;
   }
 
+  /**
+   * Partition by 1000 elements a list of input, execute a function on each part and pass each
+   * returned element to {@code outputConsumer}. Contrary to {@link #executeLargeInputs(Collection, Function)},
+   * results are not accumulated, so that only the results of a single partition are kept in memory
+   * when processing a very large number of inputs.
+   *
+   * The goal is to prevent issue with ORACLE when there's more than 1000 elements in a 'in ('X', 'Y', ...)'
+   * and with MsSQL when there's more than 2000 parameters in a query
+   */
+  public static <OUTPUT, INPUT extends Comparable<INPUT>> void executeLargeInputsIntoConsumer(Collection<INPUT> input,
+    Function<List<INPUT>, ? extends Iterable<OUTPUT>> function, Consumer<OUTPUT> outputConsumer) {
+    if (input.isEmpty()) {
+      return;
+    }
+    for (List<INPUT> partition : toUniqueAndSortedPartitions(input)) {
+      Iterable<OUTPUT> subResults = function.apply(partition);
+      if (subResults != null) {
+        subResults.forEach(outputConsumer);
+      }
+    }
+  }
+
+  /**
+   * Whether all the inputs of a query can be bound as a single array parameter with {@link StringArrayTypeHandler},
+   * so that they are looked up in a single round trip instead of partitions of 1000 elements. This is the case
+   * of PostgreSQL only.
+   */
+  public static boolean supportsArrayBind(DbSession session) {
+    return PostgreSql.ID.equals(session.getConfiguration().getDatabaseId());
+  }
+
   /**
    * Partition by 1000 elements a list of input and execute a consumer on each part.
    *
@@ -202,8 +233,18 @@ public class DatabaseUtils {
       // inputs are unique but order is not enforced
       return Ordering.natural().immutableSortedCopy(inputs);
     }
-    // inputs are not unique and order is not guaranteed
-    return Ordering.natural().immutableSortedCopy(Sets.newHashSet(inputs));
+    // inputs are not unique and order is not guaranteed: sort a single copy then drop adjacent duplicates,
+    // which avoids building an intermediate HashSet of very large inputs
+    List<INPUT> sorted = Ordering.natural().sortedCopy(inputs);
+    int unique = 0;
+    for (int i = 0; i < sorted.size(); i++) {
+      INPUT value = sorted.get(i);
+      if (unique == 0 || value.compareTo(sorted.get(unique - 1)) != 0) {
+        sorted.set(unique, value);
+        unique++;
+      }
+    }
+    return Collections.unmodifiableList(sorted.subList(0, unique));
   }
 
   /**
@@ -42,6 +42,7 @@ import org.sonar.db.profiling.ProfiledConnectionInterceptor;
 import org.sonar.db.profiling.ProfiledDataSource;
 import org.sonar.process.logging.LogbackHelper;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
 
 /**
@@ -55,12 +56,18 @@ public class DefaultDatabase implements Database {
   private static final String SONAR_JDBC = "sonar.jdbc.";
   private static final String SONAR_JDBC_DIALECT = "sonar.jdbc.dialect";
   private static final String SONAR_JDBC_URL = "sonar.jdbc.url";
+  static final String SONAR_JDBC_POOL = "sonar.jdbc.pool";
+  static final String CONCURRENT_POOL = "concurrent";
+  static final String SONAR_JDBC_BATCH_SIZE = "sonar.jdbc.batchSize";
+  static final String SONAR_JDBC_BATCH_MAX_BYTES = "sonar.jdbc.batchMaxBytes";
 
   private final LogbackHelper logbackHelper;
   private final Settings settings;
   private ProfiledDataSource datasource;
   private Dialect dialect;
   private Properties properties;
+  private int batchSize;
+  private long batchMaxBytes;
 
   public DefaultDatabase(LogbackHelper logbackHelper, Settings settings) {
     this.logbackHelper = logbackHelper;
@@ -88,12 +95,33 @@ public class DefaultDatabase implements Database {
 
     dialect = DialectUtils.find(properties.getProperty(SONAR_JDBC_DIALECT), properties.getProperty(SONAR_JDBC_URL));
     properties.setProperty(DatabaseProperties.PROP_DRIVER, dialect.getDefaultDriverClassName());
+    batchSize = (int) Math.min(positiveProperty(SONAR_JDBC_BATCH_SIZE, dialect.getBatchSize()), Integer.MAX_VALUE);
+    batchMaxBytes = positiveProperty(SONAR_JDBC_BATCH_MAX_BYTES, dialect.getBatchMaxBytes());
+  }
+
+  private long positiveProperty(String key, long defaultValue) {
+    String value = properties.getProperty(key);
+    if (StringUtils.isBlank(value)) {
+      return defaultValue;
+    }
+    long result;
+    try {
+      result = Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      result = 0L;
+    }
+    checkArgument(result > 0L, "Property %s must be a positive number: %s", key, value);
+    return result;
   }
 
   private void initDataSource() throws Exception {
     // but it's correctly caught by start()
     LOG.info("Create JDBC data source for {}", properties.getProperty(DatabaseProperties.PROP_URL, DEFAULT_URL));
     BasicDataSource basicDataSource = (BasicDataSource) BasicDataSourceFactory.createDataSource(extractCommonsDbcpProperties(properties));
+    if (CONCURRENT_POOL.equals(properties.getProperty(SONAR_JDBC_POOL))) {
+      LOG.info("Use concurrent JDBC connection pool");
+      basicDataSource = new ConcurrentDataSource(basicDataSource);
+    }
     datasource = new ProfiledDataSource(basicDataSource, NullConnectionInterceptor.INSTANCE);
     datasource.setConnectionInitSqls(dialect.getConnectionInitStatements());
     datasource.setValidationQuery(dialect.getValidationQuery());
@@ -132,6 +160,16 @@ public class DefaultDatabase implements Database {
     return datasource;
   }
 
+  @Override
+  public final int getBatchSize() {
+    return batchSize;
+  }
+
+  @Override
+  public final long getBatchMaxBytes() {
+    return batchMaxBytes;
+  }
+
   public final Properties getProperties() {
     return properties;
   }
@@ -24,6 +24,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import javax.annotation.Nullable;
 import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -79,6 +80,8 @@ import org.sonar.db.permission.template.PermissionTemplateDto;
 import org.sonar.db.permission.template.PermissionTemplateGroupDto;
 import org.sonar.db.permission.template.PermissionTemplateMapper;
 import org.sonar.db.permission.template.PermissionTemplateUserDto;
+import org.sonar.db.profiling.SqlStatistics;
+import org.sonar.db.profiling.SqlStatisticsInterceptor;
 import org.sonar.db.property.InternalPropertiesMapper;
 import org.sonar.db.property.InternalPropertyDto;
 import org.sonar.db.property.PropertiesMapper;
@@ -124,6 +127,7 @@ import org.sonar.db.webhook.WebhookDeliveryMapper;
 public class MyBatis {
 
   private final Database database;
+  private final SqlStatistics sqlStatistics = new SqlStatistics();
   private SqlSessionFactory sessionFactory;
 
   public MyBatis(Database database) {
@@ -248,7 +252,9 @@ public class MyBatis {
     };
     confBuilder.loadMappers(mappers);
 
-    sessionFactory = new SqlSessionFactoryBuilder().build(confBuilder.build());
+    Configuration conf = confBuilder.build();
+    conf.addInterceptor(new SqlStatisticsInterceptor(sqlStatistics));
+    sessionFactory = new SqlSessionFactoryBuilder().build(conf);
     return this;
   }
 
@@ -256,6 +262,13 @@ public class MyBatis {
     return sessionFactory;
   }
 
+  /**
+   * Statistics of executions of mapped statements since startup.
+   */
+  public SqlStatistics getSqlStatistics() {
+    return sqlStatistics;
+  }
+
   /**
    * @deprecated since 4.4. Replaced by <code>openSession(false)</code>.
    */
@@ -270,7 +283,7 @@ public class MyBatis {
   public DbSession openSession(boolean batch) {
     if (batch) {
       SqlSession session = sessionFactory.openSession(ExecutorType.BATCH);
-      return new BatchSession(session);
+      return new BatchSession(session, database.getBatchSize(), database.getBatchMaxBytes());
     }
     SqlSession session = sessionFactory.openSession(ExecutorType.REUSE);
     return new DbSession(session);
@@ -0,0 +1,104 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Cheap estimation of the size in bytes of the parameters of SQL statements, used to limit the size of JDBC batches.
+ * Only strings and byte arrays are actually measured, other values count as a fixed number of bytes. Fields of DTOs are
+ * inspected on a single level.
+ */
+class ParameterSizeEstimator {
+
+  private static final int FIXED_SIZE = 8;
+
+  /**
+   * Instance fields of DTO classes, looked up and made accessible once per class.
+   */
+  private static final ClassValue<Field[]> FIELDS_BY_CLASS = new ClassValue<Field[]>() {
+    @Override
+    protected Field[] computeValue(Class<?> type) {
+      List<Field> fields = new ArrayList<>();
+      for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+            field.setAccessible(true);
+            fields.add(field);
+          }
+        }
+      }
+      return fields.toArray(new Field[fields.size()]);
+    }
+  };
+
+  private ParameterSizeEstimator() {
+    // only static methods
+  }
+
+  static long estimate(@Nullable Object parameter) {
+    if (parameter instanceof Map) {
+      long size = 0L;
+      for (Object value : ((Map<?, ?>) parameter).values()) {
+        size += estimateValue(value);
+      }
+      return size;
+    }
+    if (parameter == null || isSimpleValue(parameter)) {
+      return estimateValue(parameter);
+    }
+    long size = 0L;
+    for (Field field : FIELDS_BY_CLASS.get(parameter.getClass())) {
+      try {
+        size += estimateValue(field.get(parameter));
+      } catch (IllegalAccessException e) {
+        size += FIXED_SIZE;
+      }
+    }
+    return size;
+  }
+
+  private static boolean isSimpleValue(Object value) {
+    return value instanceof CharSequence || value instanceof byte[] || value instanceof Number || value instanceof Boolean
+      || value instanceof Enum || value instanceof java.util.Date || value instanceof Collection;
+  }
+
+  private static long estimateValue(@Nullable Object value) {
+    if (value == null) {
+      return 0L;
+    }
+    if (value instanceof CharSequence) {
+      return 2L * ((CharSequence) value).length();
+    }
+    if (value instanceof byte[]) {
+      return ((byte[]) value).length;
+    }
+    if (value instanceof Collection) {
+      return (long) FIXED_SIZE * ((Collection) value).size();
+    }
+    return FIXED_SIZE;
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * Binds a collection of strings as a single SQL array parameter, for example in
+ * {@code where p.uuid = any(#{uuids,typeHandler=org.sonar.db.StringArrayTypeHandler})}.
+ * Only to be used when {@link DatabaseUtils#supportsArrayBind(DbSession)} is {@code true}.
+ * Reading arrays is not supported.
+ */
+public class StringArrayTypeHandler extends BaseTypeHandler<Collection<String>> {
+
+  static final String SQL_TYPE = "varchar";
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, Collection<String> parameter, JdbcType jdbcType) throws SQLException {
+    ps.setArray(i, ps.getConnection().createArrayOf(SQL_TYPE, parameter.toArray(new String[parameter.size()])));
+  }
+
+  @Override
+  public Collection<String> getNullableResult(ResultSet rs, String columnName) {
+    throw new UnsupportedOperationException("Arrays can only be bound as parameters");
+  }
+
+  @Override
+  public Collection<String> getNullableResult(ResultSet rs, int columnIndex) {
+    throw new UnsupportedOperationException("Arrays can only be bound as parameters");
+  }
+
+  @Override
+  public Collection<String> getNullableResult(CallableStatement cs, int columnIndex) {
+    throw new UnsupportedOperationException("Arrays can only be bound as parameters");
+  }
+}
@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -42,7 +43,9 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Maps.newHashMapWithExpectedSize;
 import static java.util.Collections.emptyList;
 import static org.sonar.db.DatabaseUtils.executeLargeInputs;
+import static org.sonar.db.DatabaseUtils.executeLargeInputsIntoConsumer;
 import static org.sonar.db.DatabaseUtils.executeLargeUpdates;
+import static org.sonar.db.DatabaseUtils.supportsArrayBind;
 
 public class ComponentDao implements Dao {
 
@@ -112,9 +115,26 @@ public class ComponentDao implements Dao {
   }
 
   public List<ComponentDto> selectByUuids(DbSession session, Collection<String> uuids) {
+    if (supportsArrayBind(session)) {
+      return uuids.isEmpty() ? emptyList() : mapper(session).selectByUuids(uuids);
+    }
     return executeLargeInputs(uuids, mapper(session)::selectByUuids);
   }
 
+  /**
+   * Same as {@link #selectByUuids(DbSession, Collection)}, but the components are passed to {@code consumer} instead
+   * of being returned in a list, so that they are not all kept in memory.
+   */
+  public void selectByUuids(DbSession session, Collection<String> uuids, Consumer<ComponentDto> consumer) {
+    if (supportsArrayBind(session)) {
+      if (!uuids.isEmpty()) {
+        mapper(session).scrollByUuids(uuids, context -> consumer.accept((ComponentDto) context.getResultObject()));
+      }
+      return;
+    }
+    executeLargeInputsIntoConsumer(uuids, mapper(session)::selectByUuids, consumer);
+  }
+
   public List<String> selectExistingUuids(DbSession session, Collection<String> uuids) {
     return executeLargeInputs(uuids, mapper(session)::selectExistingUuids);
   }
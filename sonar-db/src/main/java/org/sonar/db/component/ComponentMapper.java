@@ -50,6 +50,8 @@ public interface ComponentMapper {
 
   List<ComponentDto> selectByUuids(@Param("uuids") Collection<String> uuids);
 
+  void scrollByUuids(@Param("uuids") Collection<String> uuids, ResultHandler handler);
+
   List<ComponentDto> selectByProjectUuid(@Param("projectUuid") String projectUuid);
 
   List<String> selectExistingUuids(@Param("uuids") Collection<String> uuids);
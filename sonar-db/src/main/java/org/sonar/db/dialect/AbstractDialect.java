@@ -26,6 +26,9 @@ import java.util.List;
  * @since 3.2
  */
 abstract class AbstractDialect implements Dialect {
+  private static final int DEFAULT_BATCH_SIZE = 250;
+  private static final long DEFAULT_BATCH_MAX_BYTES = 4L * 1024 * 1024;
+
   private final String id;
   private final String activeRecordDialectCode;
   private final String defaultDriverClassName;
@@ -87,4 +90,14 @@ abstract class AbstractDialect implements Dialect {
   public int getScrollSingleRowFetchSize() {
     return 1;
   }
+
+  @Override
+  public int getBatchSize() {
+    return DEFAULT_BATCH_SIZE;
+  }
+
+  @Override
+  public long getBatchMaxBytes() {
+    return DEFAULT_BATCH_MAX_BYTES;
+  }
 }
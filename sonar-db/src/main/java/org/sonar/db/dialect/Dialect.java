@@ -83,6 +83,21 @@ public interface Dialect {
    */
   int getScrollSingleRowFetchSize();
 
+  /**
+   * Maximum number of statements sent in a single JDBC batch by {@link org.sonar.db.BatchSession}.
+   *
+   * @since 6.3
+   */
+  int getBatchSize();
+
+  /**
+   * Maximum estimated size in bytes of the parameters of the statements sent in a single JDBC batch
+   * by {@link org.sonar.db.BatchSession}, so that batches of wide rows are flushed before reaching {@link #getBatchSize()}.
+   *
+   * @since 6.3
+   */
+  long getBatchMaxBytes();
+
   /**
    * Indicates whether DB migration can be perform on the DB vendor implementation associated with the current dialect.
    *
@@ -22,10 +22,12 @@ package org.sonar.db.issue;
 import com.google.common.base.Function;
 import com.google.common.base.Predicates;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.sonar.db.Dao;
@@ -34,6 +36,8 @@ import org.sonar.db.RowNotFoundException;
 
 import static com.google.common.collect.FluentIterable.from;
 import static org.sonar.db.DatabaseUtils.executeLargeInputs;
+import static org.sonar.db.DatabaseUtils.executeLargeInputsIntoConsumer;
+import static org.sonar.db.DatabaseUtils.supportsArrayBind;
 
 public class IssueDao implements Dao {
 
@@ -56,9 +60,26 @@ public class IssueDao implements Dao {
    * <p>Results may be in a different order as input keys (see {@link #selectByOrderedKeys(DbSession, List)}).</p>
    */
   public List<IssueDto> selectByKeys(final DbSession session, List<String> keys) {
+    if (supportsArrayBind(session)) {
+      return keys.isEmpty() ? Collections.emptyList() : mapper(session).selectByKeys(keys);
+    }
     return executeLargeInputs(keys, mapper(session)::selectByKeys);
   }
 
+  /**
+   * Same as {@link #selectByKeys(DbSession, List)}, but the issues are passed to {@code consumer} instead
+   * of being returned in a list, so that they are not all kept in memory.
+   */
+  public void selectByKeys(DbSession session, Collection<String> keys, Consumer<IssueDto> consumer) {
+    if (supportsArrayBind(session)) {
+      if (!keys.isEmpty()) {
+        mapper(session).scrollByKeys(keys, context -> consumer.accept((IssueDto) context.getResultObject()));
+      }
+      return;
+    }
+    executeLargeInputsIntoConsumer(keys, mapper(session)::selectByKeys, consumer);
+  }
+
   /**
    * Gets a list issues by their keys. The result does NOT contain {@code null} values for issues not found, so
    * the size of result may be less than the number of keys. A single issue is returned
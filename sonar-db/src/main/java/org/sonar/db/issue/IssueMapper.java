@@ -19,6 +19,7 @@
  */
 package org.sonar.db.issue;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import org.apache.ibatis.annotations.Param;
@@ -32,7 +33,9 @@ public interface IssueMapper {
 
   Set<String> selectComponentUuidsOfOpenIssuesForProjectUuid(String projectUuid);
 
-  List<IssueDto> selectByKeys(List<String> keys);
+  List<IssueDto> selectByKeys(@Param("keys") Collection<String> keys);
+
+  void scrollByKeys(@Param("keys") Collection<String> keys, ResultHandler resultHandler);
 
   void insert(IssueDto issue);
 
@@ -111,13 +111,17 @@ public class MeasureDao implements Dao {
     return mapper(dbSession).selectTreeByQuery(query, baseComponent.uuid(), query.getUuidPath(baseComponent));
   }
 
-  public List<PastMeasureDto> selectPastMeasures(DbSession dbSession,
-    String componentUuid,
-    String analysisUuid,
-    Collection<Integer> metricIds) {
-    return executeLargeInputs(
+  /**
+   * Loads in a single pass the past measures of the projects, modules, directories and views of an analysis.
+   * Measures of files are excluded.
+   */
+  public void selectPastMeasures(DbSession dbSession, String analysisUuid, Collection<Integer> metricIds, ResultHandler resultHandler) {
+    executeLargeInputsWithoutOutput(
       metricIds,
-      ids -> mapper(dbSession).selectPastMeasures(componentUuid, analysisUuid, ids));
+      ids -> {
+        mapper(dbSession).selectPastMeasuresOfAnalysis(analysisUuid, ids, resultHandler);
+        return null;
+      });
   }
 
   /**
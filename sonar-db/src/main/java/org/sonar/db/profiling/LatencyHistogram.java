@@ -0,0 +1,89 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.profiling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Lock-free histogram of durations. Buckets bounds are powers of two of microseconds,
+ * so percentiles are approximated by the upper bound of their bucket.
+ */
+public class LatencyHistogram {
+
+  // bucket i contains durations in [2^(i-1), 2^i[ microseconds, the last one contains all the longer durations
+  private static final int BUCKETS = 40;
+
+  private final AtomicLong maxNanos = new AtomicLong();
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+  public void record(long durationNanos) {
+    record(durationNanos, 1L);
+  }
+
+  /**
+   * Records {@code count} durations of the same value
+   */
+  public void record(long durationNanos, long count) {
+    maxNanos.accumulateAndGet(durationNanos, Math::max);
+    buckets.addAndGet(bucket(durationNanos), count);
+  }
+
+  private static int bucket(long durationNanos) {
+    long micros = TimeUnit.NANOSECONDS.toMicros(durationNanos);
+    int bucket = 64 - Long.numberOfLeadingZeros(micros);
+    return Math.min(bucket, BUCKETS - 1);
+  }
+
+  public long getMaxMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+  }
+
+  /**
+   * Approximation of the given percentile of durations, in milliseconds. Zero if nothing has been recorded.
+   *
+   * @param percentile a number in ]0, 100]
+   */
+  public double getPercentileMillis(double percentile) {
+    checkArgument(percentile > 0 && percentile <= 100, "Percentile must be in ]0, 100]: %s", percentile);
+    long[] counts = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets.get(i);
+      total += counts[i];
+    }
+    if (total == 0) {
+      return 0.0;
+    }
+    long rank = (long) Math.ceil(percentile * total / 100.0);
+    double max = maxNanos.get() / 1_000_000.0;
+    long cumulated = 0;
+    for (int i = 0; i < BUCKETS - 1; i++) {
+      cumulated += counts[i];
+      if (cumulated >= rank) {
+        return Math.min((1L << i) / 1000.0, max);
+      }
+    }
+    return max;
+  }
+}
@@ -24,15 +24,21 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 
+import static java.lang.String.format;
+
 public class ProfiledDataSource extends BasicDataSource {
 
   static final Logger SQL_LOGGER = Loggers.get("sql");
 
   private final BasicDataSource delegate;
+  private final AtomicInteger waitingConnections = new AtomicInteger();
+  private final LatencyHistogram connectionWaitTimes = new LatencyHistogram();
   private ConnectionInterceptor connectionInterceptor;
 
   public ProfiledDataSource(BasicDataSource delegate, ConnectionInterceptor connectionInterceptor) {
@@ -320,7 +326,53 @@ public class ProfiledDataSource extends BasicDataSource {
 
   @Override
   public Connection getConnection() throws SQLException {
-    return connectionInterceptor.getConnection(delegate);
+    // only callers finding all the connections in use have to wait for one to be returned
+    int maxActive = delegate.getMaxActive();
+    boolean waiting = maxActive > 0 && delegate.getNumActive() >= maxActive;
+    if (waiting) {
+      waitingConnections.incrementAndGet();
+    }
+    long start = System.nanoTime();
+    try {
+      return connectionInterceptor.getConnection(delegate);
+    } catch (SQLException e) {
+      if (isPoolExhausted(e)) {
+        throw new SQLException(format("Fail to get a connection from pool within %d ms: %d connections are active and %d threads are waiting. " +
+          "Consider increasing sonar.jdbc.maxActive or sonar.jdbc.maxWait", delegate.getMaxWait(), delegate.getNumActive(), waitingConnections.get()), e);
+      }
+      throw e;
+    } finally {
+      connectionWaitTimes.record(System.nanoTime() - start);
+      if (waiting) {
+        waitingConnections.decrementAndGet();
+      }
+    }
+  }
+
+  private static boolean isPoolExhausted(SQLException e) {
+    // commons-pool throws NoSuchElementException when no connection is available within maxWait
+    for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof NoSuchElementException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Number of threads currently blocked until a connection is returned to the pool, because all
+   * the {@link #getMaxActive()} connections were in use when they asked for one
+   */
+  public int getNumPending() {
+    return waitingConnections.get();
+  }
+
+  /**
+   * Time spent by callers of {@link #getConnection()} to get a connection from pool, including the creation
+   * of new connections
+   */
+  public LatencyHistogram getConnectionWaitTimes() {
+    return connectionWaitTimes;
   }
 
   @Override
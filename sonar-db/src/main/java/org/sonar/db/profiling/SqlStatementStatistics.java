@@ -0,0 +1,79 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.profiling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated executions of a MyBatis mapped statement. Updates are lock-free.
+ */
+public class SqlStatementStatistics {
+
+  private final String id;
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder rows = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LatencyHistogram latencies = new LatencyHistogram();
+
+  SqlStatementStatistics(String id) {
+    this.id = id;
+  }
+
+  void record(long durationNanos, long rowCount, int executions) {
+    calls.add(executions);
+    rows.add(Math.max(0L, rowCount));
+    totalNanos.add(durationNanos);
+    latencies.record(durationNanos / executions, executions);
+  }
+
+  /**
+   * The mapped statement id, for example "org.sonar.db.component.ComponentMapper.selectByKey"
+   */
+  public String getId() {
+    return id;
+  }
+
+  public long getCalls() {
+    return calls.sum();
+  }
+
+  /**
+   * Number of rows returned by selects, including the ones streamed to a ResultHandler, and affected by updates.
+   */
+  public long getRows() {
+    return rows.sum();
+  }
+
+  public long getTotalMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+  }
+
+  public long getMaxMillis() {
+    return latencies.getMaxMillis();
+  }
+
+  /**
+   * @see LatencyHistogram#getPercentileMillis(double)
+   */
+  public double getPercentileMillis(double percentile) {
+    return latencies.getPercentileMillis(percentile);
+  }
+}
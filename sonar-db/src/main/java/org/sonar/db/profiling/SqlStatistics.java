@@ -0,0 +1,66 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.profiling;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Always-on statistics of the executions of MyBatis mapped statements, as recorded
+ * by {@link SqlStatisticsInterceptor}. Contrary to the "sql" logger, only aggregates are kept,
+ * so the overhead is low enough to be enabled in production.
+ */
+public class SqlStatistics {
+
+  private final ConcurrentMap<String, SqlStatementStatistics> byStatementId = new ConcurrentHashMap<>();
+
+  public void record(String statementId, long durationNanos, long rowCount) {
+    record(statementId, durationNanos, rowCount, 1);
+  }
+
+  /**
+   * Records executions sent in a single JDBC batch. JDBC does not time them individually, so
+   * they are considered to share equally the duration of the batch.
+   */
+  public void record(String statementId, long durationNanos, long rowCount, int executions) {
+    SqlStatementStatistics statistics = byStatementId.get(statementId);
+    if (statistics == null) {
+      statistics = byStatementId.computeIfAbsent(statementId, SqlStatementStatistics::new);
+    }
+    statistics.record(durationNanos, rowCount, executions);
+  }
+
+  /**
+   * Statistics of all the executed statements, sorted by decreasing total time.
+   */
+  public List<SqlStatementStatistics> getAll() {
+    List<SqlStatementStatistics> result = new ArrayList<>(byStatementId.values());
+    result.sort(Comparator.comparing(SqlStatementStatistics::getTotalMillis).reversed()
+      .thenComparing(SqlStatementStatistics::getId));
+    return result;
+  }
+
+  public void reset() {
+    byStatementId.clear();
+  }
+}
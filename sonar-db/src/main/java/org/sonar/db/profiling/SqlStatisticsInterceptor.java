@@ -0,0 +1,211 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.profiling;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.IntStream;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * MyBatis plugin recording the duration and the number of rows of each execution of mapped statements
+ * into {@link SqlStatistics}.
+ * <p/>
+ * With the BATCH executor, updates are only queued and are executed when statements are flushed, which
+ * is done on commit and before selects. Pending updates are therefore flushed explicitly at that time,
+ * so that the duration of the flush is recorded for the batched statements rather than for the
+ * commit or the select.
+ * <p/>
+ * Time spent by the ResultHandler of a select is not part of the recorded duration, as it's the processing
+ * of rows by the caller, not the execution of the statement.
+ */
+@Intercepts({
+  @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+  @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+  @Signature(type = Executor.class, method = "flushStatements", args = {}),
+  @Signature(type = Executor.class, method = "commit", args = {boolean.class}),
+  @Signature(type = Executor.class, method = "rollback", args = {boolean.class})
+})
+public class SqlStatisticsInterceptor implements Interceptor {
+
+  private final SqlStatistics statistics;
+
+  // state of the wrapped executor, which like its session is not shared between threads
+  private boolean pendingBatch = false;
+
+  public SqlStatisticsInterceptor(SqlStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    Executor executor = (Executor) invocation.getTarget();
+    switch (invocation.getMethod().getName()) {
+      case "update":
+        return update(invocation);
+      case "query":
+        flushPendingBatch(executor);
+        return query(invocation);
+      case "flushStatements":
+        return flush(invocation);
+      case "commit":
+        flushPendingBatch(executor);
+        return invocation.proceed();
+      case "rollback":
+        // pending updates are discarded
+        pendingBatch = false;
+        return invocation.proceed();
+      default:
+        return invocation.proceed();
+    }
+  }
+
+  private Object update(Invocation invocation) throws Throwable {
+    MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+    long start = System.nanoTime();
+    Object result = invocation.proceed();
+    if (Integer.valueOf(BatchExecutor.BATCH_UPDATE_RETURN_VALUE).equals(result)) {
+      // recorded when flushed
+      pendingBatch = true;
+    } else {
+      statistics.record(statement.getId(), System.nanoTime() - start, countRows(result));
+    }
+    return result;
+  }
+
+  private Object query(Invocation invocation) throws Throwable {
+    MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+    ResultHandler resultHandler = (ResultHandler) invocation.getArgs()[3];
+    TimedResultHandler timedHandler = null;
+    if (resultHandler != null) {
+      timedHandler = new TimedResultHandler(resultHandler);
+      invocation.getArgs()[3] = timedHandler;
+    }
+    long start = System.nanoTime();
+    Object result = null;
+    try {
+      result = invocation.proceed();
+      return result;
+    } finally {
+      long duration = System.nanoTime() - start;
+      if (timedHandler == null) {
+        statistics.record(statement.getId(), duration, countRows(result));
+      } else {
+        statistics.record(statement.getId(), Math.max(0L, duration - timedHandler.nanos), timedHandler.rows);
+      }
+    }
+  }
+
+  private Object flush(Invocation invocation) throws Throwable {
+    long start = System.nanoTime();
+    try {
+      List<BatchResult> results = (List<BatchResult>) invocation.proceed();
+      recordBatch(results, System.nanoTime() - start);
+      return results;
+    } finally {
+      pendingBatch = false;
+    }
+  }
+
+  private void flushPendingBatch(Executor executor) throws SQLException {
+    if (pendingBatch) {
+      long start = System.nanoTime();
+      try {
+        List<BatchResult> results = executor.flushStatements();
+        recordBatch(results, System.nanoTime() - start);
+      } finally {
+        pendingBatch = false;
+      }
+    }
+  }
+
+  private void recordBatch(List<BatchResult> results, long durationNanos) {
+    int executions = results.stream().mapToInt(result -> result.getParameterObjects().size()).sum();
+    for (BatchResult result : results) {
+      int count = result.getParameterObjects().size();
+      if (count > 0) {
+        // update counts are negative constants when unknown
+        long rows = IntStream.of(result.getUpdateCounts()).filter(rowCount -> rowCount > 0).asLongStream().sum();
+        statistics.record(result.getMappedStatement().getId(), durationNanos * count / executions, rows, count);
+      }
+    }
+  }
+
+  private static long countRows(Object result) {
+    if (result instanceof Collection) {
+      return ((Collection) result).size();
+    }
+    if (result instanceof Integer) {
+      return Math.max(0, (Integer) result);
+    }
+    return 0L;
+  }
+
+  /**
+   * Executors are not shared between threads, so each one is wrapped with its own interceptor,
+   * keeping track of its pending batch.
+   */
+  @Override
+  public Object plugin(Object target) {
+    if (target instanceof Executor) {
+      return Plugin.wrap(target, new SqlStatisticsInterceptor(statistics));
+    }
+    return target;
+  }
+
+  @Override
+  public void setProperties(Properties properties) {
+    // no properties
+  }
+
+  private static class TimedResultHandler implements ResultHandler {
+    private final ResultHandler delegate;
+    private long nanos = 0L;
+    private long rows = 0L;
+
+    TimedResultHandler(ResultHandler delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void handleResult(ResultContext resultContext) {
+      rows++;
+      long start = System.nanoTime();
+      try {
+        delegate.handleResult(resultContext);
+      } finally {
+        nanos += System.nanoTime() - start;
+      }
+    }
+  }
+}
@@ -21,8 +21,10 @@ package org.sonar.db;
 
 import org.apache.ibatis.session.SqlSession;
 import org.junit.Test;
+import org.mockito.InOrder;
 
 import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -71,4 +73,46 @@ public class BatchSessionTest {
     verify(mybatisSession, times(3)).commit();
     session.close();
   }
+
+  @Test
+  public void shouldCommitWhenReachingMaxBatchBytes() {
+    SqlSession mybatisSession = mock(SqlSession.class);
+    BatchSession session = new BatchSession(mybatisSession, 1_000, 100L);
+
+    // each parameter is estimated to 20 bytes
+    for (int i = 0; i < 4; i++) {
+      session.insert("insert", "0123456789");
+      verify(mybatisSession, never()).commit();
+    }
+    session.insert("insert", "0123456789");
+    verify(mybatisSession).commit();
+    session.close();
+  }
+
+  @Test
+  public void shouldIgnoreSizeOfParametersWhenNoMaxBatchBytes() {
+    SqlSession mybatisSession = mock(SqlSession.class);
+    BatchSession session = new BatchSession(mybatisSession, 10);
+
+    for (int i = 0; i < 9; i++) {
+      session.update("update", new byte[10_000_000]);
+    }
+    verify(mybatisSession, never()).commit();
+    session.close();
+  }
+
+  @Test
+  public void shouldCommitAfterTheStatementWhichFillsTheBatch() {
+    SqlSession mybatisSession = mock(SqlSession.class);
+    BatchSession session = new BatchSession(mybatisSession, 2);
+
+    session.insert("id0");
+    session.update("id1", "param");
+
+    InOrder inOrder = inOrder(mybatisSession);
+    inOrder.verify(mybatisSession).insert("id0");
+    inOrder.verify(mybatisSession).update("id1", "param");
+    inOrder.verify(mybatisSession).commit();
+    session.close();
+  }
 }
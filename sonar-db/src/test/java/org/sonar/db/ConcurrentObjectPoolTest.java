@@ -0,0 +1,211 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.pool.BasePoolableObjectFactory;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class ConcurrentObjectPoolTest {
+
+  private CountingFactory factory = new CountingFactory();
+
+  @Test
+  public void reuse_returned_objects() throws Exception {
+    ConcurrentObjectPool underTest = newPool(2, 2, 100L);
+
+    Object first = underTest.borrowObject();
+    assertThat(underTest.getNumActive()).isEqualTo(1);
+    underTest.returnObject(first);
+    assertThat(underTest.getNumActive()).isEqualTo(0);
+    assertThat(underTest.getNumIdle()).isEqualTo(1);
+
+    assertThat(underTest.borrowObject()).isSameAs(first);
+    assertThat(factory.created.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void fail_when_max_active_objects_are_borrowed_for_longer_than_max_wait() throws Exception {
+    ConcurrentObjectPool underTest = newPool(2, 2, 10L);
+    underTest.borrowObject();
+    underTest.borrowObject();
+
+    try {
+      underTest.borrowObject();
+      fail();
+    } catch (NoSuchElementException e) {
+      assertThat(e).hasMessage("Timeout waiting for idle object");
+    }
+    assertThat(underTest.getNumActive()).isEqualTo(2);
+  }
+
+  @Test
+  public void returned_object_can_be_borrowed_by_waiting_thread() throws Exception {
+    ConcurrentObjectPool underTest = newPool(1, 1, 10_000L);
+    Object borrowed = underTest.borrowObject();
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Object> waiting = executor.submit(underTest::borrowObject);
+      Thread.sleep(50L);
+      assertThat(waiting.isDone()).isFalse();
+      underTest.returnObject(borrowed);
+
+      assertThat(waiting.get()).isSameAs(borrowed);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void destroy_objects_returned_when_max_idle_is_reached() throws Exception {
+    ConcurrentObjectPool underTest = newPool(3, 1, 100L);
+    Object o1 = underTest.borrowObject();
+    Object o2 = underTest.borrowObject();
+
+    underTest.returnObject(o1);
+    underTest.returnObject(o2);
+
+    assertThat(underTest.getNumIdle()).isEqualTo(1);
+    assertThat(factory.destroyed.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void destroy_invalid_idle_objects_on_borrow() throws Exception {
+    ConcurrentObjectPool underTest = newPool(2, 2, 100L);
+    Object invalid = underTest.borrowObject();
+    underTest.returnObject(invalid);
+    factory.valid = false;
+
+    try {
+      underTest.borrowObject();
+      fail();
+    } catch (NoSuchElementException e) {
+      assertThat(e).hasMessage("Could not create a validated object");
+    }
+    assertThat(factory.destroyed.get()).isEqualTo(2);
+    assertThat(underTest.getNumIdle()).isEqualTo(0);
+    assertThat(underTest.getNumActive()).isEqualTo(0);
+
+    factory.valid = true;
+    // permits have been released
+    underTest.borrowObject();
+    underTest.borrowObject();
+  }
+
+  @Test
+  public void invalidated_objects_are_destroyed() throws Exception {
+    ConcurrentObjectPool underTest = newPool(1, 1, 10L);
+    underTest.invalidateObject(underTest.borrowObject());
+
+    assertThat(factory.destroyed.get()).isEqualTo(1);
+    assertThat(underTest.getNumActive()).isEqualTo(0);
+    underTest.borrowObject();
+  }
+
+  @Test
+  public void close_destroys_idle_objects() throws Exception {
+    ConcurrentObjectPool underTest = newPool(2, 2, 10L);
+    underTest.addObject();
+    Object borrowed = underTest.borrowObject();
+    underTest.addObject();
+
+    underTest.close();
+    underTest.returnObject(borrowed);
+
+    assertThat(underTest.getNumIdle()).isEqualTo(0);
+    assertThat(factory.destroyed.get()).isEqualTo(2);
+    try {
+      underTest.borrowObject();
+      fail();
+    } catch (IllegalStateException e) {
+      // closed
+    }
+  }
+
+  @Test
+  public void never_borrow_more_than_max_active_objects_concurrently() throws Exception {
+    ConcurrentObjectPool underTest = newPool(4, 2, 10_000L);
+    AtomicInteger borrowed = new AtomicInteger();
+    AtomicInteger maxBorrowed = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 1_000; j++) {
+            Object obj = underTest.borrowObject();
+            maxBorrowed.accumulateAndGet(borrowed.incrementAndGet(), Math::max);
+            borrowed.decrementAndGet();
+            underTest.returnObject(obj);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(maxBorrowed.get()).isLessThanOrEqualTo(4);
+    assertThat(underTest.getNumActive()).isEqualTo(0);
+    assertThat(underTest.getNumIdle()).isLessThanOrEqualTo(2);
+    assertThat(factory.created.get() - factory.destroyed.get()).isEqualTo(underTest.getNumIdle());
+  }
+
+  private ConcurrentObjectPool newPool(int maxActive, int maxIdle, long maxWait) {
+    ConcurrentObjectPool pool = new ConcurrentObjectPool(maxActive, maxIdle, maxWait, true, false);
+    pool.setFactory(factory);
+    return pool;
+  }
+
+  private static class CountingFactory extends BasePoolableObjectFactory {
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger destroyed = new AtomicInteger();
+    private volatile boolean valid = true;
+
+    @Override
+    public Object makeObject() {
+      created.incrementAndGet();
+      return new Object();
+    }
+
+    @Override
+    public void destroyObject(Object obj) {
+      destroyed.incrementAndGet();
+    }
+
+    @Override
+    public boolean validateObject(Object obj) {
+      return valid;
+    }
+  }
+}
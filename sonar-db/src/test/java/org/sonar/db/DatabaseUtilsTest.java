@@ -30,6 +30,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import javax.annotation.Nullable;
+import org.apache.ibatis.session.Configuration;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -39,6 +40,7 @@ import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.core.util.stream.Collectors;
 import org.sonar.db.dialect.Oracle;
+import org.sonar.db.dialect.PostgreSql;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Arrays.asList;
@@ -47,6 +49,7 @@ import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.sonar.db.DatabaseUtils.buildLikeValue;
 import static org.sonar.db.DatabaseUtils.toUniqueAndSortedList;
 import static org.sonar.db.WildcardPosition.AFTER;
@@ -285,6 +288,36 @@ public class DatabaseUtilsTest {
     assertThat(outputs).isEmpty();
   }
 
+  @Test
+  public void executeLargeInputsIntoConsumer() {
+    List<Integer> inputs = newArrayList();
+    List<String> expectedOutputs = newArrayList();
+    for (int i = 0; i < 2010; i++) {
+      inputs.add(i);
+      expectedOutputs.add(Integer.toString(i));
+    }
+    // duplicates are ignored
+    inputs.add(5);
+
+    List<String> outputs = newArrayList();
+    List<Integer> partitionSizes = newArrayList();
+    DatabaseUtils.executeLargeInputsIntoConsumer(inputs, input -> {
+      partitionSizes.add(input.size());
+      return input.stream().map(String::valueOf).collect(Collectors.toList());
+    }, outputs::add);
+
+    assertThat(outputs).isEqualTo(expectedOutputs);
+    assertThat(partitionSizes).containsExactly(1000, 1000, 10);
+  }
+
+  @Test
+  public void executeLargeInputsIntoConsumer_on_empty_list() {
+    DatabaseUtils.executeLargeInputsIntoConsumer(Collections.<Integer>emptyList(), input -> {
+      fail("No partition should be made on empty list");
+      return Collections.<String>emptyList();
+    }, output -> fail("No output expected"));
+  }
+
   @Test
   public void executeLargeUpdates() {
     List<Integer> inputs = newArrayList();
@@ -337,4 +370,17 @@ public class DatabaseUtilsTest {
       assertThat(DatabaseUtils.tableExists("foo", connection)).isFalse();
     }
   }
+
+  @Test
+  public void supportsArrayBind_only_on_postgresql() {
+    assertThat(DatabaseUtils.supportsArrayBind(dbTester.getSession())).isFalse();
+
+    DbSession session = mock(DbSession.class);
+    Configuration configuration = new Configuration();
+    when(session.getConfiguration()).thenReturn(configuration);
+    configuration.setDatabaseId(PostgreSql.ID);
+    assertThat(DatabaseUtils.supportsArrayBind(session)).isTrue();
+    configuration.setDatabaseId(Oracle.ID);
+    assertThat(DatabaseUtils.supportsArrayBind(session)).isFalse();
+  }
 }
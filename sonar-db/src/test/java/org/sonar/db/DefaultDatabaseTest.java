@@ -19,18 +19,25 @@
  */
 package org.sonar.db;
 
+import java.sql.Connection;
 import java.util.Properties;
 import org.apache.commons.dbcp.BasicDataSource;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.sonar.api.config.Settings;
 import org.sonar.api.config.MapSettings;
 import org.sonar.db.dialect.PostgreSql;
+import org.sonar.db.profiling.ProfiledDataSource;
 import org.sonar.process.logging.LogbackHelper;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
 public class DefaultDatabaseTest {
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
   private LogbackHelper logbackHelper = mock(LogbackHelper.class);
 
   @Test
@@ -44,6 +51,42 @@ public class DefaultDatabaseTest {
     assertThat(db.toString()).isEqualTo("Database[jdbc:h2:tcp://localhost/sonar]");
   }
 
+  @Test
+  public void batch_sizes_default_to_the_values_of_dialect() {
+    Settings settings = new MapSettings();
+    settings.setProperty("sonar.jdbc.url", "jdbc:postgresql://localhost/sonar");
+
+    DefaultDatabase db = new DefaultDatabase(logbackHelper, settings);
+    db.initSettings();
+
+    assertThat(db.getBatchSize()).isEqualTo(db.getDialect().getBatchSize());
+    assertThat(db.getBatchMaxBytes()).isEqualTo(db.getDialect().getBatchMaxBytes());
+  }
+
+  @Test
+  public void batch_sizes_can_be_configured() {
+    Settings settings = new MapSettings();
+    settings.setProperty("sonar.jdbc.batchSize", "500");
+    settings.setProperty("sonar.jdbc.batchMaxBytes", "1048576");
+
+    DefaultDatabase db = new DefaultDatabase(logbackHelper, settings);
+    db.initSettings();
+
+    assertThat(db.getBatchSize()).isEqualTo(500);
+    assertThat(db.getBatchMaxBytes()).isEqualTo(1_048_576L);
+  }
+
+  @Test
+  public void fail_if_batch_size_is_not_a_positive_number() {
+    Settings settings = new MapSettings();
+    settings.setProperty("sonar.jdbc.batchSize", "0");
+
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Property sonar.jdbc.batchSize must be a positive number: 0");
+
+    new DefaultDatabase(logbackHelper, settings).initSettings();
+  }
+
   @Test
   public void shouldExtractCommonsDbcpProperties() {
     Properties props = new Properties();
@@ -92,6 +135,30 @@ public class DefaultDatabaseTest {
     assertThat(((BasicDataSource) db.getDataSource()).getMaxActive()).isEqualTo(1);
   }
 
+  @Test
+  public void shouldStartWithConcurrentPool() throws Exception {
+    Settings settings = new MapSettings();
+    settings.setProperty("sonar.jdbc.url", "jdbc:h2:mem:sonar");
+    settings.setProperty("sonar.jdbc.driverClassName", "org.h2.Driver");
+    settings.setProperty("sonar.jdbc.username", "sonar");
+    settings.setProperty("sonar.jdbc.password", "sonar");
+    settings.setProperty("sonar.jdbc.maxActive", "2");
+    settings.setProperty("sonar.jdbc.pool", "concurrent");
+
+    DefaultDatabase db = new DefaultDatabase(logbackHelper, settings);
+    db.start();
+    ProfiledDataSource dataSource = (ProfiledDataSource) db.getDataSource();
+    assertThat(dataSource.getDelegate()).isInstanceOf(ConcurrentDataSource.class);
+    assertThat(dataSource.getMaxActive()).isEqualTo(2);
+    try (Connection connection = dataSource.getConnection()) {
+      assertThat(connection.isValid(1)).isTrue();
+      assertThat(dataSource.getNumActive()).isEqualTo(1);
+    }
+    assertThat(dataSource.getNumActive()).isEqualTo(0);
+    assertThat(dataSource.getNumIdle()).isEqualTo(1);
+    db.stop();
+  }
+
   @Test
   public void shouldGuessDialectFromUrl() {
     Settings settings = new MapSettings();
@@ -25,6 +25,7 @@ import org.hamcrest.core.Is;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.sonar.db.profiling.SqlStatementStatistics;
 import org.sonar.db.rule.RuleMapper;
 
 import static org.hamcrest.Matchers.notNullValue;
@@ -68,4 +69,20 @@ public class MyBatisTest {
       session.close();
     }
   }
+
+  @Test
+  public void shouldRecordStatisticsOfMappedStatements() {
+    MyBatis myBatis = new MyBatis(database);
+    myBatis.start();
+
+    try (SqlSession session = myBatis.openSession(false)) {
+      session.getMapper(IsAliveMapper.class).isAlive();
+      session.getMapper(IsAliveMapper.class).isAlive();
+    }
+
+    SqlStatementStatistics statistics = myBatis.getSqlStatistics().getAll().get(0);
+    assertThat(statistics.getId(), Is.is("org.sonar.db.IsAliveMapper.isAlive"));
+    assertThat(statistics.getCalls(), Is.is(2L));
+    assertThat(statistics.getRows(), Is.is(2L));
+  }
 }
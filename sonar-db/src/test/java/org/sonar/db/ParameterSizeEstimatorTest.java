@@ -0,0 +1,63 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
+import java.util.Date;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParameterSizeEstimatorTest {
+
+  @Test
+  public void estimate_simple_values() {
+    assertThat(ParameterSizeEstimator.estimate(null)).isEqualTo(0L);
+    assertThat(ParameterSizeEstimator.estimate("abc")).isEqualTo(6L);
+    assertThat(ParameterSizeEstimator.estimate(new byte[42])).isEqualTo(42L);
+    assertThat(ParameterSizeEstimator.estimate(12L)).isEqualTo(8L);
+    assertThat(ParameterSizeEstimator.estimate(new Date())).isEqualTo(8L);
+    assertThat(ParameterSizeEstimator.estimate(Arrays.asList("a", "b", "c"))).isEqualTo(24L);
+  }
+
+  @Test
+  public void estimate_values_of_map() {
+    assertThat(ParameterSizeEstimator.estimate(ImmutableMap.of("key", "abcd", "data", new byte[10], "id", 3))).isEqualTo(8L + 10L + 8L);
+  }
+
+  @Test
+  public void estimate_fields_of_dto() {
+    Dto dto = new Dto();
+    dto.name = "abcde";
+    dto.data = new byte[100];
+    dto.id = 1L;
+
+    assertThat(ParameterSizeEstimator.estimate(dto)).isEqualTo(10L + 100L + 8L);
+    assertThat(ParameterSizeEstimator.estimate(new Dto())).isEqualTo(8L);
+  }
+
+  private static class Dto {
+    private static final String IGNORED = "static fields are ignored";
+    private String name;
+    private byte[] data;
+    private long id;
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.mockito.Matchers.aryEq;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StringArrayTypeHandlerTest {
+
+  private StringArrayTypeHandler underTest = new StringArrayTypeHandler();
+
+  @Test
+  public void bind_collection_as_varchar_array() throws Exception {
+    PreparedStatement ps = mock(PreparedStatement.class);
+    Connection connection = mock(Connection.class);
+    Array array = mock(Array.class);
+    when(ps.getConnection()).thenReturn(connection);
+    when(connection.createArrayOf(eq("varchar"), aryEq(new Object[] {"A", "B"}))).thenReturn(array);
+
+    underTest.setNonNullParameter(ps, 3, asList("A", "B"), null);
+
+    verify(ps).setArray(3, array);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void arrays_can_not_be_read() throws Exception {
+    underTest.getNullableResult(mock(ResultSet.class), "uuids");
+  }
+}
@@ -20,6 +20,7 @@
 package org.sonar.db.component;
 
 import com.google.common.base.Optional;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -270,6 +271,31 @@ public class ComponentDaoTest {
     assertThat(underTest.selectByUuids(dbSession, newArrayList("unknown"))).isEmpty();
   }
 
+  @Test
+  public void select_by_uuids_into_consumer() {
+    db.prepareDbUnit(getClass(), "shared.xml");
+
+    List<ComponentDto> results = new ArrayList<>();
+    underTest.selectByUuids(dbSession, newArrayList("U4", "U1", "unknown", "U4"), results::add);
+
+    assertThat(results).extracting(ComponentDto::uuid).hasSize(2).containsOnly("U1", "U4");
+  }
+
+  @Test
+  public void select_by_uuids_into_consumer_by_partitions_of_uuids() {
+    ComponentDto project = db.components().insertProject(db.getDefaultOrganization());
+    List<String> uuids = new ArrayList<>();
+    for (int i = 0; i < 1_500; i++) {
+      uuids.add("unknown_" + i);
+    }
+    uuids.add(project.uuid());
+
+    List<ComponentDto> results = new ArrayList<>();
+    underTest.selectByUuids(dbSession, uuids, results::add);
+
+    assertThat(results).extracting(ComponentDto::uuid).containsExactly(project.uuid());
+  }
+
   @Test
   public void get_by_uuids_on_removed_components() {
     db.prepareDbUnit(getClass(), "shared.xml");
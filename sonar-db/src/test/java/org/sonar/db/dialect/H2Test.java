@@ -56,4 +56,10 @@ public class H2Test {
   public void h2_does_not_supportMigration() {
     assertThat(dialect.supportsMigration()).isFalse();
   }
+
+  @Test
+  public void batch_size() {
+    assertThat(dialect.getBatchSize()).isEqualTo(250);
+    assertThat(dialect.getBatchMaxBytes()).isEqualTo(4L * 1024 * 1024);
+  }
 }
@@ -59,4 +59,10 @@ public class MsSqlTest {
   public void msSql_does_supportMigration() {
     assertThat(msSql.supportsMigration()).isTrue();
   }
+
+  @Test
+  public void batch_size() {
+    assertThat(msSql.getBatchSize()).isEqualTo(250);
+    assertThat(msSql.getBatchMaxBytes()).isEqualTo(4L * 1024 * 1024);
+  }
 }
@@ -60,4 +60,10 @@ public class MySqlTest {
   public void mysql_does_supportMigration() {
     assertThat(mySql.supportsMigration()).isTrue();
   }
+
+  @Test
+  public void batch_size() {
+    assertThat(mySql.getBatchSize()).isEqualTo(1_000);
+    assertThat(mySql.getBatchMaxBytes()).isEqualTo(4L * 1024 * 1024);
+  }
 }
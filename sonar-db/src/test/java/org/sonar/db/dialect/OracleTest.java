@@ -57,4 +57,10 @@ public class OracleTest {
   public void oracle_does_supportMigration() {
     assertThat(underTest.supportsMigration()).isTrue();
   }
+
+  @Test
+  public void batch_size() {
+    assertThat(underTest.getBatchSize()).isEqualTo(250);
+    assertThat(underTest.getBatchMaxBytes()).isEqualTo(4L * 1024 * 1024);
+  }
 }
@@ -61,4 +61,10 @@ public class PostgreSqlTest {
   public void postgres_does_supportMigration() {
     assertThat(dialect.supportsMigration()).isTrue();
   }
+
+  @Test
+  public void batch_size() {
+    assertThat(dialect.getBatchSize()).isEqualTo(1_000);
+    assertThat(dialect.getBatchMaxBytes()).isEqualTo(4L * 1024 * 1024);
+  }
 }
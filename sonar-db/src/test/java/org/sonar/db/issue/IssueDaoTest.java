@@ -19,6 +19,7 @@
  */
 package org.sonar.db.issue;
 
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.Rule;
 import org.junit.Test;
@@ -110,6 +111,22 @@ public class IssueDaoTest {
     assertThat(issues).extracting("key").containsOnly("I1", "I2");
   }
 
+  @Test
+  public void selectByKeys_into_consumer() {
+    // contains I1 and I2
+    prepareTables();
+    List<String> keys = new ArrayList<>();
+    for (int i = 0; i < 1_500; i++) {
+      keys.add("unknown_" + i);
+    }
+    keys.addAll(asList("I1", "I2", "I3", "I1"));
+
+    List<IssueDto> issues = new ArrayList<>();
+    underTest.selectByKeys(dbTester.getSession(), keys, issues::add);
+
+    assertThat(issues).extracting(IssueDto::getKey).hasSize(2).containsOnly("I1", "I2");
+  }
+
   @Test
   public void selectByOrderedKeys() {
     // contains I1 and I2
@@ -39,11 +39,13 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.sonar.api.resources.Qualifiers.FILE;
 import static org.sonar.api.resources.Qualifiers.PROJECT;
 import static org.sonar.api.resources.Qualifiers.UNIT_TEST_FILE;
 import static org.sonar.api.resources.Qualifiers.VIEW;
 import static org.sonar.db.component.ComponentTesting.newDeveloper;
+import static org.sonar.db.component.ComponentTesting.newDirectory;
 import static org.sonar.db.component.ComponentTesting.newFileDto;
 import static org.sonar.db.component.ComponentTesting.newModuleDto;
 import static org.sonar.db.measure.MeasureTreeQuery.Strategy.CHILDREN;
@@ -539,6 +541,29 @@ public class MeasureDaoTest {
       .setLast(isLast));
   }
 
-  // TODO test selectPastMeasures
+  @Test
+  public void selectPastMeasures_of_all_components_of_analysis() {
+    ComponentDto project = db.components().insertProject(db.getDefaultOrganization(), "C1");
+    ComponentDto directory = db.components().insertComponent(newDirectory(project, "C2", "src"));
+    db.components().insertComponent(newFileDto(project, directory, "C3"));
+    insertMeasure("M1", LAST_ANALYSIS_UUID, "C1", NCLOC_METRIC_ID);
+    insertMeasure("M2", LAST_ANALYSIS_UUID, "C2", NCLOC_METRIC_ID);
+    insertMeasure("M3", LAST_ANALYSIS_UUID, "C2", COVERAGE_METRIC_ID);
+    insertMeasure("M4", LAST_ANALYSIS_UUID, "C2", COMPLEXITY_METRIC_ID);
+    insertMeasure("M5", OTHER_ANALYSIS_UUID, "C1", NCLOC_METRIC_ID);
+    insertMeasure("M6", LAST_ANALYSIS_UUID, "C1", 123L, NCLOC_METRIC_ID);
+    insertMeasure("M7", LAST_ANALYSIS_UUID, "C3", NCLOC_METRIC_ID);
+    db.commit();
+
+    List<PastMeasureDto> pastMeasures = new ArrayList<>();
+    underTest.selectPastMeasures(db.getSession(), LAST_ANALYSIS_UUID, asList(NCLOC_METRIC_ID, COVERAGE_METRIC_ID),
+      context -> pastMeasures.add((PastMeasureDto) context.getResultObject()));
+
+    // measure M6 of developer and measure M7 of file are excluded, so C1 has a single ncloc measure
+    assertThat(pastMeasures).hasSize(3);
+    assertThat(pastMeasures).extracting(PastMeasureDto::getComponentUuid, PastMeasureDto::getMetricId)
+      .containsOnly(tuple("C1", NCLOC_METRIC_ID), tuple("C2", NCLOC_METRIC_ID), tuple("C2", COVERAGE_METRIC_ID));
+    assertThat(pastMeasures).extracting(PastMeasureDto::hasValue).containsOnly(true);
+  }
 
 }
@@ -21,6 +21,7 @@ package org.sonar.db.notification;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.api.notifications.Notification;
@@ -69,6 +70,15 @@ public class NotificationQueueDaoTest {
     db.assertDbUnit(getClass(), "should_delete_notification-result.xml", "notifications");
   }
 
+  @Test
+  public void delete_does_nothing_on_empty_list() {
+    db.prepareDbUnit(getClass(), "should_delete_notification.xml");
+
+    dao.delete(Collections.emptyList());
+
+    assertThat(dao.count()).isEqualTo(4);
+  }
+
   @Test
   public void should_findOldest() {
     db.prepareDbUnit(getClass(), "should_findOldest.xml");
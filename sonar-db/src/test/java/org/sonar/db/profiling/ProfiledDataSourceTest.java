@@ -25,8 +25,10 @@ import java.lang.reflect.Modifier;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.util.NoSuchElementException;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.junit.Rule;
 import org.junit.Test;
@@ -34,6 +36,7 @@ import org.sonar.api.utils.log.LogTester;
 import org.sonar.api.utils.log.LoggerLevel;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -132,6 +135,78 @@ public class ProfiledDataSourceTest {
       .doesNotContain("params=");
   }
 
+  @Test
+  public void record_wait_time_of_connections() throws Exception {
+    when(originDataSource.getConnection()).thenReturn(mock(Connection.class));
+    ProfiledDataSource underTest = new ProfiledDataSource(originDataSource, NullConnectionInterceptor.INSTANCE);
+
+    underTest.getConnection();
+
+    assertThat(underTest.getNumPending()).isEqualTo(0);
+    assertThat(underTest.getConnectionWaitTimes().getPercentileMillis(100)).isGreaterThanOrEqualTo(0.0);
+  }
+
+  @Test
+  public void fail_with_clear_message_when_pool_is_exhausted() throws Exception {
+    when(originDataSource.getConnection()).thenThrow(new SQLException("Cannot get a connection, pool error Timeout waiting for idle object",
+      new NoSuchElementException("Timeout waiting for idle object")));
+    when(originDataSource.getMaxWait()).thenReturn(5000L);
+    when(originDataSource.getMaxActive()).thenReturn(60);
+    when(originDataSource.getNumActive()).thenReturn(60);
+    ProfiledDataSource underTest = new ProfiledDataSource(originDataSource, NullConnectionInterceptor.INSTANCE);
+
+    try {
+      underTest.getConnection();
+      fail();
+    } catch (SQLException e) {
+      assertThat(e.getMessage()).isEqualTo("Fail to get a connection from pool within 5000 ms: 60 connections are active and 1 threads are waiting. " +
+        "Consider increasing sonar.jdbc.maxActive or sonar.jdbc.maxWait");
+    }
+    assertThat(underTest.getNumPending()).isEqualTo(0);
+  }
+
+  @Test
+  public void do_not_count_callers_as_waiting_when_connections_are_available() throws Exception {
+    when(originDataSource.getMaxActive()).thenReturn(60);
+    when(originDataSource.getNumActive()).thenReturn(59);
+    ProfiledDataSource underTest = new ProfiledDataSource(originDataSource, NullConnectionInterceptor.INSTANCE);
+    when(originDataSource.getConnection()).thenAnswer(invocation -> {
+      assertThat(underTest.getNumPending()).isEqualTo(0);
+      return mock(Connection.class);
+    });
+
+    underTest.getConnection();
+  }
+
+  @Test
+  public void count_callers_as_waiting_when_all_connections_are_active() throws Exception {
+    when(originDataSource.getMaxActive()).thenReturn(60);
+    when(originDataSource.getNumActive()).thenReturn(60);
+    ProfiledDataSource underTest = new ProfiledDataSource(originDataSource, NullConnectionInterceptor.INSTANCE);
+    when(originDataSource.getConnection()).thenAnswer(invocation -> {
+      assertThat(underTest.getNumPending()).isEqualTo(1);
+      return mock(Connection.class);
+    });
+
+    underTest.getConnection();
+
+    assertThat(underTest.getNumPending()).isEqualTo(0);
+  }
+
+  @Test
+  public void propagate_other_connection_errors() throws Exception {
+    SQLException error = new SQLException("Connection refused");
+    when(originDataSource.getConnection()).thenThrow(error);
+    ProfiledDataSource underTest = new ProfiledDataSource(originDataSource, NullConnectionInterceptor.INSTANCE);
+
+    try {
+      underTest.getConnection();
+      fail();
+    } catch (SQLException e) {
+      assertThat(e).isSameAs(error);
+    }
+  }
+
   @Test
   public void delegate_to_underlying_data_source() throws Exception {
     ProfiledDataSource proxy = new ProfiledDataSource(originDataSource, ProfiledConnectionInterceptor.INSTANCE);
@@ -0,0 +1,171 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.profiling;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SqlStatisticsInterceptorTest {
+
+  private SqlStatistics statistics = new SqlStatistics();
+  private Executor executor = mock(Executor.class);
+  private Executor underTest = (Executor) new SqlStatisticsInterceptor(statistics).plugin(executor);
+  private MappedStatement insert = mappedStatement("FooMapper.insert", SqlCommandType.INSERT);
+  private MappedStatement update = mappedStatement("FooMapper.update", SqlCommandType.UPDATE);
+  private MappedStatement select = mappedStatement("FooMapper.select", SqlCommandType.SELECT);
+
+  @Test
+  public void record_updates() throws Exception {
+    when(executor.update(update, "foo")).thenReturn(3);
+
+    underTest.update(update, "foo");
+
+    SqlStatementStatistics recorded = statistics.getAll().get(0);
+    assertThat(recorded.getId()).isEqualTo("FooMapper.update");
+    assertThat(recorded.getCalls()).isEqualTo(1L);
+    assertThat(recorded.getRows()).isEqualTo(3L);
+  }
+
+  @Test
+  public void record_batched_updates_when_flushed_on_commit() throws Exception {
+    when(executor.update(any(MappedStatement.class), any())).thenReturn(BatchExecutor.BATCH_UPDATE_RETURN_VALUE);
+    underTest.update(insert, "foo1");
+    underTest.update(insert, "foo2");
+    underTest.update(update, "bar");
+    assertThat(statistics.getAll()).isEmpty();
+
+    BatchResult inserts = batchResult(insert, new int[] {1, 1}, "foo1", "foo2");
+    BatchResult updates = batchResult(update, new int[] {5}, "bar");
+    when(executor.flushStatements()).thenAnswer(invocation -> {
+      Thread.sleep(30L);
+      return asList(inserts, updates);
+    });
+    underTest.commit(true);
+
+    verify(executor).flushStatements();
+    verify(executor).commit(true);
+    assertThat(statistics.getAll())
+      .extracting(SqlStatementStatistics::getId, SqlStatementStatistics::getCalls, SqlStatementStatistics::getRows)
+      .containsOnly(
+        tuple("FooMapper.insert", 2L, 2L),
+        tuple("FooMapper.update", 1L, 5L));
+    long totalMillis = statistics.getAll().stream().mapToLong(SqlStatementStatistics::getTotalMillis).sum();
+    assertThat(totalMillis).isGreaterThanOrEqualTo(28L);
+  }
+
+  @Test
+  public void record_batched_updates_when_flushed_explicitly() throws Exception {
+    when(executor.update(insert, "foo")).thenReturn(BatchExecutor.BATCH_UPDATE_RETURN_VALUE);
+    when(executor.flushStatements()).thenReturn(Collections.singletonList(batchResult(insert, new int[] {1}, "foo")));
+
+    underTest.update(insert, "foo");
+    underTest.flushStatements();
+
+    assertThat(statistics.getAll()).extracting(SqlStatementStatistics::getCalls).containsExactly(1L);
+  }
+
+  @Test
+  public void do_not_flush_on_commit_when_no_pending_batch() throws Exception {
+    underTest.commit(true);
+
+    verify(executor, never()).flushStatements();
+    assertThat(statistics.getAll()).isEmpty();
+  }
+
+  @Test
+  public void do_not_flush_on_commit_after_rollback() throws Exception {
+    when(executor.update(insert, "foo")).thenReturn(BatchExecutor.BATCH_UPDATE_RETURN_VALUE);
+    underTest.update(insert, "foo");
+    underTest.rollback(true);
+
+    underTest.commit(true);
+
+    verify(executor, never()).flushStatements();
+  }
+
+  @Test
+  public void exclude_time_spent_by_result_handler() throws Exception {
+    doAnswer(invocation -> {
+      ResultHandler handler = (ResultHandler) invocation.getArguments()[3];
+      handler.handleResult(mock(ResultContext.class));
+      handler.handleResult(mock(ResultContext.class));
+      return null;
+    }).when(executor).query(eq(select), any(), any(RowBounds.class), any(ResultHandler.class));
+
+    underTest.query(select, "foo", RowBounds.DEFAULT, context -> sleep(50L));
+
+    SqlStatementStatistics recorded = statistics.getAll().get(0);
+    assertThat(recorded.getCalls()).isEqualTo(1L);
+    assertThat(recorded.getRows()).isEqualTo(2L);
+    assertThat(recorded.getTotalMillis()).isLessThan(50L);
+  }
+
+  @Test
+  public void count_rows_of_selects() throws Exception {
+    when(executor.query(select, "foo", RowBounds.DEFAULT, null)).thenReturn((List) asList("a", "b", "c"));
+
+    underTest.query(select, "foo", RowBounds.DEFAULT, null);
+
+    assertThat(statistics.getAll().get(0).getRows()).isEqualTo(3L);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static BatchResult batchResult(MappedStatement statement, int[] updateCounts, Object... parameters) {
+    BatchResult result = new BatchResult(statement, "sql", parameters[0]);
+    for (int i = 1; i < parameters.length; i++) {
+      result.addParameterObject(parameters[i]);
+    }
+    result.setUpdateCounts(updateCounts);
+    return result;
+  }
+
+  private static MappedStatement mappedStatement(String id, SqlCommandType type) {
+    return new MappedStatement.Builder(new Configuration(), id, mock(SqlSource.class), type).build();
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.profiling;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class SqlStatisticsTest {
+
+  private SqlStatistics underTest = new SqlStatistics();
+
+  @Test
+  public void aggregate_executions_by_statement() {
+    underTest.record("foo", TimeUnit.MILLISECONDS.toNanos(10), 3);
+    underTest.record("foo", TimeUnit.MILLISECONDS.toNanos(20), 5);
+    underTest.record("bar", TimeUnit.MILLISECONDS.toNanos(100), 1);
+
+    List<SqlStatementStatistics> all = underTest.getAll();
+    assertThat(all)
+      .extracting(SqlStatementStatistics::getId, SqlStatementStatistics::getCalls, SqlStatementStatistics::getRows,
+        SqlStatementStatistics::getTotalMillis, SqlStatementStatistics::getMaxMillis)
+      .containsExactly(
+        tuple("bar", 1L, 1L, 100L, 100L),
+        tuple("foo", 2L, 8L, 30L, 20L));
+  }
+
+  @Test
+  public void negative_row_counts_are_ignored() {
+    underTest.record("foo", 10, -1);
+
+    assertThat(underTest.getAll().get(0).getRows()).isEqualTo(0L);
+  }
+
+  @Test
+  public void approximate_percentiles() {
+    for (int i = 0; i < 99; i++) {
+      underTest.record("foo", TimeUnit.MICROSECONDS.toNanos(100), 1);
+    }
+    underTest.record("foo", TimeUnit.SECONDS.toNanos(2), 1);
+
+    SqlStatementStatistics statistics = underTest.getAll().get(0);
+    // 100 microseconds are in the bucket [64, 128[
+    assertThat(statistics.getPercentileMillis(50)).isEqualTo(0.128);
+    assertThat(statistics.getPercentileMillis(99)).isEqualTo(0.128);
+    assertThat(statistics.getPercentileMillis(100)).isEqualTo(2000.0);
+  }
+
+  @Test
+  public void percentile_is_zero_when_no_executions() {
+    assertThat(new SqlStatementStatistics("foo").getPercentileMillis(99)).isEqualTo(0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void fail_if_percentile_is_out_of_range() {
+    new SqlStatementStatistics("foo").getPercentileMillis(0);
+  }
+
+  @Test
+  public void reset() {
+    underTest.record("foo", 10, 1);
+    underTest.reset();
+
+    assertThat(underTest.getAll()).isEmpty();
+  }
+}
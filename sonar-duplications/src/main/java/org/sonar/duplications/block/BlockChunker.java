@@ -33,7 +33,7 @@ import java.util.List;
  * s[0]*31^(blockSize-1) + s[1]*31^(blockSize-2) + ... + s[blockSize-1]
  * </pre></blockquote>
  * using <code>long</code> arithmetic, where <code>s[i]</code>
- * is the hash code of <code>String</code> (which is cached) for statement with number i.
+ * is the hash code of <code>String</code> value of statement with number i, which is computed without building this value.
  * Thus running time - O(N), where N - number of statements.
  * Implementation fully thread-safe.
  */
@@ -55,12 +55,12 @@ public class BlockChunker {
   }
 
   public List<Block> chunk(String resourceId, List<Statement> statements) {
-    List<Statement> filtered = new ArrayList<>();
+    List<Statement> filtered = new ArrayList<>(statements.size());
     int i = 0;
     while (i < statements.size()) {
       Statement first = statements.get(i);
       int j = i + 1;
-      while (j < statements.size() && statements.get(j).getValue().equals(first.getValue())) {
+      while (j < statements.size() && hasSameValue(statements.get(j), first)) {
         j++;
       }
       filtered.add(statements.get(i));
@@ -80,14 +80,14 @@ public class BlockChunker {
     int first = 0;
     int last = 0;
     for (; last < blockSize - 1; last++) {
-      hash = hash * PRIME_BASE + statementsArr[last].getValue().hashCode();
+      hash = hash * PRIME_BASE + statementsArr[last].getValueHash();
     }
     Block.Builder blockBuilder = Block.builder().setResourceId(resourceId);
     for (; last < statementsArr.length; last++, first++) {
       Statement firstStatement = statementsArr[first];
       Statement lastStatement = statementsArr[last];
       // add last statement to hash
-      hash = hash * PRIME_BASE + lastStatement.getValue().hashCode();
+      hash = hash * PRIME_BASE + lastStatement.getValueHash();
       // create block
       Block block = blockBuilder.setBlockHash(new ByteArray(hash))
           .setIndexInFile(first)
@@ -95,11 +95,15 @@ public class BlockChunker {
           .build();
       blocks.add(block);
       // remove first statement from hash
-      hash -= power * firstStatement.getValue().hashCode();
+      hash -= power * firstStatement.getValueHash();
     }
     return blocks;
   }
 
+  private static boolean hasSameValue(Statement s1, Statement s2) {
+    return s1.getValueHash() == s2.getValueHash() && s1.getValue().equals(s2.getValue());
+  }
+
   public int getBlockSize() {
     return blockSize;
   }
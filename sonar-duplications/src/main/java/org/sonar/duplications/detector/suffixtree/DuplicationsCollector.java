@@ -171,7 +171,7 @@ public class DuplicationsCollector extends Search.Collector {
    * so running time - O(|A|+|B|).
    * </p>
    */
-  private static boolean containsIn(CloneGroup first, CloneGroup second) {
+  static boolean containsIn(CloneGroup first, CloneGroup second) {
     List<ClonePart> firstParts = first.getCloneParts();
     List<ClonePart> secondParts = second.getCloneParts();
     // TODO Godin: according to tests seems that if first part of condition is true, then second part can not be false
@@ -0,0 +1,136 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.duplications.detector.suffixtree;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.detector.ContainsInComparator;
+import org.sonar.duplications.index.CloneGroup;
+import org.sonar.duplications.index.ClonePart;
+
+/**
+ * Implementation of {@link Search.Collector}, which constructs {@link CloneGroup}s for all the resources of a
+ * {@link TextSet} at once: each group is reported to every resource having a part in it, with this part as origin.
+ * For a given resource, the result is the one of {@link DuplicationsCollector} with this resource as origin.
+ */
+class ProjectDuplicationsCollector extends Search.Collector {
+
+  private final TextSet text;
+
+  private final Map<String, List<CloneGroup>> filteredByResourceId = new HashMap<>();
+
+  private int length;
+  private int count;
+  private int[][] blockNumbers;
+
+  ProjectDuplicationsCollector(TextSet text) {
+    this.text = text;
+  }
+
+  /**
+   * @return current result, by resource id
+   */
+  Map<String, List<CloneGroup>> getResult() {
+    return filteredByResourceId;
+  }
+
+  @Override
+  void startOfGroup(int size, int length) {
+    this.blockNumbers = new int[size][2];
+    this.length = length;
+  }
+
+  @Override
+  void part(int start, int end) {
+    blockNumbers[count][0] = start;
+    blockNumbers[count][1] = end - 1;
+    count++;
+  }
+
+  @Override
+  void endOfGroup() {
+    List<ClonePart> parts = new ArrayList<>(count);
+    // origin and length in units by resource, computed the same way as in DuplicationsCollector
+    Map<String, ClonePart> origins = new LinkedHashMap<>();
+    Map<String, Integer> lengthsInUnits = new HashMap<>();
+    for (int[] b : blockNumbers) {
+      Block firstBlock = text.getBlock(b[0]);
+      Block lastBlock = text.getBlock(b[1]);
+      ClonePart part = new ClonePart(
+        firstBlock.getResourceId(),
+        firstBlock.getIndexInFile(),
+        firstBlock.getStartLine(),
+        lastBlock.getEndLine());
+
+      ClonePart origin = origins.get(part.getResourceId());
+      if (origin == null) {
+        origins.put(part.getResourceId(), part);
+        lengthsInUnits.put(part.getResourceId(), lastBlock.getEndUnit() - firstBlock.getStartUnit() + 1);
+      } else if (part.getUnitStart() < origin.getUnitStart()) {
+        origins.put(part.getResourceId(), part);
+      }
+      parts.add(part);
+    }
+
+    Collections.sort(parts, ContainsInComparator.CLONEPART_COMPARATOR);
+    List<ClonePart> sortedParts = ImmutableList.copyOf(parts);
+    for (Map.Entry<String, ClonePart> origin : origins.entrySet()) {
+      CloneGroup group = CloneGroup.builder()
+        .setLength(length)
+        .setLengthInUnits(lengthsInUnits.get(origin.getKey()))
+        .setOrigin(origin.getValue())
+        .setParts(sortedParts)
+        .build();
+      filter(origin.getKey(), group);
+    }
+
+    reset();
+  }
+
+  private void reset() {
+    blockNumbers = null;
+    count = 0;
+  }
+
+  /**
+   * Saves CloneGroup, if it is not included into a group previously saved for the same resource.
+   * See {@link DuplicationsCollector} for the reason why only previously saved groups need to be checked.
+   */
+  private void filter(String resourceId, CloneGroup current) {
+    List<CloneGroup> filtered = filteredByResourceId.get(resourceId);
+    if (filtered == null) {
+      filtered = new ArrayList<>();
+      filteredByResourceId.put(resourceId, filtered);
+    }
+    for (CloneGroup earlier : filtered) {
+      if (DuplicationsCollector.containsIn(current, earlier)) {
+        return;
+      }
+    }
+    filtered.add(current);
+  }
+
+}
@@ -32,20 +32,30 @@ public final class Search {
   private final SuffixTree tree;
   private final TextSet text;
   private final Collector reporter;
+  private final boolean originOnly;
 
   private final List<Integer> list = new ArrayList<>();
   private final List<Node> innerNodes = new ArrayList<>();
   
   private static final Comparator<Node> DEPTH_COMPARATOR = (o1, o2) -> o2.depth - o1.depth;
 
-  private Search(SuffixTree tree, TextSet text, Collector reporter) {
+  private Search(SuffixTree tree, TextSet text, Collector reporter, boolean originOnly) {
     this.tree = tree;
     this.text = text;
     this.reporter = reporter;
+    this.originOnly = originOnly;
   }
   
   public static void perform(TextSet text, Collector reporter) {
-    new Search(SuffixTree.create(text), text, reporter).compute();
+    new Search(SuffixTree.create(text), text, reporter, true).compute();
+  }
+
+  /**
+   * Same as {@link #perform(TextSet, Collector)}, except that all inner nodes are reported,
+   * even if they do not contain origin.
+   */
+  static void performOnAllNodes(TextSet text, Collector reporter) {
+    new Search(SuffixTree.create(text), text, reporter, false).compute();
   }
 
   private void compute() {
@@ -101,7 +111,7 @@ public final class Search {
    */
   private void visitInnerNodes() {
     for (Node node : innerNodes) {
-      if (containsOrigin(node)) {
+      if (!originOnly || containsOrigin(node)) {
         report(node);
       }
     }
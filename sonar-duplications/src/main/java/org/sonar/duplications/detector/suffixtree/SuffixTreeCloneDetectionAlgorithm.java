@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -32,6 +33,7 @@ import org.sonar.duplications.block.Block;
 import org.sonar.duplications.block.ByteArray;
 import org.sonar.duplications.index.CloneGroup;
 import org.sonar.duplications.index.CloneIndex;
+import org.sonar.duplications.index.PackedMemoryCloneIndex.ResourceBlocks;
 
 public final class SuffixTreeCloneDetectionAlgorithm {
   
@@ -54,6 +56,61 @@ public final class SuffixTreeCloneDetectionAlgorithm {
     return reporter.getResult();
   }
 
+  /**
+   * Detects the clone groups of all the resources of the index with a single suffix-tree, instead of building one
+   * suffix-tree per resource with {@link #detect(CloneIndex, Collection)}. For each resource, the clone groups are the
+   * same as the ones returned by {@link #detect(CloneIndex, Collection)}, possibly in another order.
+   * <p>
+   * Blocks whose hash appears only once in the index can not be part of a clone, so they are not added to the
+   * suffix-tree: they just split the text of their resource, as blocks of other resources not matching the origin
+   * do in {@link #detect(CloneIndex, Collection)}. Blocks of a resource are expected to have consecutive indexes,
+   * as created by {@link org.sonar.duplications.block.BlockChunker}.
+   * </p>
+   *
+   * @return clone groups by resource id, resources without clones being absent
+   */
+  public static Map<String, List<CloneGroup>> detectAll(CloneIndex cloneIndex) {
+    List<List<Block>> resourcesBlocks = new ArrayList<>(cloneIndex.noResources());
+    Map<ByteArray, Integer> countByHash = new HashMap<>();
+    Iterator<ResourceBlocks> it = cloneIndex.iterator();
+    while (it.hasNext()) {
+      List<Block> blocks = new ArrayList<>(it.next().blocks());
+      for (Block block : blocks) {
+        countByHash.merge(block.getBlockHash(), 1, Integer::sum);
+      }
+      resourcesBlocks.add(blocks);
+    }
+
+    TextSet.Builder textSetBuilder = TextSet.builder();
+    boolean empty = true;
+    for (List<Block> blocks : resourcesBlocks) {
+      Collections.sort(blocks, BLOCK_COMPARATOR);
+      int i = 0;
+      while (i < blocks.size()) {
+        if (countByHash.get(blocks.get(i).getBlockHash()) == 1) {
+          i++;
+          continue;
+        }
+        int j = i + 1;
+        while (j < blocks.size() && blocks.get(j).getIndexInFile() == blocks.get(j - 1).getIndexInFile() + 1
+          && countByHash.get(blocks.get(j).getBlockHash()) > 1) {
+          j++;
+        }
+        textSetBuilder.add(blocks.subList(i, j));
+        empty = false;
+        i = j;
+      }
+    }
+    if (empty) {
+      return Collections.emptyMap();
+    }
+
+    TextSet text = textSetBuilder.build();
+    ProjectDuplicationsCollector reporter = new ProjectDuplicationsCollector(text);
+    Search.performOnAllNodes(text, reporter);
+    return reporter.getResult();
+  }
+
   private static TextSet createTextSet(CloneIndex index, Collection<Block> fileBlocks) {
     Set<ByteArray> hashes = new HashSet<>();
     for (Block fileBlock : fileBlocks) {
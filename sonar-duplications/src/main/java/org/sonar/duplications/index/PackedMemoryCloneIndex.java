@@ -21,9 +21,11 @@ package org.sonar.duplications.index;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import org.sonar.duplications.block.Block;
 import org.sonar.duplications.block.ByteArray;
@@ -70,6 +72,12 @@ public class PackedMemoryCloneIndex extends AbstractCloneIndex {
 
   private int[] resourceIdsIndex;
 
+  /**
+   * Resources having at least one block, which hash is shared with another block of index.
+   * Computed lazily and reset on each insertion.
+   */
+  private Set<String> resourcesWithDuplicatedBlocks;
+
   private final Block.Builder blockBuilder = Block.builder();
 
   public PackedMemoryCloneIndex() {
@@ -239,6 +247,41 @@ public class PackedMemoryCloneIndex extends AbstractCloneIndex {
     return result;
   }
 
+  /**
+   * Indicates whether at least one block of given resource has the same hash as another block of index,
+   * either from the same resource or from another one.
+   * When it's not the case, detection of clones for this resource can be skipped, as it would not find anything.
+   * <p>
+   * All resources are computed at once with a single pass over blocks sorted by hash, so this method is cheap
+   * to call for each resource of index.
+   * </p>
+   */
+  public boolean hasDuplicatedBlocks(String resourceId) {
+    ensureSorted();
+    if (resourcesWithDuplicatedBlocks == null) {
+      resourcesWithDuplicatedBlocks = computeResourcesWithDuplicatedBlocks();
+    }
+    return resourcesWithDuplicatedBlocks.contains(resourceId);
+  }
+
+  private Set<String> computeResourcesWithDuplicatedBlocks() {
+    Set<String> result = new HashSet<>();
+    int i = 0;
+    while (i < size) {
+      int j = i + 1;
+      while (j < size && !isLessByHash(i, j)) {
+        j++;
+      }
+      if (j - i > 1) {
+        for (int k = i; k < j; k++) {
+          result.add(resourceIds[k]);
+        }
+      }
+      i = j;
+    }
+    return result;
+  }
+
   /**
    * {@inheritDoc}
    * <p>
@@ -248,6 +291,7 @@ public class PackedMemoryCloneIndex extends AbstractCloneIndex {
   @Override
   public void insert(Block block) {
     sorted = false;
+    resourcesWithDuplicatedBlocks = null;
     ensureCapacity();
 
     resourceIds[size] = block.getResourceId();
@@ -19,6 +19,7 @@
  */
 package org.sonar.duplications.statement;
 
+import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.Nullable;
 import org.sonar.duplications.CodeFragment;
@@ -28,7 +29,17 @@ public class Statement implements CodeFragment {
 
   private final int startLine;
   private final int endLine;
-  private final String value;
+
+  /**
+   * Tokens of statement, used to build {@link #value} on demand.
+   */
+  private final List<Token> tokens;
+  private String value;
+
+  /**
+   * Same as {@code getValue().hashCode()}, but computed without building the value.
+   */
+  private final int valueHash;
 
   /**
    * Cache for hash code.
@@ -38,22 +49,51 @@ public class Statement implements CodeFragment {
   public Statement(int startLine, int endLine, String value) {
     this.startLine = startLine;
     this.endLine = endLine;
+    this.tokens = null;
     this.value = value;
+    this.valueHash = value.hashCode();
   }
 
   public Statement(@Nullable List<Token> tokens) {
+    this(tokens, false);
+  }
+
+  /**
+   * @param owned true if the list of tokens is not referenced elsewhere, so that it can be kept without copy
+   */
+  private Statement(@Nullable List<Token> tokens, boolean owned) {
     if (tokens == null || tokens.isEmpty()) {
       throw new IllegalArgumentException("A statement can't be initialized with an empty list of tokens");
     }
-    StringBuilder sb = new StringBuilder();
-    for (Token token : tokens) {
-      sb.append(token.getValue());
-    }
-    this.value = sb.toString();
+    this.tokens = owned ? tokens : new ArrayList<>(tokens);
+    this.valueHash = hashOfConcatenation(tokens);
     this.startLine = tokens.get(0).getLine();
     this.endLine = tokens.get(tokens.size() - 1).getLine();
   }
 
+  /**
+   * Same as {@link #Statement(List)}, but the list of tokens is not copied. It must not be modified afterwards.
+   */
+  static Statement ofOwnedTokens(List<Token> tokens) {
+    return new Statement(tokens, true);
+  }
+
+  /**
+   * Hash of the concatenation of token values, as computed by {@link String#hashCode()}:
+   * hash(a + b) = hash(a) * 31^length(b) + hash(b). Hash of each token value is cached by {@link String}.
+   */
+  private static int hashOfConcatenation(List<Token> tokens) {
+    int h = 0;
+    for (Token token : tokens) {
+      String tokenValue = token.getValue();
+      for (int i = 0; i < tokenValue.length(); i++) {
+        h *= 31;
+      }
+      h += tokenValue.hashCode();
+    }
+    return h;
+  }
+
   @Override
   public int getStartLine() {
     return startLine;
@@ -65,14 +105,34 @@ public class Statement implements CodeFragment {
   }
 
   public String getValue() {
-    return value;
+    String v = value;
+    if (v == null) {
+      int length = 0;
+      for (Token token : tokens) {
+        length += token.getValue().length();
+      }
+      StringBuilder sb = new StringBuilder(length);
+      for (Token token : tokens) {
+        sb.append(token.getValue());
+      }
+      v = sb.toString();
+      value = v;
+    }
+    return v;
+  }
+
+  /**
+   * Equivalent to {@code getValue().hashCode()}, without building the value when it has not been built yet.
+   */
+  public int getValueHash() {
+    return valueHash;
   }
 
   @Override
   public int hashCode() {
     int h = hash;
     if (h == 0) {
-      h = value.hashCode();
+      h = valueHash;
       h = 31 * h + startLine;
       h = 31 * h + endLine;
       hash = h;
@@ -88,7 +148,8 @@ public class Statement implements CodeFragment {
     Statement other = (Statement) obj;
     return startLine == other.startLine
       && endLine == other.endLine
-      && value.equals(other.value);
+      && valueHash == other.valueHash
+      && getValue().equals(other.getValue());
   }
 
   @Override
@@ -59,7 +59,7 @@ public final class StatementChannel {
     // all matchers were successful, so now build the statement
     // matchedTokenList.size() check is for case with ForgiveLastTokenMatcher
     if (!blackHole && !matchedTokenList.isEmpty()) {
-      output.add(new Statement(matchedTokenList));
+      output.add(Statement.ofOwnedTokens(matchedTokenList));
     }
     return true;
   }
@@ -25,11 +25,16 @@ import org.sonar.duplications.block.ByteArray;
 import org.sonar.duplications.detector.DetectorTestCase;
 import org.sonar.duplications.index.CloneGroup;
 import org.sonar.duplications.index.CloneIndex;
+import org.sonar.duplications.index.PackedMemoryCloneIndex;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
@@ -192,6 +197,86 @@ public class SuffixTreeCloneDetectionAlgorithmTest extends DetectorTestCase {
         newClonePart("c", 0, 1)));
   }
 
+  /**
+   * Given:
+   * <pre>
+   * a: 1 2 3 4
+   * b: 4 3 2
+   * c: 4 3 1
+   * d: 5 6
+   * </pre>
+   * Expected: same clone groups as the ones detected file by file, nothing for "d"
+   */
+  @Test
+  public void detectAll_same_clone_groups_as_detect() {
+    PackedMemoryCloneIndex index = createPackedIndex(
+      "a", "1 2 3 4",
+      "b", "4 3 2",
+      "c", "4 3 1",
+      "d", "5 6");
+
+    Map<String, List<CloneGroup>> result = SuffixTreeCloneDetectionAlgorithm.detectAll(index);
+
+    assertThat(result.keySet(), is(new HashSet<>(Arrays.asList("a", "b", "c"))));
+    assertEquals(4, result.get("a").size());
+    for (String resourceId : result.keySet()) {
+      assertSameCloneGroups(index, resourceId, result.get(resourceId));
+    }
+  }
+
+  @Test
+  public void detectAll_same_clone_groups_as_detect_on_random_indexes() {
+    Random random = new Random(42L);
+    for (int iteration = 0; iteration < 500; iteration++) {
+      PackedMemoryCloneIndex index = new PackedMemoryCloneIndex(8, 16);
+      int files = 1 + random.nextInt(6);
+      // small alphabets for many nested clones, large ones for sparse clones
+      int hashes = 2 + random.nextInt(iteration % 2 == 0 ? 4 : 30);
+      for (int file = 0; file < files; file++) {
+        int blocks = 1 + random.nextInt(25);
+        for (int i = 0; i < blocks; i++) {
+          index.insert(newBlock("f" + file, new ByteArray((long) random.nextInt(hashes)), i));
+        }
+      }
+
+      Map<String, List<CloneGroup>> result = SuffixTreeCloneDetectionAlgorithm.detectAll(index);
+
+      for (int file = 0; file < files; file++) {
+        List<CloneGroup> clones = result.get("f" + file);
+        assertSameCloneGroups(index, "f" + file, clones == null ? Collections.emptyList() : clones);
+      }
+    }
+  }
+
+  @Test
+  public void detectAll_returns_empty_map_when_no_duplications() {
+    PackedMemoryCloneIndex index = createPackedIndex(
+      "a", "1 2 3",
+      "b", "4 5");
+
+    assertThat(SuffixTreeCloneDetectionAlgorithm.detectAll(index).isEmpty(), is(true));
+  }
+
+  private static void assertSameCloneGroups(CloneIndex index, String resourceId, List<CloneGroup> clones) {
+    List<CloneGroup> expected = SuffixTreeCloneDetectionAlgorithm.detect(index, index.getByResourceId(resourceId));
+    assertEquals(expected.size(), clones.size());
+    assertEquals(new HashSet<>(expected), new HashSet<>(clones));
+  }
+
+  /**
+   * @param resourcesAndHashes resource ids, each one followed by the hashes of its blocks
+   */
+  private static PackedMemoryCloneIndex createPackedIndex(String... resourcesAndHashes) {
+    PackedMemoryCloneIndex index = new PackedMemoryCloneIndex(8, 16);
+    for (int i = 0; i < resourcesAndHashes.length; i += 2) {
+      String[] hashes = resourcesAndHashes[i + 1].split(" ");
+      for (int j = 0; j < hashes.length; j++) {
+        index.insert(newBlock(resourcesAndHashes[i], new ByteArray(Long.parseLong(hashes[j])), j));
+      }
+    }
+    return index;
+  }
+
   @Override
   protected List<CloneGroup> detect(CloneIndex index, Block[] fileBlocks) {
     return SuffixTreeCloneDetectionAlgorithm.detect(index, Arrays.asList(fileBlocks));
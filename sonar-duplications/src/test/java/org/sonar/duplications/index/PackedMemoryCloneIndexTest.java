@@ -122,6 +122,26 @@ public class PackedMemoryCloneIndexTest {
     assertThat(index.getByResourceId("a").size(), is(2));
   }
 
+  @Test
+  public void should_find_resources_with_duplicated_blocks() {
+    index.insert(newBlock("a", 1));
+    index.insert(newBlock("a", 2));
+    index.insert(newBlock("b", 2));
+    index.insert(newBlock("c", 3));
+    index.insert(newBlock("d", 4));
+    index.insert(newBlock("d", 4));
+
+    assertThat(index.hasDuplicatedBlocks("a")).isTrue();
+    assertThat(index.hasDuplicatedBlocks("b")).isTrue();
+    assertThat(index.hasDuplicatedBlocks("c")).isFalse();
+    assertThat(index.hasDuplicatedBlocks("d")).isTrue();
+    assertThat(index.hasDuplicatedBlocks("does not exist")).isFalse();
+
+    index.insert(newBlock("e", 3));
+    assertThat(index.hasDuplicatedBlocks("c")).isTrue();
+    assertThat(index.hasDuplicatedBlocks("e")).isTrue();
+  }
+
   /**
    * Given: index, which accepts blocks with 4-byte hash.
    * Expected: exception during insertion of block with 8-byte hash.
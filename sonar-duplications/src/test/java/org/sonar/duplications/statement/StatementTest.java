@@ -24,6 +24,7 @@ import static org.junit.Assert.assertThat;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Test;
 import org.sonar.duplications.token.Token;
@@ -48,4 +49,27 @@ public class StatementTest {
     assertThat(statement.getEndLine(), is(2));
   }
 
+  @Test
+  public void shouldNotBeAffectedByChangesOfListOfTokens() {
+    List<Token> tokens = new ArrayList<>(Arrays.asList(new Token("a", 1, 1), new Token("b", 2, 1)));
+    Statement statement = new Statement(tokens);
+    tokens.set(1, new Token("c", 2, 1));
+    tokens.add(new Token("d", 3, 1));
+
+    assertThat(statement.getValue(), is("ab"));
+    assertThat(statement.getValueHash(), is("ab".hashCode()));
+    assertThat(statement.getEndLine(), is(2));
+  }
+
+  @Test
+  public void shouldComputeHashOfValueWithoutBuildingIt() {
+    Statement statement = new Statement(Arrays.asList(new Token("int", 1, 1), new Token("a", 1, 5), new Token("=", 1, 7),
+      new Token("$NUMBER", 1, 9), new Token(";", 1, 10), new Token("", 1, 11)));
+    assertThat(statement.getValueHash(), is("inta=$NUMBER;".hashCode()));
+    assertThat(statement.getValue(), is("inta=$NUMBER;"));
+    assertThat(statement.hashCode(), is(new Statement(1, 1, "inta=$NUMBER;").hashCode()));
+    assertThat(statement.equals(new Statement(1, 1, "inta=$NUMBER;")), is(true));
+    assertThat(statement.equals(new Statement(1, 1, "inta=$NUMBER")), is(false));
+  }
+
 }
@@ -19,6 +19,8 @@
  */
 package org.sonar.markdown;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.sonar.channel.ChannelDispatcher;
 import org.sonar.channel.CodeReader;
@@ -28,6 +30,22 @@ import org.sonar.channel.CodeReader;
  */
 public final class Markdown {
 
+  /**
+   * Channels are stateful and compile their regular expressions when created, so
+   * each thread reuses its own instance instead of creating one per conversion.
+   */
+  private static final ThreadLocal<Markdown> INSTANCES = ThreadLocal.withInitial(Markdown::new);
+
+  static final int CACHE_MAX_ENTRIES = 1_000;
+  static final int CACHE_MAX_INPUT_LENGTH = 4_096;
+
+  /**
+   * Recently converted texts. Rule descriptions and issue comments are rendered again on each request.
+   */
+  private static final Cache<String, String> CACHE = CacheBuilder.newBuilder()
+    .maximumSize(CACHE_MAX_ENTRIES)
+    .build();
+
   private ChannelDispatcher<MarkdownOutput> dispatcher;
 
   private Markdown() {
@@ -48,12 +66,24 @@ public final class Markdown {
 
   private String convert(String input) {
     CodeReader reader = new CodeReader(input);
-    MarkdownOutput output = new MarkdownOutput();
+    MarkdownOutput output = new MarkdownOutput(input.length());
     dispatcher.consume(reader, output);
     return output.toString();
   }
 
   public static String convertToHtml(String input) {
-    return new Markdown().convert(StringEscapeUtils.escapeHtml(input));
+    if (input.length() > CACHE_MAX_INPUT_LENGTH) {
+      return INSTANCES.get().convert(StringEscapeUtils.escapeHtml(input));
+    }
+    String html = CACHE.getIfPresent(input);
+    if (html == null) {
+      html = INSTANCES.get().convert(StringEscapeUtils.escapeHtml(input));
+      CACHE.put(input, html);
+    }
+    return html;
+  }
+
+  static long cacheSize() {
+    return CACHE.size();
   }
 }
@@ -21,7 +21,11 @@ package org.sonar.markdown;
 
 class MarkdownOutput {
 
-  private StringBuilder ouput = new StringBuilder();
+  private final StringBuilder ouput;
+
+  MarkdownOutput(int expectedLength) {
+    ouput = new StringBuilder(expectedLength + expectedLength / 4);
+  }
 
   public Appendable append(CharSequence charSequence) {
     return ouput.append(charSequence);
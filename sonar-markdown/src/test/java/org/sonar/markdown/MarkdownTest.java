@@ -19,6 +19,7 @@
  */
 package org.sonar.markdown;
 
+import org.apache.commons.lang.StringUtils;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -116,4 +117,27 @@ public class MarkdownTest {
     assertThat(Markdown.convertToHtml("My text is $123 ''")).isEqualTo("My text is $123 ''");
   }
 
+  @Test
+  public void shouldReturnSameHtmlWhenConvertingAgain() {
+    String input = "* one\r* *two*\r\n[link](http://sonarqube.org)";
+    String html = Markdown.convertToHtml(input);
+
+    assertThat(Markdown.convertToHtml(new String(input))).isEqualTo(html);
+    assertThat(Markdown.convertToHtml(input + " ")).isEqualTo(html + " ");
+  }
+
+  @Test
+  public void shouldBoundCacheOfConvertedTexts() {
+    for (int i = 0; i < Markdown.CACHE_MAX_ENTRIES + 10; i++) {
+      assertThat(Markdown.convertToHtml("*text " + i + "*")).isEqualTo("<strong>text " + i + "</strong>");
+    }
+    assertThat(Markdown.cacheSize()).isLessThanOrEqualTo(Markdown.CACHE_MAX_ENTRIES);
+  }
+
+  @Test
+  public void shouldConvertTextLongerThanCachedTexts() {
+    String input = StringUtils.repeat("a", Markdown.CACHE_MAX_INPUT_LENGTH) + "\n*bold*";
+
+    assertThat(Markdown.convertToHtml(input)).endsWith("a<br/><strong>bold</strong>");
+  }
 }
@@ -26,6 +26,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -330,6 +331,15 @@ public abstract class Request {
    */
   public abstract String getPath();
 
+  /**
+   * Returns the value of the HTTP header with the specified name, or empty if the request does not contain
+   * this header or if headers are not supported, for example when web services are called locally.
+   * @since 6.3
+   */
+  public Optional<String> header(String name) {
+    return Optional.empty();
+  }
+
   /**
    * @since 6.0
    */
@@ -42,6 +42,7 @@ import org.sonarqube.ws.client.WsResponse;
 import static java.lang.String.format;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
 import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
 
 public class ScannerWsClient {
@@ -103,7 +104,10 @@ public class ScannerWsClient {
       // SONAR-4397 Details are in response content
       throw MessageException.of(tryParseAsJsonError(response.content()));
     }
-    response.failIfNotSuccessful();
+    if (code != HTTP_NOT_MODIFIED) {
+      // not modified is returned only to requests with conditional headers, which handle it
+      response.failIfNotSuccessful();
+    }
   }
 
   private static String tryParseAsJsonError(String responseContent) {
@@ -23,13 +23,16 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import javax.annotation.CheckForNull;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.config.Settings;
 import org.sonar.api.utils.log.Logger;
@@ -61,6 +64,13 @@ public class CpdExecutor {
   private static final int TIMEOUT = 5 * 60 * 1000;
   static final int MAX_CLONE_GROUP_PER_FILE = 100;
   static final int MAX_CLONE_PART_PER_GROUP = 100;
+  /**
+   * When enabled, duplications of all files are detected at once with a single suffix tree
+   * (see {@link SuffixTreeCloneDetectionAlgorithm#detectAll}) instead of one suffix tree per file.
+   * Much faster when many files share the same blocks (generated code, copied libraries), but the suffix tree
+   * of all the duplicated blocks of the project must fit in memory.
+   */
+  static final String PROJECT_WIDE_DETECTION_PROPERTY = "sonar.cpd.projectWideDetection";
 
   private final SonarCpdBlockIndex index;
   private final ReportPublisher publisher;
@@ -88,11 +98,24 @@ public class CpdExecutor {
     progressReport.start(String.format("Calculating CPD for %d files", total));
     ExecutorService executorService = Executors.newSingleThreadExecutor();
     try {
+      Map<String, List<CloneGroup>> projectDuplications = null;
+      if (settings.getBoolean(PROJECT_WIDE_DETECTION_PROPERTY)) {
+        projectDuplications = runProjectWideCpdAnalysis(executorService, timeout);
+        if (projectDuplications == null) {
+          // the thread of the detection which timed out can't be reused
+          executorService.shutdownNow();
+          executorService = Executors.newSingleThreadExecutor();
+        }
+      }
       Iterator<ResourceBlocks> it = index.iterator();
 
       while (it.hasNext()) {
         ResourceBlocks resourceBlocks = it.next();
-        runCpdAnalysis(executorService, resourceBlocks.resourceId(), resourceBlocks.blocks(), timeout);
+        if (projectDuplications == null) {
+          runCpdAnalysis(executorService, resourceBlocks.resourceId(), resourceBlocks.blocks(), timeout);
+        } else {
+          saveProjectWideCpdAnalysis(resourceBlocks.resourceId(), projectDuplications);
+        }
         count++;
       }
       progressReport.stop("CPD calculation finished");
@@ -104,17 +127,46 @@ public class CpdExecutor {
     }
   }
 
+  /**
+   * @return the duplications by resource of all the files of the index, or {@code null} if detection timed out
+   */
+  @CheckForNull
+  private Map<String, List<CloneGroup>> runProjectWideCpdAnalysis(ExecutorService executorService, long timeout) {
+    LOG.debug("Detection of duplications for all files");
+    Future<Map<String, List<CloneGroup>>> futureResult = executorService.submit(() -> SuffixTreeCloneDetectionAlgorithm.detectAll(index));
+    try {
+      return futureResult.get(timeout, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      LOG.warn("Timeout during detection of duplications for all files. Detecting duplications file by file.");
+      futureResult.cancel(true);
+      return null;
+    } catch (Exception e) {
+      throw new IllegalStateException("Fail during detection of duplications", e);
+    }
+  }
+
+  private void saveProjectWideCpdAnalysis(String componentKey, Map<String, List<CloneGroup>> projectDuplications) {
+    BatchComponent component = getComponent(componentKey);
+    if (component != null) {
+      List<CloneGroup> duplications = projectDuplications.get(componentKey);
+      saveFilteredDuplications(component, duplications == null ? Collections.emptyList() : duplications);
+    }
+  }
+
   @VisibleForTesting
   void runCpdAnalysis(ExecutorService executorService, String componentKey, final Collection<Block> fileBlocks, long timeout) {
-    BatchComponent component = batchComponentCache.get(componentKey);
+    BatchComponent component = getComponent(componentKey);
     if (component == null) {
-      LOG.error("Resource not found in component cache: {}. Skipping CPD computation for it", componentKey);
       return;
     }
 
     InputFile inputFile = (InputFile) component.inputComponent();
-    LOG.debug("Detection of duplications for {}", inputFile.absolutePath());
-    progressReport.message(String.format("%d/%d - current file: %s", count, total, inputFile.absolutePath()));
+
+    if (!index.hasDuplicatedBlocks(componentKey)) {
+      // none of the blocks of this file appears elsewhere in the project, there's no need to build the suffix tree
+      saveDuplications(component, Collections.emptyList());
+      return;
+    }
 
     List<CloneGroup> duplications;
     Future<List<CloneGroup>> futureResult = executorService.submit(() -> SuffixTreeCloneDetectionAlgorithm.detect(index, fileBlocks));
@@ -128,6 +180,24 @@ public class CpdExecutor {
       throw new IllegalStateException("Fail during detection of duplication for " + inputFile.absolutePath(), e);
     }
 
+    saveFilteredDuplications(component, duplications);
+  }
+
+  @CheckForNull
+  private BatchComponent getComponent(String componentKey) {
+    BatchComponent component = batchComponentCache.get(componentKey);
+    if (component == null) {
+      LOG.error("Resource not found in component cache: {}. Skipping CPD computation for it", componentKey);
+      return null;
+    }
+    InputFile inputFile = (InputFile) component.inputComponent();
+    LOG.debug("Detection of duplications for {}", inputFile.absolutePath());
+    progressReport.message(String.format("%d/%d - current file: %s", count, total, inputFile.absolutePath()));
+    return component;
+  }
+
+  private void saveFilteredDuplications(BatchComponent component, List<CloneGroup> duplications) {
+    InputFile inputFile = (InputFile) component.inputComponent();
     List<CloneGroup> filtered;
     if (!"java".equalsIgnoreCase(inputFile.language())) {
       Predicate<CloneGroup> minimumTokensPredicate = DuplicationPredicates.numberOfUnitsNotLessThan(getMinimumTokens(inputFile.language()));
@@ -31,7 +31,6 @@ import org.sonar.api.config.Settings;
 import org.sonar.duplications.block.Block;
 import org.sonar.duplications.block.ByteArray;
 import org.sonar.duplications.index.AbstractCloneIndex;
-import org.sonar.duplications.index.CloneIndex;
 import org.sonar.duplications.index.PackedMemoryCloneIndex;
 import org.sonar.duplications.index.PackedMemoryCloneIndex.ResourceBlocks;
 import org.sonar.scanner.index.BatchComponentCache;
@@ -41,7 +40,7 @@ import org.sonar.scanner.report.ReportPublisher;
 
 public class SonarCpdBlockIndex extends AbstractCloneIndex {
 
-  private final CloneIndex mem = new PackedMemoryCloneIndex();
+  private final PackedMemoryCloneIndex mem = new PackedMemoryCloneIndex();
   private final ReportPublisher publisher;
   private final BatchComponentCache batchComponentCache;
   private final Settings settings;
@@ -91,6 +90,13 @@ public class SonarCpdBlockIndex extends AbstractCloneIndex {
     return mem.getByResourceId(resourceKey);
   }
 
+  /**
+   * @see PackedMemoryCloneIndex#hasDuplicatedBlocks(String)
+   */
+  public boolean hasDuplicatedBlocks(String resourceKey) {
+    return mem.hasDuplicatedBlocks(resourceKey);
+  }
+
   @Override
   public Collection<Block> getBySequenceHash(ByteArray hash) {
     return mem.getBySequenceHash(hash);
@@ -27,6 +27,7 @@ import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.util.Date;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,17 +46,20 @@ public class DefaultProjectRepositoriesLoader implements ProjectRepositoriesLoad
   private static final Logger LOG = LoggerFactory.getLogger(DefaultProjectRepositoriesLoader.class);
   private static final String BATCH_PROJECT_URL = "/batch/project.protobuf";
   private ScannerWsClient wsClient;
+  private ProjectFileDataCache fileDataCache;
 
-  public DefaultProjectRepositoriesLoader(ScannerWsClient wsClient) {
+  public DefaultProjectRepositoriesLoader(ScannerWsClient wsClient, ProjectFileDataCache fileDataCache) {
     this.wsClient = wsClient;
+    this.fileDataCache = fileDataCache;
   }
 
   @Override
   public ProjectRepositories load(String projectKey, boolean issuesMode) {
-    GetRequest request = new GetRequest(getUrl(projectKey, issuesMode));
+    WsProjectResponse cached = fileDataCache.get(projectKey);
+    GetRequest request = new GetRequest(getUrl(projectKey, issuesMode, cached));
     try (WsResponse response = wsClient.call(request)) {
       InputStream is = response.contentStream();
-      return processStream(is, projectKey);
+      return processStream(is, projectKey, cached);
     } catch (RuntimeException e) {
       if (shouldThrow(e)) {
         throw e;
@@ -66,7 +70,7 @@ public class DefaultProjectRepositoriesLoader implements ProjectRepositoriesLoad
     }
   }
 
-  private static String getUrl(String projectKey, boolean issuesMode) {
+  private static String getUrl(String projectKey, boolean issuesMode, @Nullable WsProjectResponse cached) {
     StringBuilder builder = new StringBuilder();
 
     builder.append(BATCH_PROJECT_URL)
@@ -74,6 +78,9 @@ public class DefaultProjectRepositoriesLoader implements ProjectRepositoriesLoad
     if (issuesMode) {
       builder.append("&issues_mode=true");
     }
+    if (cached != null && cached.hasFileDataVersion()) {
+      builder.append("&file_data_version=").append(ScannerUtils.encodeForUrl(cached.getFileDataVersion()));
+    }
     return builder.toString();
   }
 
@@ -91,9 +98,16 @@ public class DefaultProjectRepositoriesLoader implements ProjectRepositoriesLoad
     return false;
   }
 
-  private static ProjectRepositories processStream(InputStream is, String projectKey) {
+  private ProjectRepositories processStream(InputStream is, String projectKey, @Nullable WsProjectResponse cached) {
     try {
       WsProjectResponse response = WsProjectResponse.parseFrom(is);
+      WsProjectResponse fileDataResponse = response;
+      if (response.getFileDataUnchanged() && cached != null) {
+        LOG.debug("File data of project {} are unchanged since last analysis, using local copy", projectKey);
+        fileDataResponse = cached;
+      } else {
+        fileDataCache.put(projectKey, response);
+      }
 
       Table<String, String, FileData> fileDataTable = HashBasedTable.create();
       Table<String, String, String> settings = HashBasedTable.create();
@@ -105,7 +119,7 @@ public class DefaultProjectRepositoriesLoader implements ProjectRepositoriesLoad
         }
       }
 
-      Map<String, FileDataByPath> fileDataByModuleAndPath = response.getFileDataByModuleAndPath();
+      Map<String, FileDataByPath> fileDataByModuleAndPath = fileDataResponse.getFileDataByModuleAndPath();
       for (Map.Entry<String, FileDataByPath> e1 : fileDataByModuleAndPath.entrySet()) {
         for (Map.Entry<String, WsBatch.WsProjectResponse.FileData> e2 : e1.getValue().getFileDataByPath().entrySet()) {
           FileData fd = new FileData(e2.getValue().getHash(), e2.getValue().getRevision());
@@ -20,29 +20,61 @@
 package org.sonar.scanner.repository;
 
 import com.google.common.base.Function;
+import com.google.common.net.HttpHeaders;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.Optional;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.apache.commons.io.IOUtils;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
 import org.sonar.scanner.bootstrap.ScannerWsClient;
 import org.sonar.scanner.protocol.input.ScannerInput.ServerIssue;
 import org.sonar.scanner.util.ScannerUtils;
 import org.sonarqube.ws.client.GetRequest;
+import org.sonarqube.ws.client.WsResponse;
 
 public class DefaultServerIssuesLoader implements ServerIssuesLoader {
 
+  private static final Logger LOG = Loggers.get(DefaultServerIssuesLoader.class);
+
   private final ScannerWsClient wsClient;
+  private final ServerIssuesCache issuesCache;
 
-  public DefaultServerIssuesLoader(ScannerWsClient wsClient) {
+  public DefaultServerIssuesLoader(ScannerWsClient wsClient, ServerIssuesCache issuesCache) {
     this.wsClient = wsClient;
+    this.issuesCache = issuesCache;
   }
 
   @Override
   public void load(String componentKey, Function<ServerIssue, Void> consumer) {
-    GetRequest getRequest = new GetRequest("/batch/issues.protobuf?key=" + ScannerUtils.encodeForUrl(componentKey));
-    InputStream is = wsClient.call(getRequest).contentStream();
+    InputStream is = call(componentKey, issuesCache.etag(componentKey));
+    if (is == null) {
+      // local copy removed in the meantime
+      is = call(componentKey, null);
+    }
     parseIssues(is, consumer);
   }
 
+  @CheckForNull
+  private InputStream call(String componentKey, @Nullable String etag) {
+    GetRequest getRequest = new GetRequest("/batch/issues.protobuf?key=" + ScannerUtils.encodeForUrl(componentKey))
+      .setHeader(HttpHeaders.IF_NONE_MATCH, etag);
+    WsResponse response = wsClient.call(getRequest);
+    if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+      response.close();
+      LOG.debug("Issues of {} are unchanged since last analysis, using local copy", componentKey);
+      return issuesCache.get(componentKey);
+    }
+    Optional<String> newEtag = response.header(HttpHeaders.ETAG);
+    if (newEtag.isPresent()) {
+      return issuesCache.put(componentKey, newEtag.get(), response.contentStream());
+    }
+    return response.contentStream();
+  }
+
   private static void parseIssues(InputStream is, Function<ServerIssue, Void> consumer) {
     try {
       ServerIssue previousIssue = ServerIssue.parseDelimitedFrom(is);
@@ -0,0 +1,153 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.picocontainer.Startable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.home.cache.FileCache;
+import org.sonar.scanner.bootstrap.ScannerWsClient;
+import org.sonarqube.ws.WsBatch.WsProjectResponse;
+
+/**
+ * Keeps in the local user cache the file data of projects (paths, hashes and revisions), as returned by
+ * the last call to batch/project, so that they are downloaded again only when a new analysis
+ * has been processed by server.
+ * <p/>
+ * Entries of the directory, including the ones of {@link ServerIssuesCache}, are removed when
+ * not used for {@value #MAX_UNUSED_DAYS} days, so that projects which are no longer analyzed
+ * do not fill the user cache.
+ */
+public class ProjectFileDataCache implements Startable {
+
+  private static final Logger LOG = Loggers.get(ProjectFileDataCache.class);
+  static final String DIR_NAME = "_projects";
+  static final int MAX_UNUSED_DAYS = 30;
+
+  private final FileCache fileCache;
+  private final ScannerWsClient wsClient;
+
+  public ProjectFileDataCache(FileCache fileCache, ScannerWsClient wsClient) {
+    this.fileCache = fileCache;
+    this.wsClient = wsClient;
+  }
+
+  /**
+   * @return the cached response, containing only file data and their version, or {@code null} if not cached.
+   */
+  @CheckForNull
+  public WsProjectResponse get(String projectKey) {
+    Path file = cacheFile(projectKey);
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    try (InputStream input = Files.newInputStream(file)) {
+      WsProjectResponse response = WsProjectResponse.parseFrom(input);
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+      return response;
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Fail to read cached file data of project " + projectKey, e);
+      return null;
+    }
+  }
+
+  /**
+   * Caches the file data of the response, or removes the cached ones if the response is not versioned.
+   */
+  public void put(String projectKey, WsProjectResponse response) {
+    if (!response.hasFileDataVersion()) {
+      remove(projectKey);
+      return;
+    }
+    WsProjectResponse fileData = WsProjectResponse.newBuilder()
+      .setFileDataVersion(response.getFileDataVersion())
+      .putAllFileDataByModuleAndPath(response.getFileDataByModuleAndPath())
+      .build();
+    Path file = cacheFile(projectKey);
+    try {
+      Files.createDirectories(file.getParent());
+      // write to a temporary file first, so that a concurrent analysis never reads a partially written file
+      Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+      try (OutputStream output = Files.newOutputStream(tmp)) {
+        fileData.writeTo(output);
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Fail to cache file data of project " + projectKey, e);
+    }
+  }
+
+  public void remove(String projectKey) {
+    try {
+      Files.deleteIfExists(cacheFile(projectKey));
+    } catch (IOException e) {
+      LOG.debug("Fail to delete cached file data of project " + projectKey, e);
+    }
+  }
+
+  @Override
+  public void start() {
+    Path dir = new File(fileCache.getDir(), DIR_NAME).toPath();
+    if (!Files.isDirectory(dir)) {
+      return;
+    }
+    long threshold = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(MAX_UNUSED_DAYS);
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+      for (Path entry : entries) {
+        deleteIfOlderThan(entry, threshold);
+      }
+    } catch (IOException e) {
+      LOG.debug("Fail to clean " + dir, e);
+    }
+  }
+
+  private static void deleteIfOlderThan(Path entry, long threshold) {
+    try {
+      if (Files.getLastModifiedTime(entry).toMillis() < threshold) {
+        Files.deleteIfExists(entry);
+      }
+    } catch (IOException e) {
+      LOG.debug("Fail to delete " + entry, e);
+    }
+  }
+
+  @Override
+  public void stop() {
+    // nothing to do
+  }
+
+  private Path cacheFile(String projectKey) {
+    String key = DigestUtils.md5Hex((wsClient.baseUrl() + "|" + projectKey).getBytes(StandardCharsets.UTF_8));
+    return new File(fileCache.getDir(), DIR_NAME).toPath().resolve(key + ".protobuf");
+  }
+}
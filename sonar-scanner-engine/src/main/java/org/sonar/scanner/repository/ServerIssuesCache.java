@@ -0,0 +1,215 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.repository;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import javax.annotation.CheckForNull;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.home.cache.FileCache;
+import org.sonar.scanner.bootstrap.ScannerWsClient;
+
+/**
+ * Keeps in the local user cache the issues returned by the last call to batch/issues, with their ETag,
+ * so that they are downloaded again only when changed on server. Entries are stored in the same
+ * directory as {@link ProjectFileDataCache}, which evicts them when unused.
+ */
+public class ServerIssuesCache {
+
+  private static final Logger LOG = Loggers.get(ServerIssuesCache.class);
+
+  private final FileCache fileCache;
+  private final ScannerWsClient wsClient;
+
+  public ServerIssuesCache(FileCache fileCache, ScannerWsClient wsClient) {
+    this.fileCache = fileCache;
+    this.wsClient = wsClient;
+  }
+
+  /**
+   * @return the ETag of the cached issues, or {@code null} if not cached.
+   */
+  @CheckForNull
+  public String etag(String componentKey) {
+    Path file = cacheFile(componentKey);
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    try (DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+      return input.readUTF();
+    } catch (IOException e) {
+      LOG.debug("Fail to read cached issues of " + componentKey, e);
+      return null;
+    }
+  }
+
+  /**
+   * @return the cached issues, as returned by batch/issues, or {@code null} if not cached.
+   */
+  @CheckForNull
+  public InputStream get(String componentKey) {
+    Path file = cacheFile(componentKey);
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    DataInputStream input = null;
+    try {
+      // entries are evicted when not used for a while, see ProjectFileDataCache
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+      input = new DataInputStream(Files.newInputStream(file));
+      input.readUTF();
+      return input;
+    } catch (IOException e) {
+      IOUtils.closeQuietly(input);
+      LOG.debug("Fail to read cached issues of " + componentKey, e);
+      return null;
+    }
+  }
+
+  /**
+   * Wraps the issues being downloaded so that they are cached with the given ETag while read.
+   * The cached entry is replaced only once the stream has been read until its end then closed.
+   */
+  public InputStream put(String componentKey, String etag, InputStream issues) {
+    Path file = cacheFile(componentKey);
+    try {
+      Files.createDirectories(file.getParent());
+      // write to a temporary file first, so that a concurrent analysis never reads a partially written file
+      Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+      DataOutputStream output = new DataOutputStream(Files.newOutputStream(tmp));
+      output.writeUTF(etag);
+      return new CachingInputStream(issues, output, tmp, file);
+    } catch (IOException e) {
+      LOG.debug("Fail to cache issues of " + componentKey, e);
+      return issues;
+    }
+  }
+
+  private Path cacheFile(String componentKey) {
+    String key = DigestUtils.md5Hex((wsClient.baseUrl() + "|" + componentKey).getBytes(StandardCharsets.UTF_8));
+    return new File(fileCache.getDir(), ProjectFileDataCache.DIR_NAME).toPath().resolve(key + ".issues");
+  }
+
+  /**
+   * Copies read bytes to a temporary file. Failing to write them disables caching but
+   * does not fail the read.
+   */
+  private static class CachingInputStream extends FilterInputStream {
+    private final OutputStream output;
+    private final Path tmp;
+    private final Path target;
+    private boolean failed = false;
+    private boolean ended = false;
+    private boolean closed = false;
+
+    CachingInputStream(InputStream in, OutputStream output, Path tmp, Path target) {
+      super(in);
+      this.output = output;
+      this.tmp = tmp;
+      this.target = target;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b == -1) {
+        ended = true;
+      } else if (!failed) {
+        try {
+          output.write(b);
+        } catch (IOException e) {
+          fail(e);
+        }
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int count = super.read(b, off, len);
+      if (count == -1) {
+        ended = true;
+      } else if (!failed) {
+        try {
+          output.write(b, off, count);
+        } catch (IOException e) {
+          fail(e);
+        }
+      }
+      return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      // skipped bytes are not cached
+      failed = true;
+      return super.skip(n);
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        super.close();
+      } finally {
+        commit();
+      }
+    }
+
+    private void commit() {
+      try {
+        output.close();
+        if (ended && !failed) {
+          Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } else {
+          Files.deleteIfExists(tmp);
+        }
+      } catch (IOException e) {
+        LOG.debug("Fail to cache issues in " + target, e);
+      }
+    }
+
+    private void fail(IOException e) {
+      LOG.debug("Fail to cache issues in " + target, e);
+      failed = true;
+    }
+  }
+}
@@ -72,11 +72,13 @@ import org.sonar.scanner.repository.ContextPropertiesCache;
 import org.sonar.scanner.repository.DefaultProjectRepositoriesLoader;
 import org.sonar.scanner.repository.DefaultQualityProfileLoader;
 import org.sonar.scanner.repository.DefaultServerIssuesLoader;
+import org.sonar.scanner.repository.ProjectFileDataCache;
 import org.sonar.scanner.repository.ProjectRepositories;
 import org.sonar.scanner.repository.ProjectRepositoriesLoader;
 import org.sonar.scanner.repository.ProjectRepositoriesProvider;
 import org.sonar.scanner.repository.QualityProfileLoader;
 import org.sonar.scanner.repository.QualityProfileProvider;
+import org.sonar.scanner.repository.ServerIssuesCache;
 import org.sonar.scanner.repository.ServerIssuesLoader;
 import org.sonar.scanner.repository.language.DefaultLanguagesRepository;
 import org.sonar.scanner.repository.user.UserRepositoryLoader;
@@ -143,6 +145,8 @@ public class ProjectScanContainer extends ComponentContainer {
       BatchComponentCache.class,
       DefaultIssueCallback.class,
       new RulesProvider(),
+      ProjectFileDataCache.class,
+      ServerIssuesCache.class,
       new ProjectRepositoriesProvider(),
 
       // temp
@@ -19,56 +19,150 @@
  */
 package org.sonar.scanner.scan.measure;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.ScannerSide;
 import org.sonar.api.batch.measure.MetricFinder;
 import org.sonar.api.batch.sensor.measure.internal.DefaultMeasure;
 import org.sonar.scanner.storage.Storage;
 import org.sonar.scanner.storage.Storages;
-import org.sonar.scanner.storage.Storage.Entry;
 
 /**
  * Cache of all measures. This cache is shared amongst all project modules.
+ * <p>
+ * Measures are kept in memory, indexed by component, as long as their estimated size fits in a budget.
+ * Measures which do not fit are moved to the disk storage.
  */
 @ScannerSide
 public class MeasureCache {
 
-  private final Storage<DefaultMeasure<?>> cache;
+  private static final long DEFAULT_MAX_MEMORY_BYTES = 64L * 1024 * 1024;
+
+  /**
+   * Estimated memory used by a measure with compressed oops: the {@link DefaultMeasure} (32 bytes),
+   * its boxed numeric value (24 bytes) and its node and indexes in the skip list of its component (40 bytes).
+   */
+  static final long MEASURE_BYTES = 96L;
+
+  /**
+   * Estimated memory used by a textual value, excluding its characters: the {@link String} and the header
+   * of its array of chars.
+   */
+  static final long STRING_BYTES = 40L;
+
+  /**
+   * Estimated memory used by the skip list of the measures of a component, and by its entry in the map of components.
+   */
+  static final long COMPONENT_BYTES = 160L;
+
+  private final ConcurrentMap<String, Map<String, DefaultMeasure<?>>> measuresByComponent = new ConcurrentSkipListMap<>();
+  private final Storage<DefaultMeasure<?>> spilled;
+  private final long maxMemoryBytes;
+  private final AtomicLong memoryBytes = new AtomicLong();
+  private volatile boolean hasSpilled = false;
 
   public MeasureCache(Storages caches, MetricFinder metricFinder) {
-    caches.registerValueCoder(DefaultMeasure.class, new MeasureValueCoder(metricFinder));
-    cache = caches.createCache("measures");
+    this(caches, metricFinder, DEFAULT_MAX_MEMORY_BYTES);
   }
 
-  public Iterable<Entry<DefaultMeasure<?>>> entries() {
-    return cache.entries();
+  @VisibleForTesting
+  MeasureCache(Storages caches, MetricFinder metricFinder, long maxMemoryBytes) {
+    caches.registerValueCoder(DefaultMeasure.class, new MeasureValueCoder(metricFinder));
+    this.spilled = caches.createCache("measures");
+    this.maxMemoryBytes = maxMemoryBytes;
   }
 
+  /**
+   * Measures kept in memory, sorted by component key then metric key, followed by the measures moved
+   * to the disk storage, sorted the same way.
+   */
   public Iterable<DefaultMeasure<?>> all() {
-    return cache.values();
+    Iterable<DefaultMeasure<?>> inMemory = () -> measuresByComponent.values().stream().flatMap(m -> m.values().stream()).iterator();
+    return hasSpilled ? Iterables.concat(inMemory, spilled.values()) : inMemory;
   }
 
   public Iterable<DefaultMeasure<?>> byComponentKey(String effectiveKey) {
-    return cache.values(effectiveKey);
+    Map<String, DefaultMeasure<?>> measures = measuresByComponent.getOrDefault(effectiveKey, Collections.emptyMap());
+    return hasSpilled ? Iterables.concat(measures.values(), spilled.values(effectiveKey)) : measures.values();
   }
 
   @CheckForNull
   public DefaultMeasure<?> byMetric(String componentKey, String metricKey) {
-    return cache.get(componentKey, metricKey);
+    DefaultMeasure<?> measure = measuresByComponent.getOrDefault(componentKey, Collections.emptyMap()).get(metricKey);
+    if (measure != null || !hasSpilled) {
+      return measure;
+    }
+    return spilled.get(componentKey, metricKey);
   }
 
   public MeasureCache put(String componentKey, String metricKey, DefaultMeasure<?> measure) {
     Preconditions.checkNotNull(componentKey);
     Preconditions.checkNotNull(metricKey);
-    cache.put(componentKey, metricKey, measure);
+    Map<String, DefaultMeasure<?>> measures = measuresOf(componentKey);
+    if (reserve(memoryBytes(measure))) {
+      release(measures.put(metricKey, measure));
+      if (hasSpilled) {
+        spilled.remove(componentKey, metricKey);
+      }
+    } else {
+      release(measures.remove(metricKey));
+      hasSpilled = true;
+      spilled.put(componentKey, metricKey, measure);
+    }
     return this;
   }
 
+  private Map<String, DefaultMeasure<?>> measuresOf(String componentKey) {
+    Map<String, DefaultMeasure<?>> measures = measuresByComponent.get(componentKey);
+    if (measures == null) {
+      // contrary to computeIfAbsent() of ConcurrentSkipListMap, the map is counted only once in memory
+      Map<String, DefaultMeasure<?>> created = new ConcurrentSkipListMap<>();
+      measures = measuresByComponent.putIfAbsent(componentKey, created);
+      if (measures == null) {
+        memoryBytes.addAndGet(COMPONENT_BYTES);
+        measures = created;
+      }
+    }
+    return measures;
+  }
+
+  /**
+   * Atomically adds {@code bytes} to the memory used by measures, unless it would exceed the budget.
+   */
+  private boolean reserve(long bytes) {
+    long current;
+    do {
+      current = memoryBytes.get();
+      if (current + bytes > maxMemoryBytes) {
+        return false;
+      }
+    } while (!memoryBytes.compareAndSet(current, current + bytes));
+    return true;
+  }
+
   public boolean contains(String componentKey, String metricKey) {
     Preconditions.checkNotNull(componentKey);
     Preconditions.checkNotNull(metricKey);
-    return cache.containsKey(componentKey, metricKey);
+    return measuresByComponent.getOrDefault(componentKey, Collections.emptyMap()).containsKey(metricKey)
+      || (hasSpilled && spilled.containsKey(componentKey, metricKey));
   }
 
+  private void release(@Nullable DefaultMeasure<?> replaced) {
+    if (replaced != null) {
+      memoryBytes.addAndGet(-memoryBytes(replaced));
+    }
+  }
+
+  private static long memoryBytes(DefaultMeasure<?> measure) {
+    Object value = measure.value();
+    return value instanceof String ? (MEASURE_BYTES + STRING_BYTES + 2L * ((String) value).length()) : MEASURE_BYTES;
+  }
 }
@@ -214,6 +214,26 @@ public class CpdExecutorTest {
     assertThat(logTester.logs(LoggerLevel.ERROR)).contains("Resource not found in component cache: unknown. Skipping CPD computation for it");
   }
 
+  @Test
+  public void skip_detection_when_no_block_is_duplicated() {
+    List<Block> blocks = new ArrayList<>();
+    for (int j = 1; j <= 10; j++) {
+      blocks.add(Block.builder()
+        .setResourceId(batchComponent1.key())
+        .setIndexInFile(j)
+        .setLines(j, j + 1)
+        .setUnit(j, j + 1)
+        .setBlockHash(new ByteArray((long) j))
+        .build());
+    }
+    index.insert((InputFile) batchComponent1.inputComponent(), blocks);
+
+    // no executor: detection must not be submitted
+    executor.runCpdAnalysis(null, batchComponent1.key(), blocks, 1);
+
+    readDuplications(0);
+  }
+
   @Test
   public void timeout() {
     for (int i = 1; i <= 2; i++) {
@@ -240,6 +260,75 @@ public class CpdExecutorTest {
         "Timeout during detection of duplications for .*Foo2.php");
   }
 
+  @Test
+  public void detect_duplications_file_by_file() {
+    insertBlocks(batchComponent1, 1, 2, 3, 4, 5);
+    insertBlocks(batchComponent2, 3, 4, 5, 6, 7);
+
+    executor.execute();
+
+    Duplication[] dups = readDuplications(1);
+    assertDuplication(dups[0], 3, 6, batchComponent2.batchId(), 1, 4);
+  }
+
+  @Test
+  public void detect_duplications_of_all_files_at_once() {
+    settings.setProperty("sonar.cpd.projectWideDetection", true);
+    insertBlocks(batchComponent1, 1, 2, 3, 4, 5);
+    insertBlocks(batchComponent2, 3, 4, 5, 6, 7);
+    insertBlocks(batchComponent3, 8, 9);
+
+    executor.execute();
+
+    Duplication[] dups = readDuplications(1);
+    assertDuplication(dups[0], 3, 6, batchComponent2.batchId(), 1, 4);
+    assertThat(reader.readComponentDuplications(batchComponent3.batchId())).isEmpty();
+  }
+
+  @Test
+  public void detect_duplications_file_by_file_if_detection_of_all_files_times_out() {
+    settings.setProperty("sonar.cpd.projectWideDetection", true);
+    for (int i = 1; i <= 2; i++) {
+      BatchComponent component = createComponent("src/Foo" + i + ".php", 100);
+      List<Block> blocks = new ArrayList<>();
+      for (int j = 1; j <= 1000; j++) {
+        blocks.add(Block.builder()
+          .setResourceId(component.key())
+          .setIndexInFile(j)
+          .setLines(j, j + 1)
+          .setUnit(j, j + 1)
+          .setBlockHash(new ByteArray("abcd1234".getBytes()))
+          .build());
+      }
+      index.insert((InputFile) component.inputComponent(), blocks);
+    }
+    executor.execute(1);
+
+    assertThat(logTester.logs(LoggerLevel.WARN))
+      .usingElementComparator((l, r) -> l.matches(r) ? 0 : 1)
+      .containsOnly(
+        "Timeout during detection of duplications for all files. Detecting duplications file by file.",
+        "Timeout during detection of duplications for .*Foo1.php",
+        "Timeout during detection of duplications for .*Foo2.php");
+  }
+
+  /**
+   * Inserts one block per hash, each block spanning two lines and 100 units
+   */
+  private void insertBlocks(BatchComponent component, long... hashes) {
+    List<Block> blocks = new ArrayList<>();
+    for (int i = 0; i < hashes.length; i++) {
+      blocks.add(Block.builder()
+        .setResourceId(component.key())
+        .setIndexInFile(i)
+        .setLines(i + 1, i + 2)
+        .setUnit(i * 100, i * 100 + 99)
+        .setBlockHash(new ByteArray(hashes[i]))
+        .build());
+    }
+    index.insert((InputFile) component.inputComponent(), blocks);
+  }
+
   private Duplication[] readDuplications(int expected) {
     assertThat(reader.readComponentDuplications(batchComponent1.batchId())).hasSize(expected);
     Duplication[] duplications = new Duplication[expected];
@@ -37,7 +37,10 @@ import org.sonarqube.ws.client.WsRequest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class DefaultProjectRepositoriesLoaderTest {
@@ -47,13 +50,15 @@ public class DefaultProjectRepositoriesLoaderTest {
 
   private DefaultProjectRepositoriesLoader loader;
   private ScannerWsClient wsClient;
+  private ProjectFileDataCache fileDataCache;
 
   @Before
   public void prepare() throws IOException {
     wsClient = mock(ScannerWsClient.class);
     InputStream is = mockData();
     WsTestUtil.mockStream(wsClient, "/batch/project.protobuf?key=foo%3F", is);
-    loader = new DefaultProjectRepositoriesLoader(wsClient);
+    fileDataCache = mock(ProjectFileDataCache.class);
+    loader = new DefaultProjectRepositoriesLoader(wsClient, fileDataCache);
   }
 
   @Test
@@ -110,6 +115,42 @@ public class DefaultProjectRepositoriesLoaderTest {
     WsTestUtil.verifyCall(wsClient, "/batch/project.protobuf?key=foo%3F");
   }
 
+  @Test
+  public void cache_file_data() throws IOException {
+    WsProjectResponse response = WsProjectResponse.newBuilder().setFileDataVersion("ABCD").build();
+    WsTestUtil.mockStream(wsClient, "/batch/project.protobuf?key=foo%3F", toStream(response));
+
+    loader.load(PROJECT_KEY, false);
+
+    verify(fileDataCache).put(PROJECT_KEY, response);
+  }
+
+  @Test
+  public void use_cached_file_data_when_unchanged() throws IOException {
+    WsProjectResponse cached = WsProjectResponse.newBuilder()
+      .setFileDataVersion("ABCD")
+      .putFileDataByModuleAndPath(PROJECT_KEY, WsProjectResponse.FileDataByPath.newBuilder()
+        .putFileDataByPath("src/Foo.java", WsProjectResponse.FileData.newBuilder().setHash("123456").setRevision("987654").build())
+        .build())
+      .build();
+    when(fileDataCache.get(PROJECT_KEY)).thenReturn(cached);
+    WsProjectResponse response = WsProjectResponse.newBuilder().setFileDataVersion("ABCD").setFileDataUnchanged(true).build();
+    WsTestUtil.mockStream(wsClient, "/batch/project.protobuf?key=foo%3F&file_data_version=ABCD", toStream(response));
+
+    ProjectRepositories proj = loader.load(PROJECT_KEY, false);
+
+    WsTestUtil.verifyCall(wsClient, "/batch/project.protobuf?key=foo%3F&file_data_version=ABCD");
+    assertThat(proj.fileData(PROJECT_KEY, "src/Foo.java").hash()).isEqualTo("123456");
+    assertThat(proj.fileData(PROJECT_KEY, "src/Foo.java").revision()).isEqualTo("987654");
+    verify(fileDataCache, never()).put(anyString(), any(WsProjectResponse.class));
+  }
+
+  private static InputStream toStream(WsProjectResponse response) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    response.writeTo(os);
+    return new ByteArrayInputStream(os.toByteArray());
+  }
+
   private InputStream mockData() throws IOException {
     ByteArrayOutputStream os = new ByteArrayOutputStream();
     WsProjectResponse.Builder projectResponseBuilder = WsProjectResponse.newBuilder();
@@ -19,6 +19,10 @@
  */
 package org.sonar.scanner.repository;
 
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.sonar.home.cache.FileCache;
 import org.sonar.scanner.WsTestUtil;
 import org.sonar.scanner.bootstrap.ScannerWsClient;
 import org.sonar.scanner.protocol.input.ScannerInput;
@@ -27,25 +31,42 @@ import org.sonar.scanner.repository.DefaultServerIssuesLoader;
 import com.google.common.base.Function;
 import org.junit.Before;
 import org.junit.Test;
+import org.sonarqube.ws.client.WsRequest;
+import org.sonarqube.ws.client.WsResponse;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class DefaultServerIssuesLoaderTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
   private DefaultServerIssuesLoader loader;
   private ScannerWsClient wsClient;
+  private ServerIssuesCache issuesCache;
 
   @Before
-  public void prepare() {
+  public void prepare() throws IOException {
     wsClient = mock(ScannerWsClient.class);
-    loader = new DefaultServerIssuesLoader(wsClient);
+    when(wsClient.baseUrl()).thenReturn("http://localhost:9000");
+    FileCache fileCache = mock(FileCache.class);
+    when(fileCache.getDir()).thenReturn(temp.newFolder());
+    issuesCache = new ServerIssuesCache(fileCache, wsClient);
+    loader = new DefaultServerIssuesLoader(wsClient, issuesCache);
   }
 
   @Test
@@ -80,4 +101,75 @@ public class DefaultServerIssuesLoaderTest {
     WsTestUtil.mockStream(wsClient, "/batch/issues.protobuf?key=foo", is);
     loader.load("foo", mock(Function.class));
   }
+
+  @Test
+  public void use_cached_issues_when_not_modified() throws Exception {
+    mockResponse(200, "\"abc\"", issues("ab1", "ab2"));
+    assertThat(load("foo")).containsExactly("ab1", "ab2");
+    assertThat(issuesCache.etag("foo")).isEqualTo("\"abc\"");
+
+    mockResponse(304, "\"abc\"", new byte[0]);
+    assertThat(load("foo")).containsExactly("ab1", "ab2");
+
+    ArgumentCaptor<WsRequest> requests = ArgumentCaptor.forClass(WsRequest.class);
+    verify(wsClient, times(2)).call(requests.capture());
+    assertThat(requests.getAllValues().get(0).getHeaders()).isEmpty();
+    assertThat(requests.getAllValues().get(1).getHeaders()).containsEntry("If-None-Match", "\"abc\"");
+  }
+
+  @Test
+  public void replace_cached_issues_when_modified() throws Exception {
+    mockResponse(200, "\"abc\"", issues("ab1", "ab2"));
+    load("foo");
+
+    mockResponse(200, "\"def\"", issues("ab3"));
+    assertThat(load("foo")).containsExactly("ab3");
+    assertThat(issuesCache.etag("foo")).isEqualTo("\"def\"");
+  }
+
+  @Test
+  public void do_not_cache_issues_when_download_fails() throws Exception {
+    InputStream is = mock(InputStream.class);
+    when(is.read()).thenThrow(IOException.class);
+    mockResponse(200, "\"abc\"", is);
+
+    try {
+      load("foo");
+      fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    assertThat(issuesCache.etag("foo")).isNull();
+  }
+
+  private List<String> load(String componentKey) {
+    List<String> keys = new ArrayList<>();
+    loader.load(componentKey, issue -> {
+      keys.add(issue.getKey());
+      return null;
+    });
+    return keys;
+  }
+
+  private void mockResponse(int code, String etag, byte[] content) {
+    mockResponse(code, etag, new ByteArrayInputStream(content));
+  }
+
+  private void mockResponse(int code, String etag, InputStream content) {
+    WsResponse response = mock(WsResponse.class);
+    when(response.code()).thenReturn(code);
+    when(response.header(anyString())).thenReturn(Optional.empty());
+    when(response.header("ETag")).thenReturn(Optional.of(etag));
+    when(response.contentStream()).thenReturn(content);
+    when(wsClient.call(any(WsRequest.class))).thenReturn(response);
+  }
+
+  private static byte[] issues(String... keys) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    for (String key : keys) {
+      ServerIssue.newBuilder().setKey(key).build().writeDelimitedTo(bos);
+    }
+    return bos.toByteArray();
+  }
 }
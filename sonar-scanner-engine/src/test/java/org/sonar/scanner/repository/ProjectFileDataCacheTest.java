@@ -0,0 +1,142 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.home.cache.FileCache;
+import org.sonar.scanner.bootstrap.ScannerWsClient;
+import org.sonarqube.ws.WsBatch.WsProjectResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProjectFileDataCacheTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private ScannerWsClient wsClient = mock(ScannerWsClient.class);
+  private File cacheDir;
+  private ProjectFileDataCache underTest;
+
+  @Before
+  public void setUp() throws IOException {
+    cacheDir = temp.newFolder();
+    FileCache fileCache = mock(FileCache.class);
+    when(fileCache.getDir()).thenReturn(cacheDir);
+    when(wsClient.baseUrl()).thenReturn("http://localhost:9000");
+    underTest = new ProjectFileDataCache(fileCache, wsClient);
+  }
+
+  @Test
+  public void return_null_when_not_cached() {
+    assertThat(underTest.get("foo")).isNull();
+  }
+
+  @Test
+  public void keep_only_file_data_and_version() {
+    WsProjectResponse response = WsProjectResponse.newBuilder()
+      .setFileDataVersion("ABCD")
+      .setTimestamp(123L)
+      .putSettingsByModule("foo", WsProjectResponse.Settings.newBuilder().putSettings("sonar.foo", "bar").build())
+      .putFileDataByModuleAndPath("foo", WsProjectResponse.FileDataByPath.newBuilder()
+        .putFileDataByPath("src/Foo.java", WsProjectResponse.FileData.newBuilder().setHash("123456").build())
+        .build())
+      .build();
+
+    underTest.put("foo", response);
+
+    WsProjectResponse cached = underTest.get("foo");
+    assertThat(cached.getFileDataVersion()).isEqualTo("ABCD");
+    assertThat(cached.getFileDataByModuleAndPath().get("foo").getFileDataByPath().get("src/Foo.java").getHash()).isEqualTo("123456");
+    assertThat(cached.getSettingsByModule()).isEmpty();
+    assertThat(underTest.get("bar")).isNull();
+  }
+
+  @Test
+  public void do_not_cache_response_without_version() {
+    underTest.put("foo", WsProjectResponse.newBuilder().build());
+
+    assertThat(underTest.get("foo")).isNull();
+  }
+
+  @Test
+  public void remove_cached_file_data_when_response_has_no_version() {
+    underTest.put("foo", WsProjectResponse.newBuilder().setFileDataVersion("ABCD").build());
+    underTest.put("foo", WsProjectResponse.newBuilder().build());
+
+    assertThat(underTest.get("foo")).isNull();
+  }
+
+  @Test
+  public void remove() {
+    underTest.put("foo", WsProjectResponse.newBuilder().setFileDataVersion("ABCD").build());
+    underTest.put("bar", WsProjectResponse.newBuilder().setFileDataVersion("EFGH").build());
+
+    underTest.remove("foo");
+    underTest.remove("does_not_exist");
+
+    assertThat(underTest.get("foo")).isNull();
+    assertThat(underTest.get("bar").getFileDataVersion()).isEqualTo("EFGH");
+  }
+
+  @Test
+  public void cache_depends_on_server() {
+    underTest.put("foo", WsProjectResponse.newBuilder().setFileDataVersion("ABCD").build());
+    when(wsClient.baseUrl()).thenReturn("http://otherhost:9000");
+
+    assertThat(underTest.get("foo")).isNull();
+  }
+
+  @Test
+  public void remove_entries_not_used_for_a_while_on_start() throws IOException {
+    underTest.put("foo", WsProjectResponse.newBuilder().setFileDataVersion("ABCD").build());
+    underTest.put("bar", WsProjectResponse.newBuilder().setFileDataVersion("EFGH").build());
+    File otherEntry = new File(cacheDir, "_projects/other.issues");
+    otherEntry.createNewFile();
+    long unused = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(ProjectFileDataCache.MAX_UNUSED_DAYS + 1);
+    File[] entries = new File(cacheDir, "_projects").listFiles();
+    for (File entry : entries) {
+      entry.setLastModified(unused);
+    }
+    // reading an entry marks it as used
+    underTest.get("bar");
+
+    underTest.start();
+
+    assertThat(underTest.get("foo")).isNull();
+    assertThat(underTest.get("bar").getFileDataVersion()).isEqualTo("EFGH");
+    assertThat(otherEntry).doesNotExist();
+  }
+
+  @Test
+  public void start_does_not_fail_when_cache_directory_does_not_exist() {
+    underTest.start();
+
+    assertThat(new File(cacheDir, "_projects")).doesNotExist();
+  }
+}
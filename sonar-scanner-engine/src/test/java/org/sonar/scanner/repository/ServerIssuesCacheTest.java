@@ -0,0 +1,111 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.home.cache.FileCache;
+import org.sonar.scanner.bootstrap.ScannerWsClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ServerIssuesCacheTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private ScannerWsClient wsClient = mock(ScannerWsClient.class);
+  private ServerIssuesCache underTest;
+
+  @Before
+  public void setUp() throws IOException {
+    FileCache fileCache = mock(FileCache.class);
+    when(fileCache.getDir()).thenReturn(temp.newFolder());
+    when(wsClient.baseUrl()).thenReturn("http://localhost:9000");
+    underTest = new ServerIssuesCache(fileCache, wsClient);
+  }
+
+  @Test
+  public void return_null_when_not_cached() {
+    assertThat(underTest.etag("foo")).isNull();
+    assertThat(underTest.get("foo")).isNull();
+  }
+
+  @Test
+  public void cache_issues_once_fully_read() throws IOException {
+    InputStream issues = underTest.put("foo", "\"abc\"", stream("issues"));
+    assertThat(IOUtils.toString(issues, StandardCharsets.UTF_8)).isEqualTo("issues");
+    assertThat(underTest.etag("foo")).isNull();
+
+    issues.close();
+
+    assertThat(underTest.etag("foo")).isEqualTo("\"abc\"");
+    try (InputStream cached = underTest.get("foo")) {
+      assertThat(IOUtils.toString(cached, StandardCharsets.UTF_8)).isEqualTo("issues");
+    }
+    assertThat(underTest.etag("bar")).isNull();
+  }
+
+  @Test
+  public void do_not_cache_partially_read_issues() throws IOException {
+    InputStream issues = underTest.put("foo", "\"abc\"", stream("issues"));
+    issues.read();
+    issues.close();
+
+    assertThat(underTest.etag("foo")).isNull();
+  }
+
+  @Test
+  public void keep_previous_issues_until_new_ones_are_fully_read() throws IOException {
+    cache("foo", "\"abc\"", "old issues");
+    InputStream newIssues = underTest.put("foo", "\"def\"", stream("new issues"));
+    newIssues.read();
+    newIssues.close();
+
+    assertThat(underTest.etag("foo")).isEqualTo("\"abc\"");
+  }
+
+  @Test
+  public void cache_depends_on_server() throws IOException {
+    cache("foo", "\"abc\"", "issues");
+    when(wsClient.baseUrl()).thenReturn("http://otherhost:9000");
+
+    assertThat(underTest.etag("foo")).isNull();
+  }
+
+  private void cache(String componentKey, String etag, String content) throws IOException {
+    try (InputStream issues = underTest.put(componentKey, etag, stream(content))) {
+      IOUtils.toString(issues, StandardCharsets.UTF_8);
+    }
+  }
+
+  private static InputStream stream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
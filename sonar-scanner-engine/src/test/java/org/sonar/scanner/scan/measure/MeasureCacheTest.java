@@ -19,7 +19,6 @@
  */
 package org.sonar.scanner.scan.measure;
 
-import java.util.Iterator;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -28,7 +27,6 @@ import org.sonar.api.batch.measure.MetricFinder;
 import org.sonar.api.batch.sensor.measure.internal.DefaultMeasure;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.scanner.index.AbstractCachesTest;
-import org.sonar.scanner.storage.Storage.Entry;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -56,19 +54,15 @@ public class MeasureCacheTest extends AbstractCachesTest {
 
   @Test
   public void should_add_measure() {
-    assertThat(measureCache.entries()).hasSize(0);
+    assertThat(measureCache.all()).hasSize(0);
     assertThat(measureCache.byComponentKey(COMPONENT_KEY)).hasSize(0);
 
     DefaultMeasure<?> m = new DefaultMeasure().forMetric(CoreMetrics.NCLOC).withValue(1.0);
     measureCache.put(COMPONENT_KEY, CoreMetrics.NCLOC_KEY, m);
 
     assertThat(measureCache.contains(COMPONENT_KEY, CoreMetrics.NCLOC_KEY)).isTrue();
-    assertThat(measureCache.entries()).hasSize(1);
-    Iterator<Entry<DefaultMeasure<?>>> iterator = measureCache.entries().iterator();
-    iterator.hasNext();
-    Entry<DefaultMeasure<?>> next = iterator.next();
-    assertThat(next.value()).isEqualTo(m);
-    assertThat(next.key()[0]).isEqualTo(COMPONENT_KEY);
+    assertThat(measureCache.all()).hasSize(1);
+    assertThat(measureCache.all().iterator().next()).isEqualTo(m);
 
     assertThat(measureCache.byComponentKey(COMPONENT_KEY)).hasSize(1);
     assertThat(measureCache.byComponentKey(COMPONENT_KEY).iterator().next()).isEqualTo(m);
@@ -79,7 +73,8 @@ public class MeasureCacheTest extends AbstractCachesTest {
    */
   @Test
   public void should_add_measure_with_too_big_data_for_persistit_pre_patch() {
-    assertThat(measureCache.entries()).hasSize(0);
+    measureCache = new MeasureCache(caches, metricFinder, 0L);
+    assertThat(measureCache.all()).hasSize(0);
     assertThat(measureCache.byComponentKey(COMPONENT_KEY)).hasSize(0);
 
     StringBuilder data = new StringBuilder(4_500_000);
@@ -90,12 +85,8 @@ public class MeasureCacheTest extends AbstractCachesTest {
     measureCache.put(COMPONENT_KEY, CoreMetrics.COVERAGE_LINE_HITS_DATA_KEY, m);
 
     assertThat(measureCache.contains(COMPONENT_KEY, CoreMetrics.COVERAGE_LINE_HITS_DATA_KEY)).isTrue();
-    assertThat(measureCache.entries()).hasSize(1);
-    Iterator<Entry<DefaultMeasure<?>>> iterator = measureCache.entries().iterator();
-    iterator.hasNext();
-    Entry<DefaultMeasure<?>> next = iterator.next();
-    assertThat(next.value()).isEqualTo(m);
-    assertThat(next.key()[0]).isEqualTo(COMPONENT_KEY);
+    assertThat(measureCache.all()).hasSize(1);
+    assertThat(measureCache.all().iterator().next()).isEqualTo(m);
 
     assertThat(measureCache.byComponentKey(COMPONENT_KEY)).hasSize(1);
     assertThat(measureCache.byComponentKey(COMPONENT_KEY).iterator().next()).isEqualTo(m);
@@ -104,7 +95,7 @@ public class MeasureCacheTest extends AbstractCachesTest {
 
   @Test
   public void should_add_measure_with_too_big_data_for_persistit() {
-    assertThat(measureCache.entries()).hasSize(0);
+    assertThat(measureCache.all()).hasSize(0);
     assertThat(measureCache.byComponentKey(COMPONENT_KEY)).hasSize(0);
 
     // Limit is 64Mo
@@ -127,7 +118,7 @@ public class MeasureCacheTest extends AbstractCachesTest {
     String file1Key = "struts:foo/bar/File1.txt";
     String file2Key = "struts:foo/bar/File2.txt";
 
-    assertThat(measureCache.entries()).hasSize(0);
+    assertThat(measureCache.all()).hasSize(0);
 
     assertThat(measureCache.byComponentKey(projectKey)).hasSize(0);
     assertThat(measureCache.byComponentKey(dirKey)).hasSize(0);
@@ -137,14 +128,14 @@ public class MeasureCacheTest extends AbstractCachesTest {
     DefaultMeasure<?> mFile2 = new DefaultMeasure().forMetric(CoreMetrics.NCLOC).withValue(3.0);
     measureCache.put(file2Key, CoreMetrics.NCLOC_DATA_KEY, mFile2);
 
-    assertThat(measureCache.entries()).hasSize(2);
+    assertThat(measureCache.all()).hasSize(2);
     assertThat(measureCache.byComponentKey(projectKey)).hasSize(0);
     assertThat(measureCache.byComponentKey(dirKey)).hasSize(0);
 
     DefaultMeasure<?> mDir = new DefaultMeasure().forMetric(CoreMetrics.NCLOC).withValue(4.0);
     measureCache.put(dirKey, CoreMetrics.NCLOC_DATA_KEY, mDir);
 
-    assertThat(measureCache.entries()).hasSize(3);
+    assertThat(measureCache.all()).hasSize(3);
     assertThat(measureCache.byComponentKey(projectKey)).hasSize(0);
     assertThat(measureCache.byComponentKey(dirKey)).hasSize(1);
     assertThat(measureCache.byComponentKey(dirKey).iterator().next()).isEqualTo(mDir);
@@ -152,11 +143,60 @@ public class MeasureCacheTest extends AbstractCachesTest {
     DefaultMeasure<?> mProj = new DefaultMeasure().forMetric(CoreMetrics.NCLOC).withValue(4.0);
     measureCache.put(projectKey, CoreMetrics.NCLOC_DATA_KEY, mProj);
 
-    assertThat(measureCache.entries()).hasSize(4);
+    assertThat(measureCache.all()).hasSize(4);
     assertThat(measureCache.byComponentKey(projectKey)).hasSize(1);
     assertThat(measureCache.byComponentKey(projectKey).iterator().next()).isEqualTo(mProj);
     assertThat(measureCache.byComponentKey(dirKey)).hasSize(1);
     assertThat(measureCache.byComponentKey(dirKey).iterator().next()).isEqualTo(mDir);
   }
 
+  @Test
+  public void should_move_measures_to_storage_when_exceeding_memory_budget() {
+    // room for the maps of the two components, "1=1" (6 bytes) and a numeric measure
+    measureCache = new MeasureCache(caches, metricFinder,
+      2 * MeasureCache.COMPONENT_BYTES + 2 * MeasureCache.MEASURE_BYTES + MeasureCache.STRING_BYTES + 6L);
+
+    DefaultMeasure<?> small = new DefaultMeasure().forMetric(CoreMetrics.COVERAGE_LINE_HITS_DATA).withValue("1=1");
+    measureCache.put("file1", CoreMetrics.COVERAGE_LINE_HITS_DATA_KEY, small);
+    DefaultMeasure<?> big = new DefaultMeasure().forMetric(CoreMetrics.COVERAGE_LINE_HITS_DATA).withValue("1=1;2=0;3=4");
+    measureCache.put("file2", CoreMetrics.COVERAGE_LINE_HITS_DATA_KEY, big);
+    DefaultMeasure<?> ncloc1 = new DefaultMeasure().forMetric(CoreMetrics.NCLOC).withValue(10);
+    measureCache.put("file1", CoreMetrics.NCLOC_KEY, ncloc1);
+    // numeric measures also count in the budget
+    DefaultMeasure<?> ncloc2 = new DefaultMeasure().forMetric(CoreMetrics.NCLOC).withValue(20);
+    measureCache.put("file2", CoreMetrics.NCLOC_KEY, ncloc2);
+
+    // measures in memory first, then measures in storage
+    assertThat(measureCache.all()).containsExactly(small, ncloc1, big, ncloc2);
+    assertThat(measureCache.byComponentKey("file2")).containsOnly(big, ncloc2);
+    assertThat(measureCache.contains("file2", CoreMetrics.COVERAGE_LINE_HITS_DATA_KEY)).isTrue();
+    assertThat(measureCache.contains("file2", CoreMetrics.NCLOC_KEY)).isTrue();
+    assertThat(measureCache.byMetric("file2", CoreMetrics.COVERAGE_LINE_HITS_DATA_KEY).value()).isEqualTo("1=1;2=0;3=4");
+    assertThat(measureCache.byMetric("file2", CoreMetrics.NCLOC_KEY).value()).isEqualTo(20);
+  }
+
+  @Test
+  public void should_sort_measures_by_component_and_metric() {
+    DefaultMeasure<?> m1 = new DefaultMeasure().forMetric(CoreMetrics.NCLOC).withValue(1);
+    DefaultMeasure<?> m2 = new DefaultMeasure().forMetric(CoreMetrics.COVERAGE_LINE_HITS_DATA).withValue("1=1");
+    DefaultMeasure<?> m3 = new DefaultMeasure().forMetric(CoreMetrics.NCLOC).withValue(3);
+    measureCache.put("file2", CoreMetrics.NCLOC_KEY, m3);
+    measureCache.put("file1", CoreMetrics.NCLOC_KEY, m1);
+    measureCache.put("file1", CoreMetrics.COVERAGE_LINE_HITS_DATA_KEY, m2);
+
+    // "coverage_line_hits_data" < "ncloc"
+    assertThat(measureCache.all()).containsExactly(m2, m1, m3);
+  }
+
+  @Test
+  public void should_replace_measure() {
+    DefaultMeasure<?> first = new DefaultMeasure().forMetric(CoreMetrics.NCLOC).withValue(1);
+    DefaultMeasure<?> second = new DefaultMeasure().forMetric(CoreMetrics.NCLOC).withValue(2);
+    measureCache.put(COMPONENT_KEY, CoreMetrics.NCLOC_KEY, first);
+    measureCache.put(COMPONENT_KEY, CoreMetrics.NCLOC_KEY, second);
+
+    assertThat(measureCache.byComponentKey(COMPONENT_KEY)).containsOnly(second);
+    assertThat(measureCache.byMetric(COMPONENT_KEY, CoreMetrics.NCLOC_KEY)).isSameAs(second);
+  }
+
 }
@@ -46,6 +46,8 @@ abstract class BaseRequest<SELF extends BaseRequest> implements WsRequest {
 
   private final DefaultParameters parameters = new DefaultParameters();
 
+  private final Map<String, String> headers = new LinkedHashMap<>();
+
   BaseRequest(String path) {
     this.path = path;
   }
@@ -114,6 +116,24 @@ abstract class BaseRequest<SELF extends BaseRequest> implements WsRequest {
     return (SELF) this;
   }
 
+  /**
+   * @since 6.3
+   */
+  public SELF setHeader(String name, @Nullable String value) {
+    checkArgument(!isNullOrEmpty(name), "a HTTP header name cannot be null");
+    if (value == null) {
+      headers.remove(name);
+    } else {
+      headers.put(name, value);
+    }
+    return (SELF) this;
+  }
+
+  @Override
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
   @Override
   public Map<String, String> getParams() {
     return parameters.keyValues.keySet().stream()
@@ -162,6 +162,7 @@ public class HttpConnector implements WsConnector {
       .url(urlBuilder.build())
       .addHeader("Accept", getRequest.getMediaType())
       .addHeader("Accept-Charset", "UTF-8");
+    getRequest.getHeaders().forEach(okHttpRequestBuilder::header);
     if (credentials != null) {
       okHttpRequestBuilder.header("Authorization", credentials);
     }
@@ -43,6 +43,13 @@ public interface WsRequest {
 
   Parameters getParameters();
 
+  /**
+   * HTTP headers to be sent in addition to the default ones, for example If-None-Match.
+   * They are ignored when web services are called locally.
+   * @since 6.3
+   */
+  Map<String, String> getHeaders();
+
   enum Method {
     GET, POST
   }
@@ -121,6 +121,21 @@ public class HttpConnectorTest {
    * Access token replaces the couple {login,password} and is sent through
    * the login field
    */
+  @Test
+  public void send_and_read_headers() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"abc\""));
+    underTest = HttpConnector.newBuilder().url(serverUrl).build();
+
+    GetRequest request = new GetRequest("api/issues/search").setHeader("If-None-Match", "\"abc\"");
+    WsResponse response = underTest.call(request);
+
+    RecordedRequest recordedRequest = server.takeRequest();
+    assertThat(recordedRequest.getHeader("If-None-Match")).isEqualTo("\"abc\"");
+    assertThat(response.code()).isEqualTo(304);
+    assertThat(response.header("ETag")).contains("\"abc\"");
+    assertThat(response.header("Last-Modified")).isEmpty();
+  }
+
   @Test
   public void use_access_token() throws Exception {
     answerHelloWorld();
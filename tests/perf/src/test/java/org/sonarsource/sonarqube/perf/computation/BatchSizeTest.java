@@ -0,0 +1,84 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarqube.perf.computation;
+
+import com.sonar.orchestrator.Orchestrator;
+import com.sonar.orchestrator.build.SonarScanner;
+import com.sonar.orchestrator.locator.FileLocation;
+import java.io.File;
+import java.io.IOException;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarsource.sonarqube.perf.PerfTestCase;
+import org.sonarsource.sonarqube.perf.ServerLogs;
+
+/**
+ * Compares the duration of the Compute Engine task of the project of {@link ComputationTest}
+ * when statements are flushed to database by batches of different sizes (property sonar.jdbc.batchSize).
+ */
+public class BatchSizeTest extends PerfTestCase {
+
+  @ClassRule
+  public static TemporaryFolder temp = new TemporaryFolder();
+
+  private static File bigProjectBaseDir;
+
+  @BeforeClass
+  public static void classSetUp() throws IOException {
+    bigProjectBaseDir = ComputationTest.createProject(temp.newFolder(), 4, 10, 20);
+  }
+
+  @Test
+  public void analyse_big_project_with_batches_of_250_statements() throws Exception {
+    assertComputationDurationLessThan(250, 340000L);
+  }
+
+  @Test
+  public void analyse_big_project_with_batches_of_1000_statements() throws Exception {
+    assertComputationDurationLessThan(1000, 340000L);
+  }
+
+  private void assertComputationDurationLessThan(int batchSize, long maxDuration) throws IOException {
+    Orchestrator orchestrator = Orchestrator
+      .builderEnv()
+      .addPlugin(FileLocation.byWildcardMavenFilename(new File("../../plugins/sonar-xoo-plugin/target"), "sonar-xoo-plugin-*.jar"))
+      .setServerProperty("sonar.jdbc.batchSize", String.valueOf(batchSize))
+      .setServerProperty("sonar.log.level", "DEBUG")
+      .restoreProfileAtStartup(FileLocation.ofClasspath("/one-xoo-issue-per-line.xml"))
+      .build();
+    orchestrator.start();
+    try {
+      orchestrator.executeBuild(SonarScanner.create()
+        .setProperties(
+          "sonar.projectKey", "big-project",
+          "sonar.projectName", "Big Project",
+          "sonar.projectVersion", "1.0",
+          "sonar.sources", "src",
+          "sonar.profile", "one-xoo-issue-per-line")
+        .setProjectDir(bigProjectBaseDir));
+
+      assertDurationLessThan(ServerLogs.extractComputationTotalTime(orchestrator), maxDuration);
+    } finally {
+      orchestrator.stop();
+    }
+  }
+}
@@ -55,7 +55,7 @@ public class ComputationTest extends PerfTestCase {
 
   @BeforeClass
   public static void classSetUp() throws IOException {
-    bigProjectBaseDir = createProject(4, 10, 20);
+    bigProjectBaseDir = createProject(temp.newFolder(), 4, 10, 20);
   }
 
   @Before
@@ -85,8 +85,7 @@ public class ComputationTest extends PerfTestCase {
     assertDurationAround(duration, expectedDuration);
   }
 
-  private static File createProject(int dirDepth, int nbDirByLayer, int nbIssuesByFile) throws IOException {
-    File rootDir = temp.newFolder();
+  public static File createProject(File rootDir, int dirDepth, int nbDirByLayer, int nbIssuesByFile) throws IOException {
     File projectProperties = new File(rootDir, "sonar-project.properties");
 
     StringBuilder moduleListBuilder = new StringBuilder(nbDirByLayer * ("module".length() + 2));
@@ -70,13 +70,27 @@ public class DuplicationTest extends PerfTestCase {
    */
   @Test
   public void hugeJavaFile() {
-    MavenBuild build = MavenBuild.create(FileLocation.of("projects/huge-file/pom.xml").getFile())
+    orchestrator.executeBuild(newHugeFileBuild());
+    Map<String, Double> measure = getMeasures("com.sonarsource.it.samples:huge-file:src/main/java/huge/HugeFile.java");
+    assertThat(measure.get("duplicated_lines")).isGreaterThan(50000.0);
+  }
+
+  @Test
+  public void hugeJavaFile_project_wide_detection() {
+    orchestrator.executeBuild(newHugeFileBuild());
+    Map<String, Double> fileByFile = getMeasures("com.sonarsource.it.samples:huge-file:src/main/java/huge/HugeFile.java");
+
+    orchestrator.executeBuild(newHugeFileBuild().setProperty("sonar.cpd.projectWideDetection", "true"));
+    Map<String, Double> projectWide = getMeasures("com.sonarsource.it.samples:huge-file:src/main/java/huge/HugeFile.java");
+
+    assertThat(projectWide).isEqualTo(fileByFile);
+  }
+
+  private static MavenBuild newHugeFileBuild() {
+    return MavenBuild.create(FileLocation.of("projects/huge-file/pom.xml").getFile())
       .setEnvironmentVariable("MAVEN_OPTS", "-Xmx1024m")
       .setProperty("sonar.sourceEncoding", "UTF-8")
       .setCleanSonarGoals();
-    orchestrator.executeBuild(build);
-    Map<String, Double> measure = getMeasures("com.sonarsource.it.samples:huge-file:src/main/java/huge/HugeFile.java");
-    assertThat(measure.get("duplicated_lines")).isGreaterThan(50000.0);
   }
 
   private Map<String, Double> getMeasures(String key) {
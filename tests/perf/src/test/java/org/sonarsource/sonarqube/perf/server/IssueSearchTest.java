@@ -0,0 +1,144 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarqube.perf.server;
+
+import com.github.kevinsawicki.http.HttpRequest;
+import com.sonar.orchestrator.Orchestrator;
+import com.sonar.orchestrator.build.SonarScanner;
+import com.sonar.orchestrator.locator.FileLocation;
+import java.io.File;
+import java.util.List;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.client.HttpConnector;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.WsClientFactories;
+import org.sonarqube.ws.client.issue.AddCommentRequest;
+import org.sonarqube.ws.client.issue.SearchWsRequest;
+import org.sonarsource.sonarqube.perf.PerfTestCase;
+import org.sonarsource.sonarqube.perf.computation.ComputationTest;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Durations of api/issues/search on a project with about 20,000 issues, 500 of them being commented.
+ */
+public class IssueSearchTest extends PerfTestCase {
+
+  private static final String[] COMMENTS = {
+    "This is *not* a false-positive, see ``Foo#bar()``",
+    "Fixed by [SONAR-1234](http://jira.sonarsource.com/browse/SONAR-1234)",
+    "* first point\n* second point\n\n= Title\nSome text with ``code``"
+  };
+
+  @ClassRule
+  public static TemporaryFolder temp = new TemporaryFolder();
+
+  @ClassRule
+  public static Orchestrator orchestrator = Orchestrator
+    .builderEnv()
+    .addPlugin(FileLocation.byWildcardMavenFilename(new File("../../plugins/sonar-xoo-plugin/target"), "sonar-xoo-plugin-*.jar"))
+    .restoreProfileAtStartup(FileLocation.ofClasspath("/one-xoo-issue-per-line.xml"))
+    .build();
+
+  @BeforeClass
+  public static void analyseProjectAndCommentIssues() throws Exception {
+    orchestrator.executeBuild(SonarScanner.create()
+      .setProperties(
+        "sonar.projectKey", "issues-project",
+        "sonar.projectName", "Issues Project",
+        "sonar.projectVersion", "1.0",
+        "sonar.sources", "src",
+        "sonar.profile", "one-xoo-issue-per-line")
+      .setProjectDir(ComputationTest.createProject(temp.newFolder(), 2, 10, 20)));
+
+    WsClient wsClient = WsClientFactories.getDefault().newClient(HttpConnector.newBuilder()
+      .url(orchestrator.getServer().getUrl())
+      .credentials("admin", "admin")
+      .build());
+    List<Issues.Issue> issues = wsClient.issues().search(new SearchWsRequest().setPageSize(500)).getIssuesList();
+    for (int i = 0; i < issues.size(); i++) {
+      wsClient.issues().addComment(new AddCommentRequest(issues.get(i).getKey(), COMMENTS[i % COMMENTS.length]));
+    }
+  }
+
+  @Test
+  public void search_issues_with_actions_and_transitions() {
+    long duration = request("/api/issues/search?ps=500&additionalFields=actions,transitions", "admin");
+    assertDurationLessThan(duration, 800);
+  }
+
+  @Test
+  public void search_issues_with_comments() {
+    long duration = request("/api/issues/search?ps=500&additionalFields=comments", "admin");
+    assertDurationLessThan(duration, 600);
+  }
+
+  @Test
+  public void search_issues_with_facets_as_anonymous() {
+    long duration = request("/api/issues/search?ps=1&facets=severities,types,rules,fileUuids,assignees", null);
+    assertDurationLessThan(duration, 300);
+  }
+
+  @Test
+  public void search_page_of_500_issues() {
+    long duration = request("/api/issues/search?ps=500&p=3", null);
+    assertDurationLessThan(duration, 500);
+  }
+
+  /**
+   * @param login login and password of the user, or null for anonymous
+   * @return the lowest duration in ms of 10 requests, after 5 requests of warm-up
+   */
+  private static long request(String path, String login) {
+    String url = orchestrator.getServer().getUrl() + path;
+    for (int i = 0; i < 5; i++) {
+      newRequest(url, login).code();
+    }
+    long targetDuration = Long.MAX_VALUE;
+    for (int i = 0; i < 10; i++) {
+      HttpRequest request = newRequest(url, login);
+      long start = System.currentTimeMillis();
+      // the body is read before stopping the clock, as responses are streamed
+      boolean ok = request.ok();
+      int size = request.body().length();
+      long duration = System.currentTimeMillis() - start;
+      if (ok) {
+        targetDuration = Math.min(targetDuration, duration);
+        System.out.printf("##### Request %90s %7d ms %9d bytes\n", path, duration, size);
+      }
+    }
+    if (targetDuration == Long.MAX_VALUE) {
+      fail(String.format("Failed to request: %s", url));
+    }
+    return targetDuration;
+  }
+
+  private static HttpRequest newRequest(String url, String login) {
+    HttpRequest request = HttpRequest.get(url).followRedirects(false).acceptJson().acceptCharset(HttpRequest.CHARSET_UTF8);
+    if (login != null) {
+      request.basic(login, login);
+    }
+    return request;
+  }
+}